@@ -42,6 +42,7 @@ public class ARCoreSession {
     public interface BluetoothDataSender {
         boolean isBluetoothConnected();
         void sendBluetoothData(String data);
+        void sendBluetoothData(byte[] data, int length);
     }
 
     private BluetoothDataSender mBluetoothDataSender;
@@ -49,9 +50,40 @@ public class ARCoreSession {
     public void setBluetoothDataSender(BluetoothDataSender sender) {
         mBluetoothDataSender = sender;
     }
+
+    // binary frames by default, the legacy "tx,ty" text lines are kept for old servers
+    public void setWireCodec(PoseFrameEncoder.Codec codec) {
+        mWireCodec = codec;
+    }
+
+    // translation by default, orientation aims the cursor like a laser pointer and needs a binary codec.
+    // The mode is announced in the hello, so a change applies from the next connection on.
+    public void setPointingMode(PoseFrameEncoder.PointingMode mode) {
+        mPointingMode = mode;
+    }
+
+    public PoseFrameEncoder.PointingMode getPointingMode() {
+        return mPointingMode;
+    }
+
+    // announce protocol version, codec, sample rate and pointing mode, has to be sent right after connecting
+    public void sendHandshake() {
+        if (mBluetoothDataSender == null) {
+            return;
+        }
+        int sampleRateHz = mUpdateRate > 0 ? (int) Math.round(mUpdateRate) : DEFAULT_SAMPLE_RATE_HZ;
+        PoseFrameEncoder.PointingMode pointingMode = mPointingMode;
+        if (pointingMode == PoseFrameEncoder.PointingMode.ORIENTATION && mWireCodec == PoseFrameEncoder.Codec.TEXT) {
+            // text lines carry only tx,ty
+            mWireCodec = PoseFrameEncoder.Codec.BINARY;
+        }
+        byte[] hello = mPoseFrameEncoder.encodeHello(mWireCodec, sampleRateHz, pointingMode);
+        mBluetoothDataSender.sendBluetoothData(hello, PoseFrameEncoder.HELLO_LENGTH);
+    }
     // properties
     private static final String LOG_TAG = ARCoreSession.class.getName();
     private static final long mulSecondToNanoSecond = 1000000000;
+    private static final int DEFAULT_SAMPLE_RATE_HZ = 30;
     private long previousTimestamp = 0;
 
     private ToastInterface mToastInterface;
@@ -70,6 +102,9 @@ public class ARCoreSession {
     private TrackingFailureReason mTrackingFailureReason;
     private double mUpdateRate = 0;
     private AtomicBoolean mIsTransmitting = new AtomicBoolean(false);
+    private PoseFrameEncoder mPoseFrameEncoder = new PoseFrameEncoder();
+    private volatile PoseFrameEncoder.Codec mWireCodec = PoseFrameEncoder.Codec.BINARY;
+    private volatile PoseFrameEncoder.PointingMode mPointingMode = PoseFrameEncoder.PointingMode.TRANSLATION;
 
 
     // constructor
@@ -140,6 +175,7 @@ public class ARCoreSession {
     }
 
     public void startTransmitting() {
+        mPoseFrameEncoder.reset();
         mIsTransmitting.set(true);
     }
 
@@ -176,10 +212,27 @@ public class ARCoreSession {
         float ty = T_gc.ty();
         float tz = T_gc.tz();
 
-        // Bluetooth를 통해 tx, ty 값 전송 (전송 상태가 활성화된 경우에만)
+        // Bluetooth를 통해 pose 전송 (전송 상태가 활성화된 경우에만)
+        // the tracking state goes with every frame, so the server can freeze the cursor while the pose is unreliable
         if (mIsTransmitting.get() && mBluetoothDataSender != null && mBluetoothDataSender.isBluetoothConnected()) {
-            String data = String.format(Locale.US, "%.6f,%.6f", tx, ty);
-            mBluetoothDataSender.sendBluetoothData(data);
+            byte flags = PoseFrameEncoder.trackingFlags(trackingState, trackingFailureReason);
+            switch (mWireCodec) {
+                case BINARY:
+                    byte[] binaryFrame = mPoseFrameEncoder.encode(flags, timestamp, tx, ty, tz, qx, qy, qz, qw);
+                    mBluetoothDataSender.sendBluetoothData(binaryFrame, PoseFrameEncoder.FRAME_LENGTH);
+                    break;
+                case COMPRESSED:
+                    byte[] compressedFrame = mPoseFrameEncoder.encodeCompressed(flags, timestamp, tx, ty, tz, qx, qy, qz, qw);
+                    mBluetoothDataSender.sendBluetoothData(compressedFrame, PoseFrameEncoder.COMPRESSED_FRAME_LENGTH);
+                    break;
+                default:
+                    // text lines can't carry the state, so nothing is sent while not tracking
+                    if (trackingState == TrackingState.TRACKING) {
+                        String data = String.format(Locale.US, "%.6f,%.6f", tx, ty);
+                        mBluetoothDataSender.sendBluetoothData(data);
+                    }
+                    break;
+            }
         }
 
         // update 3D point cloud from ARCore
@@ -151,6 +151,22 @@ public class MainActivity extends AppCompatActivity implements ToastInterface, A
         mBtnBluetoothOn.setOnClickListener(v -> bluetoothOn());
         mBtnBluetoothOff.setOnClickListener(v -> bluetoothOff());
         mBtnConnect.setOnClickListener(v -> listPairedDevices());
+        // long press switches between moving and aiming the phone for the next connection
+        mBtnConnect.setOnLongClickListener(v -> {
+            togglePointingMode();
+            return true;
+        });
+    }
+
+    private void togglePointingMode() {
+        PoseFrameEncoder.PointingMode mode =
+                mARCoreSession.getPointingMode() == PoseFrameEncoder.PointingMode.TRANSLATION
+                        ? PoseFrameEncoder.PointingMode.ORIENTATION
+                        : PoseFrameEncoder.PointingMode.TRANSLATION;
+        mARCoreSession.setPointingMode(mode);
+        showToast(mode == PoseFrameEncoder.PointingMode.ORIENTATION
+                ? "Aim the phone to point, applies from the next connection"
+                : "Move the phone to point, applies from the next connection");
     }
 
     private void setupBluetoothHandler() {
@@ -240,9 +256,17 @@ public class MainActivity extends AppCompatActivity implements ToastInterface, A
         }
     }
 
+    @Override
+    public void sendBluetoothData(byte[] data, int length) {
+        if (mThreadConnectedBluetooth != null) {
+            mThreadConnectedBluetooth.write(data, length);
+        }
+    }
+
     // Bluetooth 연결 성공 시 호출
     private void onBluetoothConnected() {
         mIsBluetoothConnected = true;
+        mARCoreSession.sendHandshake();
         runOnUiThread(() -> {
             Toast.makeText(this, "Bluetooth is connected", Toast.LENGTH_SHORT).show();
             if (mIsRecording.get()) {
@@ -541,8 +565,12 @@ public class MainActivity extends AppCompatActivity implements ToastInterface, A
 
         public void write(String str) {
             byte[] bytes = (str + "\n").getBytes();  // 줄바꿈 문자 추가
+            write(bytes, bytes.length);
+        }
+
+        public void write(byte[] bytes, int length) {
             try {
-                mmOutStream.write(bytes);
+                mmOutStream.write(bytes, 0, length);
                 mmOutStream.flush();
             } catch (IOException e) {
                 Log.e(THREAD_TAG, "Error occurred when sending data", e);
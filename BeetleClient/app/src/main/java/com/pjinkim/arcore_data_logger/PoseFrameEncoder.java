@@ -0,0 +1,174 @@
+package com.pjinkim.arcore_data_logger;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.google.ar.core.TrackingFailureReason;
+import com.google.ar.core.TrackingState;
+
+// Messages sent to the Beetle server, must match PoseHandshake, BinaryPoseCodec and CompactPoseCodec
+// on the server side. All values are little-endian.
+//
+// Hello, sent once right after connecting:
+// offset size field
+//  0      1   magic (0xBE)
+//  1      1   message type 'H'
+//  2      1   protocol version
+//  3      1   codec id, see Codec
+//  4      2   sample rate in Hz, uint16
+//  6      1   flags, bits 0-1 the PointingMode id, others reserved (0)
+//  7      1   reserved (0)
+//
+// Binary pose frame:
+// offset size field
+//  0      1   magic (0xBE)
+//  1      1   version
+//  2      1   flags, bits 0-1 tracking state, bits 2-5 tracking failure reason, others reserved (0)
+//  3      1   reserved (0)
+//  4      4   sequence number, int32
+//  8      8   sensor timestamp in nanoseconds, int64
+// 16     12   tx, ty, tz, float32
+// 28     16   qx, qy, qz, qw, float32
+//
+// Compressed pose frame:
+// offset size field
+//  0      1   magic (0xBC)
+//  1      1   flags, same as in the binary frame
+//  2      2   sequence number, lowest 16 bits
+//  4      4   sensor timestamp in microseconds, lowest 32 bits
+//  8     12   tx, ty, tz in micrometres, int32
+// 20      8   qx, qy, qz, qw scaled by 32767, int16
+
+public class PoseFrameEncoder {
+
+    // wire formats, the id is announced in the hello
+    public enum Codec {
+        TEXT(0),
+        BINARY(1),
+        COMPRESSED(2);
+
+        private final int mId;
+
+        Codec(int id) {
+            mId = id;
+        }
+
+        public int getId() {
+            return mId;
+        }
+    }
+
+
+    // how the server uses the pose, chosen per session in the hello flags
+    public enum PointingMode {
+        TRANSLATION(0),
+        ORIENTATION(1);
+
+        private final int mId;
+
+        PointingMode(int id) {
+            mId = id;
+        }
+
+        public int getId() {
+            return mId;
+        }
+    }
+
+
+    // properties
+    public static final byte MAGIC = (byte) 0xBE;
+    public static final byte VERSION = 1;
+    public static final int FRAME_LENGTH = 44;
+
+    public static final byte HELLO_TYPE = 'H';
+    public static final byte PROTOCOL_VERSION = 1;
+    public static final int HELLO_LENGTH = 8;
+
+    public static final byte COMPRESSED_MAGIC = (byte) 0xBC;
+    public static final int COMPRESSED_FRAME_LENGTH = 28;
+
+    private final byte[] mFrame = new byte[FRAME_LENGTH];
+    private final ByteBuffer mBuffer = ByteBuffer.wrap(mFrame).order(ByteOrder.LITTLE_ENDIAN);
+    private int mSequence = 0;
+
+
+    // methods
+    // The returned arrays are reused by the next call, so they have to be written out before encoding again.
+    public byte[] encodeHello(Codec codec, int sampleRateHz, PointingMode pointingMode) {
+        mBuffer.clear();
+        mBuffer.put(MAGIC);
+        mBuffer.put(HELLO_TYPE);
+        mBuffer.put(PROTOCOL_VERSION);
+        mBuffer.put((byte) codec.getId());
+        mBuffer.putShort((short) sampleRateHz);
+        mBuffer.put((byte) pointingMode.getId());
+        mBuffer.put((byte) 0);
+        return mFrame;
+    }
+
+
+    // tracking state and failure reason in the flags byte, the ids match the ARCore enums in declaration order
+    public static byte trackingFlags(TrackingState state, TrackingFailureReason reason) {
+        int stateId;
+        switch (state) {
+            case TRACKING:
+                stateId = 0;
+                break;
+            case PAUSED:
+                stateId = 1;
+                break;
+            default:
+                stateId = 2;
+                break;
+        }
+        int reasonId = reason == null ? 0 : reason.ordinal();
+        return (byte) (stateId | (reasonId & 0x0F) << 2);
+    }
+
+
+    public byte[] encode(byte flags, long timestamp, float tx, float ty, float tz, float qx, float qy, float qz, float qw) {
+        mBuffer.clear();
+        mBuffer.put(MAGIC);
+        mBuffer.put(VERSION);
+        mBuffer.put(flags);
+        mBuffer.put((byte) 0);
+        mBuffer.putInt(mSequence++);
+        mBuffer.putLong(timestamp);
+        mBuffer.putFloat(tx);
+        mBuffer.putFloat(ty);
+        mBuffer.putFloat(tz);
+        mBuffer.putFloat(qx);
+        mBuffer.putFloat(qy);
+        mBuffer.putFloat(qz);
+        mBuffer.putFloat(qw);
+        return mFrame;
+    }
+
+
+    public byte[] encodeCompressed(byte flags, long timestamp, float tx, float ty, float tz, float qx, float qy, float qz, float qw) {
+        mBuffer.clear();
+        mBuffer.put(COMPRESSED_MAGIC);
+        mBuffer.put(flags);
+        mBuffer.putShort((short) mSequence++);
+        mBuffer.putInt((int) (timestamp / 1000));
+        mBuffer.putInt(Math.round(tx * 1000000f));
+        mBuffer.putInt(Math.round(ty * 1000000f));
+        mBuffer.putInt(Math.round(tz * 1000000f));
+        mBuffer.putShort(quantizeUnit(qx));
+        mBuffer.putShort(quantizeUnit(qy));
+        mBuffer.putShort(quantizeUnit(qz));
+        mBuffer.putShort(quantizeUnit(qw));
+        return mFrame;
+    }
+
+
+    public void reset() {
+        mSequence = 0;
+    }
+
+
+    private static short quantizeUnit(float value) {
+        return (short) Math.round(Math.max(-1f, Math.min(1f, value)) * Short.MAX_VALUE);
+    }
+}
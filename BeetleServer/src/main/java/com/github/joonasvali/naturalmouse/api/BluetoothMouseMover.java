@@ -1,40 +1,69 @@
 package com.github.joonasvali.naturalmouse.api;
 
-import java.awt.Dimension;
 import java.awt.MouseInfo;
 import java.awt.Point;
-import java.awt.Toolkit;
+import java.awt.Rectangle;
 import javax.swing.*;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
 import java.util.Date;
-
-import javax.bluetooth.LocalDevice;
-import javax.bluetooth.UUID;
-import javax.microedition.io.Connector;
-import javax.microedition.io.StreamConnection;
-import javax.microedition.io.StreamConnectionNotifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+
+import com.github.joonasvali.naturalmouse.support.pipeline.ArbitrationPolicy;
+import com.github.joonasvali.naturalmouse.support.pipeline.CursorActuator;
+import com.github.joonasvali.naturalmouse.support.pipeline.CursorArbiter;
+import com.github.joonasvali.naturalmouse.support.pipeline.CursorController;
+import com.github.joonasvali.naturalmouse.support.pipeline.DisplayTopology;
+import com.github.joonasvali.naturalmouse.support.pipeline.GainCurve;
+import com.github.joonasvali.naturalmouse.support.pipeline.InterpolationMode;
+import com.github.joonasvali.naturalmouse.support.pipeline.PoseCursorMapper;
+import com.github.joonasvali.naturalmouse.support.pipeline.OneEuroSettings;
+import com.github.joonasvali.naturalmouse.support.pipeline.OutlierSettings;
+import com.github.joonasvali.naturalmouse.support.pipeline.PipelineConfig;
+import com.github.joonasvali.naturalmouse.support.pipeline.PoseClient;
+import com.github.joonasvali.naturalmouse.support.pipeline.PredictionSettings;
+import com.github.joonasvali.naturalmouse.support.pipeline.StreamingMotionController;
+import com.github.joonasvali.naturalmouse.support.pipeline.WorkspaceCalibration;
+import com.github.joonasvali.naturalmouse.support.ScreenAdjustedNature;
+import com.github.joonasvali.naturalmouse.support.pose.PoseIngestMetrics;
+import com.github.joonasvali.naturalmouse.support.pose.PoseListener;
+import com.github.joonasvali.naturalmouse.support.pose.PoseStreamDecoder;
+import com.github.joonasvali.naturalmouse.support.transport.RfcommPoseTransport;
+import com.github.joonasvali.naturalmouse.support.transport.SelectorIngestServer;
+import com.github.joonasvali.naturalmouse.support.transport.TcpPoseTransport;
+import com.github.joonasvali.naturalmouse.support.transport.UdpPoseTransport;
+import com.github.joonasvali.naturalmouse.util.FactoryTemplates;
 
 public class BluetoothMouseMover extends JFrame {
-    private static final int FPS = 30;
-    private static final int DELAY = 1000 / FPS;
-
-    private static double currentX;
-    private static double currentY;
-    private static double previousTX = 0;
-    private static double previousTY = 0;
-
-    private static MouseMotionFactory mouseMotionFactory;
-    private static Dimension screenSize;
+    private static final int RECEIVE_BUFFER_SIZE = 4096;
+    private static final long METRICS_LOG_INTERVAL_MS = 10000;
+    private static final int STATUS_INTERVAL_MS = 500;
+    private static final int DEFAULT_PORT = 5005;
+    private static final int DISPLAY_CHECK_INTERVAL_MS = 2000;
+
+    private static final PoseIngestMetrics ingestMetrics = new PoseIngestMetrics();
+    private static CursorArbiter arbiter;
+    private static PoseCursorMapper mapper;
+    private static GainCurve gainCurve;
+    private static CursorActuator actuator;
+    private static DisplayTopology displays;
+    private static Rectangle screenArea;
+
+    private final JLabel mStatusLabel = new JLabel();
 
     public BluetoothMouseMover() {
         setTitle("Bluetooth Mouse Mover");
         setSize(300, 200);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        mStatusLabel.setVerticalAlignment(SwingConstants.TOP);
+        add(mStatusLabel);
         setVisible(true);
 
         addKeyListener(new KeyListener() {
@@ -43,6 +72,28 @@ public class BluetoothMouseMover extends JFrame {
                 if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
                     System.exit(0);
                 }
+                // G switches between the configured acceleration and none, for comparing them
+                if (e.getKeyCode() == KeyEvent.VK_G && mapper != null) {
+                    mapper.setGainCurve(mapper.getGainCurve() == GainCurve.LINEAR ? gainCurve : GainCurve.LINEAR);
+                    updateStatus();
+                }
+                // C centers the cursor on where a phone in the orientation pointing mode is aimed
+                if (e.getKeyCode() == KeyEvent.VK_C && arbiter != null) {
+                    arbiter.recenterPointer();
+                }
+                // W calibrates the workspace of the absolute mode, or goes back to the relative mode
+                if (e.getKeyCode() == KeyEvent.VK_W && arbiter != null) {
+                    if (arbiter.getWorkspace() != null) {
+                        arbiter.setWorkspace(null);
+                    } else {
+                        arbiter.startWorkspaceCalibration();
+                    }
+                    updateStatus();
+                }
+                // Space captures the corner of the workspace the phone is held at
+                if (e.getKeyCode() == KeyEvent.VK_SPACE && arbiter != null) {
+                    arbiter.captureWorkspaceCorner();
+                }
             }
 
             @Override
@@ -51,128 +102,335 @@ public class BluetoothMouseMover extends JFrame {
             @Override
             public void keyTyped(KeyEvent e) { }
         });
+
+        // The cursor is moved by the actuator thread, the UI only shows how things are going.
+        new javax.swing.Timer(STATUS_INTERVAL_MS, e -> updateStatus()).start();
+        // Monitors are looked up now and then rather than for every sample.
+        new javax.swing.Timer(DISPLAY_CHECK_INTERVAL_MS, e -> checkDisplays()).start();
+    }
+
+    private static void checkDisplays() {
+        if (mapper == null) {
+            return;
+        }
+        DisplayTopology current = DisplayTopology.query(getDisplayDpi());
+        if (current.equals(displays)) {
+            return;
+        }
+        log("Displays changed: " + current);
+        if (!current.getBounds().equals(displays.getBounds())) {
+            log("The desktop changed its size, restart to move the cursor on all of it");
+        }
+        displays = current;
+        try {
+            mapper.setDisplays(current.within(screenArea));
+        } catch (IllegalArgumentException e) {
+            log("No display left in the screen area " + screenArea + ", keeping the cursor in the area");
+            mapper.setDisplays(null);
+        }
+    }
+
+    private void updateStatus() {
+        if (actuator == null) {
+            return;
+        }
+        PoseClient owner = arbiter.getOwner();
+        String timing = arbiter.getPredictionMetrics().toString();
+        if (arbiter.getInterpolationSettings().isEnabled()) {
+            timing = "Interpolation: " + arbiter.getInterpolationSettings().getMode() +
+                    (owner == null ? "" : String.format(", playout delay %.1f ms", owner.getPlayoutDelayMs()));
+        }
+        String workspace = arbiter.getWorkspace() == null ? "relative" : "absolute, " + arbiter.getWorkspace();
+        WorkspaceCalibration calibration = arbiter.getWorkspaceCalibration();
+        if (calibration != null) {
+            workspace = "hold the phone at the " + calibration.getNextCornerName() + " corner and press space";
+        }
+        mStatusLabel.setText("<html>Actuating at " + actuator.getRateHz() + " Hz" +
+                "<br>Clients: " + ingestMetrics.getOpenConnections() +
+                "<br>Frames decoded: " + ingestMetrics.getFramesDecoded() +
+                "<br>Gain curve: " + mapper.getGainCurve() +
+                "<br>Workspace: " + workspace +
+                "<br>Cursor owner: " + (owner == null ? "none" : owner + ", " + owner.getPointingMode() +
+                        (owner.isTracking() ? "" : ", tracking lost: " + owner.getFailureReason())) +
+                " (" + arbiter.getPolicy() + ")" +
+                "<br>Dropped samples: " + arbiter.getDroppedSamples() +
+                ", rejected jumps: " + arbiter.getRejectedSamples() +
+                "<br>" + timing +
+                "<br>Pipeline " + arbiter.getPipelineMetrics() +
+                "<br>Cursor updates: " + actuator.getCursorUpdates() +
+                "<br>Missed ticks: " + actuator.getMissedTicks() + "</html>");
     }
 
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> {
             BluetoothMouseMover mover = new BluetoothMouseMover();
 
+            // The cursor is kept on the monitors in the screen area, its coordinates are relative to the area from
+            // here on.
+            displays = DisplayTopology.query(getDisplayDpi());
+            screenArea = getScreenArea(displays);
+            log("Displays: " + displays + ", moving the cursor in " + screenArea);
             Point mousePosition = MouseInfo.getPointerInfo().getLocation();
-            currentX = mousePosition.getX();
-            currentY = mousePosition.getY();
-
-            screenSize = Toolkit.getDefaultToolkit().getScreenSize();
-            mouseMotionFactory = MouseMotionFactory.getDefault();
+            mapper = new PoseCursorMapper(new Rectangle(screenArea.getSize()),
+                    mousePosition.x - screenArea.x, mousePosition.y - screenArea.y);
+            mapper.setDisplays(displays.within(screenArea));
+            // -Dbeetle.gain=<pixels per meter>, also per axis -Dbeetle.gainX and -Dbeetle.gainY
+            double gain = Double.parseDouble(System.getProperty("beetle.gain", String.valueOf(PoseCursorMapper.DEFAULT_GAIN)));
+            mapper.setGain(Double.parseDouble(System.getProperty("beetle.gainX", String.valueOf(gain))),
+                    Double.parseDouble(System.getProperty("beetle.gainY", String.valueOf(gain))));
+            // -Dbeetle.gainCurve=linear|sigmoid|<speed:factor,...>, pointer acceleration on top of the gain
+            gainCurve = GainCurve.fromDefinition(System.getProperty("beetle.gainCurve", "sigmoid"));
+            mapper.setGainCurve(gainCurve);
+            MouseMotionFactory factory = FactoryTemplates.createLiveFollowMotionFactory(
+                    new ScreenAdjustedNature(screenArea));
+            // -Dbeetle.arbitration=last|first|sum decides who moves the cursor when several phones are connected
+            arbiter = new CursorArbiter(mapper, ArbitrationPolicy.fromName(System.getProperty("beetle.arbitration", "last")));
+            // -Dbeetle.filter.minCutoff=<Hz> -Dbeetle.filter.beta=<value>, smoothing of the phone's jitter
+            OneEuroSettings filterSettings = arbiter.getFilterSettings();
+            filterSettings.setMinCutoffHz(Double.parseDouble(System.getProperty("beetle.filter.minCutoff",
+                    String.valueOf(OneEuroSettings.DEFAULT_MIN_CUTOFF_HZ))));
+            filterSettings.setBeta(Double.parseDouble(System.getProperty("beetle.filter.beta",
+                    String.valueOf(OneEuroSettings.DEFAULT_BETA))));
+            // -Dbeetle.outlier.maxSpeed=<m/s>, faster steps are taken for relocalization jumps, 0 disables it
+            double outlierMaxSpeed = Double.parseDouble(System.getProperty("beetle.outlier.maxSpeed",
+                    String.valueOf(OutlierSettings.DEFAULT_MAX_SPEED)));
+            if (outlierMaxSpeed > 0) {
+                arbiter.getOutlierSettings().setMaxSpeed(outlierMaxSpeed);
+            } else {
+                arbiter.getOutlierSettings().setEnabled(false);
+            }
+            // -Dbeetle.pointerSpan=<degrees> a phone aimed like a laser pointer turns to cross the screen
+            arbiter.setPointerSpanDegrees(Double.parseDouble(System.getProperty("beetle.pointerSpan",
+                    String.valueOf(CursorArbiter.DEFAULT_POINTER_SPAN_DEGREES))));
+            // -Dbeetle.interpolate=linear|hermite|catmull-rom plays the samples out late and interpolates instead
+            // of predicting them, smoother but slower
+            String interpolation = System.getProperty("beetle.interpolate", "off");
+            if (!interpolation.equalsIgnoreCase("off")) {
+                arbiter.getInterpolationSettings().setMode(InterpolationMode.fromName(interpolation));
+                arbiter.getInterpolationSettings().setEnabled(true);
+            }
+            // -Dbeetle.pipeline=<file> lists the stages the samples go through, e.g. to compare filters, and
+            // their parameters, which take precedence over the properties above
+            String pipeline = System.getProperty("beetle.pipeline");
+            if (pipeline != null) {
+                try {
+                    arbiter.setPipelineConfig(PipelineConfig.load(Paths.get(pipeline)));
+                    log("Pipeline: " + arbiter.getPipelineConfig());
+                } catch (IOException e) {
+                    log("Error reading the pipeline configuration: " + e.getMessage());
+                    System.exit(1);
+                }
+            }
+            // -Dbeetle.predict.lookahead=<ms>, 0 predicts only the latency the timestamps tell, off disables it
+            String lookahead = System.getProperty("beetle.predict.lookahead",
+                    String.valueOf(PredictionSettings.DEFAULT_LOOKAHEAD_MS));
+            if (lookahead.equalsIgnoreCase("off")) {
+                arbiter.getPredictionSettings().setEnabled(false);
+            } else {
+                arbiter.getPredictionSettings().setLookaheadMs(Double.parseDouble(lookahead));
+            }
+            CursorController controller = new StreamingMotionController(arbiter, factory.buildStreaming());
+            actuator = new CursorActuator(factory.getSystemCalls(), controller, getActuationRate());
+            actuator.start();
+            startMetricsLogging();
 
-            Runnable r = new BluetoothServerRunnable();
+            Runnable r = new PoseServerRunnable(createTransport());
             Thread thread = new Thread(r);
             thread.start();
         });
     }
 
+    // -Dbeetle.screen=all|primary|<index>|<x,y,width,height> is the area the cursor moves in, all monitors by
+    // default, the primary monitor being 0
+    private static Rectangle getScreenArea(DisplayTopology displays) {
+        String screen = System.getProperty("beetle.screen", "all");
+        if (screen.equalsIgnoreCase("all")) {
+            return displays.getBounds();
+        }
+        if (screen.equalsIgnoreCase("primary")) {
+            return displays.getDisplays().get(0).getBounds();
+        }
+        String[] parts = screen.split(",");
+        if (parts.length == 1) {
+            int index = Integer.parseInt(screen.trim());
+            if (index < 0 || index >= displays.getDisplays().size()) {
+                throw new IllegalArgumentException("No monitor " + index + ": " + displays);
+            }
+            return displays.getDisplays().get(index).getBounds();
+        }
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Unknown screen area: " + screen);
+        }
+        return new Rectangle(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()),
+                Integer.parseInt(parts[2].trim()), Integer.parseInt(parts[3].trim()));
+    }
+
+    // -Dbeetle.displayDpi=<index>:<dpi>,... the pixel densities of monitors other than the primary one, which Java
+    // doesn't know, so the cursor moves by the same distance on all of them
+    private static Map<Integer, Double> getDisplayDpi() {
+        Map<Integer, Double> dpi = new HashMap<>();
+        String definition = System.getProperty("beetle.displayDpi", "");
+        for (String entry : definition.split(",")) {
+            if (entry.trim().isEmpty()) {
+                continue;
+            }
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected <index>:<dpi>, got " + entry);
+            }
+            dpi.put(Integer.parseInt(parts[0].trim()), Double.parseDouble(parts[1].trim()));
+        }
+        return dpi;
+    }
+
+    // -Dbeetle.rate=<Hz> or refresh to move the cursor once per frame of the monitor
+    private static int getActuationRate() {
+        String rate = System.getProperty("beetle.rate", String.valueOf(CursorActuator.DEFAULT_RATE_HZ));
+        if (rate.equalsIgnoreCase("refresh")) {
+            return CursorActuator.getDisplayRefreshRate(CursorActuator.DEFAULT_RATE_HZ);
+        }
+        return Integer.parseInt(rate);
+    }
+
+    // Bluetooth is the default, tcp and udp allow to test without a phone, e.g with tools.SyntheticPoseSender
+    // -Dbeetle.transport=rfcomm|tcp|udp -Dbeetle.port=5005
+    private static PoseTransport createTransport() {
+        String transport = System.getProperty("beetle.transport", "rfcomm");
+        int port = Integer.getInteger("beetle.port", DEFAULT_PORT);
+        switch (transport.toLowerCase()) {
+            case "tcp":
+                return new TcpPoseTransport(port);
+            case "udp":
+                return new UdpPoseTransport(port);
+            case "rfcomm":
+                return new RfcommPoseTransport();
+            default:
+                throw new IllegalArgumentException("Unknown transport: " + transport);
+        }
+    }
+
+    // Problems in the stream are counted rather than logged one by one, this reports the counters now and then.
+    private static void startMetricsLogging() {
+        Timer timer = new Timer("metrics-log", true);
+        timer.scheduleAtFixedRate(new TimerTask() {
+            private String lastReport = "";
+
+            @Override
+            public void run() {
+                String report = ingestMetrics + ", dropped samples: " + arbiter.getDroppedSamples() +
+                        ", rejected jumps: " + arbiter.getRejectedSamples() +
+                        ", " + arbiter.getPredictionMetrics() + ", " + arbiter.getPipelineMetrics();
+                if (!report.equals(lastReport)) {
+                    log("Ingest " + report);
+                    lastReport = report;
+                }
+            }
+        }, METRICS_LOG_INTERVAL_MS, METRICS_LOG_INTERVAL_MS);
+    }
+
     private static void log(String msg) {
         System.out.println("[" + (new Date()) + "] " + msg);
     }
 
-    static class BluetoothServerRunnable implements Runnable {
-        final UUID uuid = new UUID("0000110100001000800000805F9B34FB", false);
-        final String CONNECTION_URL_FOR_SPP = "btspp://localhost:" + uuid + ";name=MouseMover Server";
+    static class PoseServerRunnable implements Runnable {
+        private final PoseTransport mTransport;
 
-        private StreamConnectionNotifier mStreamConnectionNotifier = null;
-        private StreamConnection mStreamConnection = null;
+        PoseServerRunnable(PoseTransport transport) {
+            this.mTransport = transport;
+        }
 
         @Override
         public void run() {
             try {
-                LocalDevice.getLocalDevice().setDiscoverable(javax.bluetooth.DiscoveryAgent.GIAC);
-                mStreamConnectionNotifier = (StreamConnectionNotifier) Connector.open(CONNECTION_URL_FOR_SPP);
-                log("Bluetooth Server Started. Waiting for clients...");
+                mTransport.open();
+                log("Server Started on " + mTransport.getName() + ". Waiting for clients...");
             } catch (Exception e) {
                 log("Error starting server: " + e.getMessage());
                 return;
             }
 
+            // Socket transports are served from a single selector thread, others need a thread per client.
+            if (mTransport.getSelectableChannel() != null) {
+                runSelector();
+                return;
+            }
+
             while (true) {
                 try {
-                    mStreamConnection = mStreamConnectionNotifier.acceptAndOpen();
-                    log("Client Connected");
-                    new ClientHandler(mStreamConnection).start();
+                    PoseTransport.Connection connection = mTransport.accept();
+                    log("Client Connected: " + connection.getRemoteName());
+                    new ClientHandler(connection, arbiter.connect(connection.getRemoteName())).start();
                 } catch (IOException e) {
                     log("Error accepting client connection: " + e.getMessage());
                 }
             }
         }
+
+        private void runSelector() {
+            try {
+                SelectorIngestServer server = new SelectorIngestServer(ingestMetrics, new SelectorIngestServer.ClientListener() {
+                    @Override
+                    public PoseListener clientConnected(String remoteName) {
+                        return arbiter.connect(remoteName);
+                    }
+
+                    @Override
+                    public void clientDisconnected(PoseListener client) {
+                        arbiter.disconnect((PoseClient) client);
+                    }
+                });
+                server.register(mTransport.getSelectableChannel());
+                server.run();
+            } catch (IOException e) {
+                log("Error starting selector: " + e.getMessage());
+            }
+        }
     }
 
     static class ClientHandler extends Thread {
-        private final StreamConnection mStreamConnection;
+        private final PoseTransport.Connection mConnection;
+        private final PoseClient mClient;
+        private final PoseStreamDecoder mDecoder = new PoseStreamDecoder(ingestMetrics);
         private InputStream mInputStream;
 
-        ClientHandler(StreamConnection connection) {
-            this.mStreamConnection = connection;
+        ClientHandler(PoseTransport.Connection connection, PoseClient client) {
+            this.mConnection = connection;
+            this.mClient = client;
         }
 
         @Override
         public void run() {
             try {
-                mInputStream = mStreamConnection.openInputStream();
-                BufferedReader reader = new BufferedReader(new InputStreamReader(mInputStream));
-                String line;
-                log("Ready to receive data..."); // 추가된 로그
-                while ((line = reader.readLine()) != null) {
-                    log("Received line: " + line); // 추가된 로그
-                    
-                    // 앞뒤 공백 제거 후, 공백을 기준으로 나누기
-                    String[] parts = line.trim().split("\\s+"); // 정규 표현식 사용
-                    
-                    if (parts.length == 2) {
-                        try {
-                            double t_x = Double.parseDouble(parts[0]);
-                            double t_y = Double.parseDouble(parts[1]);
-                            updateMousePosition(t_x, t_y);
-                        } catch (NumberFormatException e) {
-                            log("Invalid number format: " + e.getMessage());
-                        }
-                    } else {
-                        log("Invalid data format: " + line); // 데이터 포맷이 잘못되었을 경우 로그
+                ingestMetrics.connectionOpened();
+                mInputStream = mConnection.getInputStream();
+                byte[] bytes = new byte[RECEIVE_BUFFER_SIZE];
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                int read;
+                log("Ready to receive data...");
+                while ((read = mInputStream.read(bytes, buffer.position(), buffer.remaining())) != -1) {
+                    ingestMetrics.bytesRead(read);
+                    buffer.position(buffer.position() + read);
+                    buffer.flip();
+                    if (!mDecoder.decode(buffer, mClient)) {
+                        log("Client rejected, closing connection");
+                        break;
                     }
+                    // Keep the partially received frame for the next read.
+                    buffer.compact();
                 }
             } catch (IOException e) {
                 log("Error handling client: " + e.getMessage());
             } finally {
+                ingestMetrics.connectionClosed();
+                arbiter.disconnect(mClient);
                 try {
                     if (mInputStream != null) mInputStream.close();
-                    if (mStreamConnection != null) mStreamConnection.close();
+                    mConnection.close();
                 } catch (IOException e) {
                     log("Error closing connection: " + e.getMessage());
                 }
             }
         }
-
-
-        private void updateMousePosition(double t_x, double t_y) {
-            SwingUtilities.invokeLater(() -> {
-                if (previousTX != 0 && previousTY != 0) {
-                    currentX += (t_x - previousTX) * 65000;
-                    currentY += (t_y - previousTY) * 65000;
-
-                    currentX = Math.min(Math.max(currentX, 0), screenSize.getWidth() - 1);
-                    currentY = Math.min(Math.max(currentY, 0), screenSize.getHeight() - 1);
-
-                    MouseMotion motion = mouseMotionFactory.build((int) currentX, (int) currentY);
-                    try {
-                        motion.move();
-                    } catch (InterruptedException ex) {
-                        log("Mouse movement interrupted: " + ex.getMessage());
-                    }
-                }
-
-                previousTX = t_x;
-                previousTY = t_y;
-                log("Mouse moved to: " + (int) currentX + ", " + (int) currentY);
-            });
-        }
-
     }
 }
 
@@ -1,5 +1,8 @@
 package com.github.joonasvali.naturalmouse.api; 
 
+import com.github.joonasvali.naturalmouse.support.pipeline.GainCurve;
+import com.github.joonasvali.naturalmouse.support.pipeline.GainTable;
+import com.github.joonasvali.naturalmouse.support.pipeline.PoseCursorMapper;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
@@ -18,6 +21,8 @@ import java.util.List;
 public class DataComparisonGraph extends JFrame {
     private static final String MOUSE_FILE_PATH = "C:\\Users\\user\\OneDrive\\Beetle\\mouse_trajectory.txt"; // 마우스 궤적 파일 경로
     private static final String ARCORE_FILE_PATH = "C:\\Users\\user\\OneDrive\\Beetle\\ARCore_sensor_pose.txt"; // ARCore 파일 경로
+    // ARCore 기록 간격 (30 fps)
+    private static final double ARCORE_FRAME_SECONDS = 1 / 30d;
 
     public DataComparisonGraph(String title) {
         super(title);
@@ -56,6 +61,9 @@ public class DataComparisonGraph extends JFrame {
     private CategoryDataset createDataset() {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
 
+        // 서버와 같은 게인과 가속 곡선으로 변환
+        GainTable gainTable = new GainTable(GainCurve.fromDefinition(System.getProperty("beetle.gainCurve", "sigmoid")));
+
         List<Double> mouseXChanges = new ArrayList<>();
         List<Double> tXChanges = new ArrayList<>();
 
@@ -71,7 +79,8 @@ public class DataComparisonGraph extends JFrame {
             double tX2 = Double.parseDouble(arCoreData.get(i)[5]);
 
             double mouseXChange = mouseX2 - mouseX1;
-            double tXChange = 53000*(tX2 - tX1);
+            double speed = Math.abs(tX2 - tX1) / ARCORE_FRAME_SECONDS;
+            double tXChange = PoseCursorMapper.DEFAULT_GAIN * gainTable.getFactor(speed) * (tX2 - tX1);
 
             mouseXChanges.add(mouseXChange);
             tXChanges.add(tXChange);
@@ -0,0 +1,51 @@
+package com.github.joonasvali.naturalmouse.api;
+
+import com.github.joonasvali.naturalmouse.support.DoublePoint;
+import com.github.joonasvali.naturalmouse.support.MutableDoublePoint;
+
+import java.lang.reflect.Method;
+
+/**
+ * A DeviationProvider which writes the deviation into a point owned by the caller instead of returning a new one,
+ * so MouseMotion does not allocate on every step. MouseMotion uses this when the DeviationProvider of the nature
+ * implements it, other providers are wrapped with of(DeviationProvider). So is a provider whose subclass overrides
+ * only DeviationProvider.getDeviation, like an extension of SinusoidalDeviationProvider written before this
+ * interface existed.
+ *
+ * @see com.github.joonasvali.naturalmouse.api.DeviationProvider
+ */
+public interface InPlaceDeviationProvider {
+  /**
+   * See DeviationProvider.getDeviation, the same contract applies.
+   *
+   * @param totalDistanceInPixels the total pixels between target and mouse initial position
+   * @param completionFraction the completed fraction of mouse movement total distance, value from 0...1 (0;1]
+   * @param result set to how much the mouse is going to deviate from the straight trajectory
+   */
+  void getDeviation(double totalDistanceInPixels, double completionFraction, MutableDoublePoint result);
+
+  /**
+   * @param provider the provider to adapt
+   * @return the provider itself if it already writes in place, otherwise a wrapper copying its result
+   */
+  static InPlaceDeviationProvider of(DeviationProvider provider) {
+    if (provider instanceof InPlaceDeviationProvider) {
+      Method legacy;
+      Method inPlace;
+      try {
+        legacy = provider.getClass().getMethod("getDeviation", double.class, double.class);
+        inPlace = provider.getClass().getMethod("getDeviation", double.class, double.class, MutableDoublePoint.class);
+      } catch (NoSuchMethodException e) {
+        throw new IllegalStateException(e);
+      }
+      // Unless the legacy method is overridden below the in-place one, they are the same deviation.
+      if (legacy.getDeclaringClass().isAssignableFrom(inPlace.getDeclaringClass())) {
+        return (InPlaceDeviationProvider) provider;
+      }
+    }
+    return (totalDistanceInPixels, completionFraction, result) -> {
+      DoublePoint deviation = provider.getDeviation(totalDistanceInPixels, completionFraction);
+      result.set(deviation.getX(), deviation.getY());
+    };
+  }
+}
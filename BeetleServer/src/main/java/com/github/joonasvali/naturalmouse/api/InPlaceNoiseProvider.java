@@ -0,0 +1,53 @@
+package com.github.joonasvali.naturalmouse.api;
+
+import com.github.joonasvali.naturalmouse.support.DoublePoint;
+import com.github.joonasvali.naturalmouse.support.MutableDoublePoint;
+
+import java.lang.reflect.Method;
+import java.util.Random;
+
+/**
+ * A NoiseProvider which writes the noise into a point owned by the caller instead of returning a new one,
+ * so MouseMotion does not allocate on every step. MouseMotion uses this when the NoiseProvider of the nature
+ * implements it, other providers are wrapped with of(NoiseProvider). So is a provider whose subclass overrides
+ * only NoiseProvider.getNoise, like an extension of DefaultNoiseProvider written before this interface existed.
+ *
+ * @see com.github.joonasvali.naturalmouse.api.NoiseProvider
+ */
+public interface InPlaceNoiseProvider {
+  /**
+   * See NoiseProvider.getNoise, the same contract applies.
+   *
+   * @param random use this to generate randomness in the offset
+   * @param xStepSize the step size that is taken horizontally
+   * @param yStepSize the step size that is taken vertically
+   * @param result set to how much the mouse offset is increased or decreased this step, (0,0) for no change
+   */
+  void getNoise(Random random, double xStepSize, double yStepSize, MutableDoublePoint result);
+
+  /**
+   * @param provider the provider to adapt
+   * @return the provider itself if it already writes in place, otherwise a wrapper copying its result
+   */
+  static InPlaceNoiseProvider of(NoiseProvider provider) {
+    if (provider instanceof InPlaceNoiseProvider) {
+      Method legacy;
+      Method inPlace;
+      try {
+        legacy = provider.getClass().getMethod("getNoise", Random.class, double.class, double.class);
+        inPlace = provider.getClass().getMethod("getNoise",
+            Random.class, double.class, double.class, MutableDoublePoint.class);
+      } catch (NoSuchMethodException e) {
+        throw new IllegalStateException(e);
+      }
+      // Unless the legacy method is overridden below the in-place one, they are the same noise.
+      if (legacy.getDeclaringClass().isAssignableFrom(inPlace.getDeclaringClass())) {
+        return (InPlaceNoiseProvider) provider;
+      }
+    }
+    return (random, xStepSize, yStepSize, result) -> {
+      DoublePoint noise = provider.getNoise(random, xStepSize, yStepSize);
+      result.set(noise.getX(), noise.getY());
+    };
+  }
+}
@@ -1,10 +1,13 @@
 package com.github.joonasvali.naturalmouse.api;
 
-import com.github.joonasvali.naturalmouse.support.DoublePoint;
 import com.github.joonasvali.naturalmouse.support.Flow;
 import com.github.joonasvali.naturalmouse.support.MouseMotionNature;
+import com.github.joonasvali.naturalmouse.support.MutableDoublePoint;
 import com.github.joonasvali.naturalmouse.support.mousemotion.Movement;
 import com.github.joonasvali.naturalmouse.support.mousemotion.MovementFactory;
+import com.github.joonasvali.naturalmouse.support.mousemotion.StepJitter;
+import com.github.joonasvali.naturalmouse.support.mousemotion.Trajectory;
+import com.github.joonasvali.naturalmouse.support.mousemotion.TrajectoryCache;
 import com.github.joonasvali.naturalmouse.util.MathUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,15 +15,19 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayDeque;
 import java.awt.*;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Contains instructions to move cursor smoothly to the destination coordinates from where ever the cursor
  * currently is. The class is reusable, meaning user can keep calling it and the cursor returns in a random,
  * but reliable way, described in this class, to the destination.
+ *
+ * The motion can also be planned ahead with plan(), which only computes the steps, and played later with
+ * a TrajectoryExecutor. Planning into a reused Trajectory does not allocate per step, as long as the providers
+ * of the nature implement InPlaceNoiseProvider and InPlaceDeviationProvider, like the default ones do.
  */
 public class MouseMotion {
   private static final Logger log = LoggerFactory.getLogger(MouseMotion.class);
-  private static final int SLEEP_AFTER_ADJUSTMENT_MS = 2;
   private final int minSteps;
   private final int effectFadeSteps;
   private final int reactionTimeBaseMs;
@@ -28,14 +35,18 @@ public class MouseMotion {
   private final double timeToStepsDivider;
   private final Dimension screenSize;
   private final SystemCalls systemCalls;
-  private final DeviationProvider deviationProvider;
-  private final NoiseProvider noiseProvider;
+  private final InPlaceDeviationProvider deviationProvider;
+  private final InPlaceNoiseProvider noiseProvider;
   private final SpeedManager speedManager;
   private final OvershootManager overshootManager;
+  private final TrajectoryCache trajectoryCache;
+  private final TrajectoryExecutor executor;
   private final int xDest;
   private final int yDest;
   private final Random random;
   private final MouseInfoAccessor mouseInfo;
+  private final MutableDoublePoint noise = new MutableDoublePoint();
+  private final MutableDoublePoint deviation = new MutableDoublePoint();
   private Point mousePosition;
 
   /**
@@ -45,8 +56,8 @@ public class MouseMotion {
    * @param random the random used for unpredictability
    */
   public MouseMotion(MouseMotionNature nature, Random random, int xDest, int yDest) {
-    this.deviationProvider = nature.getDeviationProvider();
-    this.noiseProvider = nature.getNoiseProvider();
+    this.deviationProvider = InPlaceDeviationProvider.of(nature.getDeviationProvider());
+    this.noiseProvider = InPlaceNoiseProvider.of(nature.getNoiseProvider());
     this.systemCalls = nature.getSystemCalls();
     this.screenSize = systemCalls.getScreenSize();
     this.xDest = limitByScreenWidth(xDest);
@@ -60,6 +71,8 @@ public class MouseMotion {
     this.reactionTimeBaseMs = nature.getReactionTimeBaseMs();
     this.reactionTimeVariationMs = nature.getReactionTimeVariationMs();
     this.overshootManager = nature.getOvershootManager();
+    this.trajectoryCache = nature.getTrajectoryCache();
+    this.executor = new TrajectoryExecutor(systemCalls, mouseInfo);
   }
 
   /**
@@ -82,132 +95,171 @@ public class MouseMotion {
     updateMouseInfo();
     log.info("Starting to move mouse to ({}, {}), current position: ({}, {})", xDest, yDest, mousePosition.x, mousePosition.y);
 
+    Trajectory trajectory = plan(mousePosition);
+    while (!executor.execute(trajectory, observer)) {
+      // This shouldn't usually happen, but it's possible that somehow we won't end up on the target,
+      // Then just re-attempt from mouse new position. (There are known JDK bugs, that can cause sending the cursor
+      // to wrong pixel)
+      updateMouseInfo();
+      log.warn("Re-populating movement array. Did not end up on target pixel.");
+      plan(mousePosition, trajectory);
+    }
+    log.info("Mouse movement to ({}, {}) completed", xDest, yDest);
+  }
+
+  /**
+   * @return how late the steps of the moves of this motion were, depends on how precisely SystemCalls sleeps
+   * @see com.github.joonasvali.naturalmouse.support.PrecisionSystemCalls
+   */
+  public StepJitter getJitter() {
+    return executor.getJitter();
+  }
+
+  /**
+   * Computes every step of the motion, including the overshoots and the reaction times between them, without
+   * touching the cursor or the clock. Play the result with a TrajectoryExecutor. When the nature has a
+   * TrajectoryCache, the steps may be replayed from it instead.
+   *
+   * @param from the position the motion starts from
+   * @return the planned motion
+   */
+  public Trajectory plan(Point from) {
+    return plan(from, new Trajectory());
+  }
+
+  /**
+   * Computes every step of the motion into a trajectory, reusing its arrays, see plan(Point).
+   *
+   * @param from the position the motion starts from
+   * @param trajectory the trajectory to fill, its previous content is discarded
+   * @return the given trajectory
+   */
+  public Trajectory plan(Point from, Trajectory trajectory) {
+    trajectory.clear(xDest, yDest);
+    if (from.x == xDest && from.y == yDest) {
+      return trajectory;
+    }
+    long cacheKey = 0;
+    if (trajectoryCache != null) {
+      cacheKey = trajectoryCache.getKey(from, xDest, yDest, random);
+      if (trajectoryCache.replay(cacheKey, from, random, screenSize, trajectory)) {
+        log.debug("Replayed {} from cache", trajectory);
+        return trajectory;
+      }
+    }
     MovementFactory movementFactory = new MovementFactory(xDest, yDest, speedManager, overshootManager, screenSize);
-    ArrayDeque<Movement> movements = movementFactory.createMovements(mousePosition);
+    ArrayDeque<Movement> movements = movementFactory.createMovements(from);
     int overshoots = movements.size() - 1;
-    while (mousePosition.x != xDest || mousePosition.y != yDest) {
-      if (movements.isEmpty()) {
-        // This shouldn't usually happen, but it's possible that somehow we won't end up on the target,
-        // Then just re-attempt from mouse new position. (There are known JDK bugs, that can cause sending the cursor
-        // to wrong pixel)
-        updateMouseInfo();
-        log.warn("Re-populating movement array. Did not end up on target pixel.");
-        movements = movementFactory.createMovements(mousePosition);
-      }
-
+    double startX = from.x;
+    double startY = from.y;
+    long startNanos = 0;
+    while (!movements.isEmpty()) {
       Movement movement = movements.removeFirst();
       if (!movements.isEmpty()) {
         log.debug("Using overshoots ({} out of {}), aiming at ({}, {})",
             overshoots - movements.size() + 1, overshoots, movement.destX, movement.destY);
       }
+      trajectory.startMovement(movement.destX, movement.destY, startNanos);
+      long endNanos = planMovement(movement, startX, startY, startNanos, trajectory);
+      startX = movement.destX;
+      startY = movement.destY;
+      startNanos = endNanos;
+      if (movement.destX != xDest || movement.destY != yDest) {
+        // We are dealing with overshoot, let's wait a bit to simulate human reaction time.
+        startNanos += TimeUnit.MILLISECONDS.toNanos(
+            (long) (reactionTimeBaseMs + random.nextDouble() * reactionTimeVariationMs));
+      }
+    }
+    log.debug("Planned {}", trajectory);
+    if (trajectoryCache != null) {
+      trajectoryCache.store(cacheKey, from, trajectory);
+    }
+    return trajectory;
+  }
 
-      double distance = movement.distance;
-      long mouseMovementMs = movement.time;
-      Flow flow = movement.flow;
-      double xDistance = movement.xDistance;
-      double yDistance = movement.yDistance;
-      log.debug("Movement arc length computed to {} and time predicted to {} ms", distance, mouseMovementMs);
-
-      /* Number of steps is calculated from the movement time and limited by minimal amount of steps
-         (should have at least MIN_STEPS) and distance (shouldn't have more steps than pixels travelled) */
-      int steps = (int) Math.ceil(Math.min(distance, Math.max(mouseMovementMs / timeToStepsDivider, minSteps)));
-
-      long startTime = systemCalls.currentTimeMillis();
-      long stepTime = (long) (mouseMovementMs / (double) steps);
+  /**
+   * @return the time since the start of the motion the last step of the movement is due at
+   */
+  private long planMovement(Movement movement, double startX, double startY, long startNanos, Trajectory trajectory) {
+    double distance = movement.distance;
+    long mouseMovementMs = movement.time;
+    Flow flow = movement.flow;
+    double xDistance = movement.xDistance;
+    double yDistance = movement.yDistance;
+    log.debug("Movement arc length computed to {} and time predicted to {} ms", distance, mouseMovementMs);
+
+    /* Number of steps is calculated from the movement time and limited by minimal amount of steps
+       (should have at least MIN_STEPS) and distance (shouldn't have more steps than pixels travelled) */
+    int steps = (int) Math.ceil(Math.min(distance, Math.max(mouseMovementMs / timeToStepsDivider, minSteps)));
+    if (steps == 0) {
+      // Nothing to move, e.g. an overshoot clamped to the screen edge where the previous one already ended.
+      return startNanos;
+    }
+    // In nanoseconds, as whole milliseconds would shorten the movement by up to a millisecond per step.
+    long stepNanos = TimeUnit.MILLISECONDS.toNanos(mouseMovementMs) / steps;
 
-      updateMouseInfo();
-      double simulatedMouseX = mousePosition.x;
-      double simulatedMouseY = mousePosition.y;
+    double simulatedMouseX = startX;
+    double simulatedMouseY = startY;
 
-      double deviationMultiplierX = (random.nextDouble() - 0.5) * 2;
-      double deviationMultiplierY = (random.nextDouble() - 0.5) * 2;
+    double deviationMultiplierX = (random.nextDouble() - 0.5) * 2;
+    double deviationMultiplierY = (random.nextDouble() - 0.5) * 2;
 
-      double completedXDistance = 0;
-      double completedYDistance = 0;
-      double noiseX = 0;
-      double noiseY = 0;
+    double completedXDistance = 0;
+    double completedYDistance = 0;
+    double noiseX = 0;
+    double noiseY = 0;
 
-      for (int i = 0; i < steps; i++) {
-        // All steps take equal amount of time. This is a value from 0...1 describing how far along the process is.
-        double timeCompletion = i / (double) steps;
+    long endNanos = startNanos;
+    for (int i = 0; i < steps; i++) {
+      // All steps take equal amount of time. This is a value from 0...1 describing how far along the process is.
+      double timeCompletion = i / (double) steps;
 
-        double effectFadeStep = Math.max(i - (steps - effectFadeSteps) + 1, 0);
-        // value from 0 to 1, when effectFadeSteps remaining steps, starts to decrease to 0 linearly
-        // This is here so noise and deviation wouldn't add offset to mouse final position, when we need accuracy.
-        double effectFadeMultiplier = (effectFadeSteps - effectFadeStep) / effectFadeSteps;
+      double effectFadeStep = Math.max(i - (steps - effectFadeSteps) + 1, 0);
+      // value from 0 to 1, when effectFadeSteps remaining steps, starts to decrease to 0 linearly
+      // This is here so noise and deviation wouldn't add offset to mouse final position, when we need accuracy.
+      double effectFadeMultiplier = (effectFadeSteps - effectFadeStep) / effectFadeSteps;
 
-        double xStepSize = flow.getStepSize(xDistance, steps, timeCompletion);
-        double yStepSize = flow.getStepSize(yDistance, steps, timeCompletion);
+      double xStepSize = flow.getStepSize(xDistance, steps, timeCompletion);
+      double yStepSize = flow.getStepSize(yDistance, steps, timeCompletion);
 
-        completedXDistance += xStepSize;
-        completedYDistance += yStepSize;
-        double completedDistance = Math.hypot(completedXDistance, completedYDistance);
-        double completion = Math.min(1, completedDistance / distance);
-        log.trace("Step: x: {} y: {} tc: {} c: {}", xStepSize, yStepSize, timeCompletion, completion);
+      completedXDistance += xStepSize;
+      completedYDistance += yStepSize;
+      double completedDistance = Math.hypot(completedXDistance, completedYDistance);
+      double completion = Math.min(1, completedDistance / distance);
 
-        DoublePoint noise = noiseProvider.getNoise(random, xStepSize, yStepSize);
-        DoublePoint deviation = deviationProvider.getDeviation(distance, completion);
+      noiseProvider.getNoise(random, xStepSize, yStepSize, noise);
+      deviationProvider.getDeviation(distance, completion, deviation);
 
-        noiseX += noise.getX();
-        noiseY += noise.getY();
-        simulatedMouseX += xStepSize;
-        simulatedMouseY += yStepSize;
+      noiseX += noise.getX();
+      noiseY += noise.getY();
+      simulatedMouseX += xStepSize;
+      simulatedMouseY += yStepSize;
 
+      // Checked first, as the arguments would be boxed on every step even with tracing off
+      if (log.isTraceEnabled()) {
+        log.trace("Step: x: {} y: {} tc: {} c: {}", xStepSize, yStepSize, timeCompletion, completion);
         log.trace("EffectFadeMultiplier: {}", effectFadeMultiplier);
         log.trace("SimulatedMouse: [{}, {}]", simulatedMouseX, simulatedMouseY);
-
-        long endTime = startTime + stepTime * (i + 1);
-        int mousePosX = MathUtil.roundTowards(
-            simulatedMouseX +
-            deviation.getX() * deviationMultiplierX * effectFadeMultiplier +
-            noiseX * effectFadeMultiplier,
-            movement.destX
-        );
-
-        int mousePosY = MathUtil.roundTowards(
-            simulatedMouseY +
-            deviation.getY() * deviationMultiplierY * effectFadeMultiplier +
-            noiseY * effectFadeMultiplier,
-            movement.destY
-        );
-
-        mousePosX = limitByScreenWidth(mousePosX);
-        mousePosY = limitByScreenHeight(mousePosY);
-
-        systemCalls.setMousePosition(
-            mousePosX,
-            mousePosY
-        );
-
-        // Allow other action to take place or just observe, we'll later compensate by sleeping less.
-        observer.observe(mousePosX, mousePosY);
-
-        long timeLeft = endTime - systemCalls.currentTimeMillis();
-        sleepAround(Math.max(timeLeft, 0), 0);
-      }
-      updateMouseInfo();
-
-      if (mousePosition.x != movement.destX || mousePosition.y != movement.destY) {
-        // It's possible that mouse is manually moved or for some other reason.
-        // Let's start next step from pre-calculated location to prevent errors from accumulating.
-        // But print warning as this is not expected behavior.
-        log.warn("Mouse off from step endpoint (adjustment was done) " +
-            "x: (" + mousePosition.x + " -> " + movement.destX + ") " +
-            "y: (" + mousePosition.y + " -> " + movement.destY + ") "
-        );
-        systemCalls.setMousePosition(movement.destX, movement.destY);
-        // Let's wait a bit before getting mouse info.
-        sleepAround(SLEEP_AFTER_ADJUSTMENT_MS, 0);
-        updateMouseInfo();
       }
 
-      if (mousePosition.x != xDest || mousePosition.y != yDest) {
-        // We are dealing with overshoot, let's sleep a bit to simulate human reaction time.
-        sleepAround(reactionTimeBaseMs, reactionTimeVariationMs);
-      }
-      log.debug("Steps completed, mouse at " + mousePosition.x + " " + mousePosition.y);
+      int mousePosX = MathUtil.roundTowards(
+          simulatedMouseX +
+          deviation.getX() * deviationMultiplierX * effectFadeMultiplier +
+          noiseX * effectFadeMultiplier,
+          movement.destX
+      );
+
+      int mousePosY = MathUtil.roundTowards(
+          simulatedMouseY +
+          deviation.getY() * deviationMultiplierY * effectFadeMultiplier +
+          noiseY * effectFadeMultiplier,
+          movement.destY
+      );
+
+      endNanos = startNanos + stepNanos * (i + 1);
+      trajectory.addStep(limitByScreenWidth(mousePosX), limitByScreenHeight(mousePosY), endNanos);
     }
-    log.info("Mouse movement to ({}, {}) completed", xDest, yDest);
+    return endNanos;
   }
 
   private int limitByScreenWidth(int value) {
@@ -218,15 +270,6 @@ public class MouseMotion {
     return Math.max(0, Math.min(screenSize.height - 1, value));
   }
 
-  private void sleepAround(long sleepMin, long randomPart) throws InterruptedException {
-    long sleepTime = (long) (sleepMin + random.nextDouble() * randomPart);
-    if (log.isTraceEnabled() && sleepTime > 0) {
-      updateMouseInfo();
-      log.trace("Sleeping at ({}, {}) for {} ms", mousePosition.x, mousePosition.y, sleepTime);
-    }
-    systemCalls.sleep(sleepTime);
-  }
-
   private void updateMouseInfo() {
     mousePosition = mouseInfo.getMousePosition();
   }
@@ -1,8 +1,11 @@
 package com.github.joonasvali.naturalmouse.api;
 
 import com.github.joonasvali.naturalmouse.support.DefaultMouseMotionNature;
+import com.github.joonasvali.naturalmouse.support.LiveFollowSpeedManager;
 import com.github.joonasvali.naturalmouse.support.MouseMotionNature;
+import com.github.joonasvali.naturalmouse.support.mousemotion.TrajectoryCache;
 
+import java.awt.*;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -36,6 +39,27 @@ public class MouseMotionFactory {
     return new MouseMotion(nature, random, xDest, yDest);
   }
 
+  /**
+   * Builds a StreamingMouseMotion, which follows a destination that can change at any time. With a
+   * LiveFollowSpeedManager the motion catches up with a destination anywhere on the screen within the movement time
+   * of the speed manager, other speed managers leave it at its defaults. Overshoots, noise, deviation and steps
+   * don't apply to a streaming motion.
+   *
+   * @return the StreamingMouseMotion, starting from where the mouse currently is
+   */
+  public StreamingMouseMotion buildStreaming() {
+    StreamingMouseMotion motion = new StreamingMouseMotion(nature);
+    SpeedManager speedManager = nature.getSpeedManager();
+    if (speedManager instanceof LiveFollowSpeedManager) {
+      long movementTimeMs = ((LiveFollowSpeedManager) speedManager).getMouseMovementTimeMs();
+      Dimension screenSize = nature.getSystemCalls().getScreenSize();
+      motion.setSmoothTimeMs(movementTimeMs);
+      // Fast enough to chase a destination across the screen, so no distance takes longer than the rest.
+      motion.setMaxSpeed(Math.hypot(screenSize.width, screenSize.height) * 1000 / movementTimeMs);
+    }
+    return motion;
+  }
+
   /**
    * Start moving the mouse to specified location. Blocks until done.
    *
@@ -202,4 +226,22 @@ public class MouseMotionFactory {
   public OvershootManager getOvershootManager() {
     return nature.getOvershootManager();
   }
+
+  /**
+   * see {@link MouseMotionNature#getTrajectoryCache()}
+   *
+   * @return the cache or null
+   */
+  public TrajectoryCache getTrajectoryCache() {
+    return nature.getTrajectoryCache();
+  }
+
+  /**
+   * see {@link MouseMotionNature#setTrajectoryCache(TrajectoryCache)}
+   *
+   * @param trajectoryCache the cache or null
+   */
+  public void setTrajectoryCache(TrajectoryCache trajectoryCache) {
+    nature.setTrajectoryCache(trajectoryCache);
+  }
 }
@@ -0,0 +1,26 @@
+package com.github.joonasvali.naturalmouse.api;
+
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+
+/**
+ * One step in processing the samples of a client, e.g. rejecting jumps or smoothing. The stages of a pipeline
+ * work on the same PoseSample one after another and change it in place, so a sample passes through all of them
+ * without allocating anything. Every client gets its own instances, a stage is only called from the receiving
+ * thread of its client.
+ *
+ * Custom stages can be listed by class name in the pipeline configuration, they need a public no-arg constructor.
+ */
+public interface PoseStage {
+  /**
+   * @param sample the sample, changed in place
+   * @param receivedNanos the System.nanoTime() the sample was received at
+   * @return false to drop the sample, the stages after this one don't see it
+   */
+  boolean process(PoseSample sample, long receivedNanos);
+
+  /**
+   * Called when tracking was lost, the next sample may be anywhere. Forgets what depends on earlier samples.
+   */
+  default void reset() {
+  }
+}
@@ -0,0 +1,58 @@
+package com.github.joonasvali.naturalmouse.api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.SelectableChannel;
+
+/**
+ * The link over which phone clients stream their pose frames to the server, for example Bluetooth RFCOMM.
+ * Abstracting it allows to drive the server from a local socket, e.g for load testing without radio hardware.
+ */
+public interface PoseTransport extends Closeable {
+  /**
+   * Starts listening for clients.
+   *
+   * @throws IOException if the transport is not available
+   */
+  void open() throws IOException;
+
+  /**
+   * Blocks until the next client connects.
+   *
+   * @return the connection of the client
+   * @throws IOException if accepting fails or the transport was closed
+   */
+  Connection accept() throws IOException;
+
+  /**
+   * @return a human readable description of where the transport listens, for logging
+   */
+  String getName();
+
+  /**
+   * Socket based transports can be served by SelectorIngestServer instead of a thread per client.
+   * The channel is only valid after open() and accept() must not be used together with it.
+   *
+   * @return the channel clients connect or send to, null if the transport only supports accept()
+   */
+  default SelectableChannel getSelectableChannel() {
+    return null;
+  }
+
+  /**
+   * A single client, streaming its frames.
+   */
+  interface Connection extends Closeable {
+    /**
+     * @return the stream of bytes the client sends
+     * @throws IOException if the stream can't be opened
+     */
+    InputStream getInputStream() throws IOException;
+
+    /**
+     * @return a human readable description of the client, for logging
+     */
+    String getRemoteName();
+  }
+}
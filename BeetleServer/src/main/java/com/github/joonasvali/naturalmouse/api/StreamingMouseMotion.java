@@ -0,0 +1,196 @@
+package com.github.joonasvali.naturalmouse.api;
+
+import com.github.joonasvali.naturalmouse.support.MouseMotionNature;
+
+import java.awt.*;
+
+/**
+ * Moves the cursor towards a destination which can change at any time, for following a live source such as
+ * a tracked hand. Unlike MouseMotion nothing blocks: the owner calls step() on every tick of its own schedule and
+ * each call advances the cursor by the time passed since the previous call.
+ *
+ * The cursor follows the destination like a critically damped spring, so it keeps its velocity when the destination
+ * moves and glides to the new one without stopping first. A step which would carry the cursor past the destination,
+ * e.g. when the destination was moved close in front of a fast cursor, stops on it instead. The smooth time sets how
+ * quickly the destination is caught up with. The max speed bounds how far ahead the spring chases, to the distance
+ * covered at that speed in the smooth time, so the cursor travels at about that speed towards a far destination;
+ * it is not a hard limit of the speed.
+ *
+ * Not thread-safe, setDestination() and step() should be called from the same thread.
+ */
+public class StreamingMouseMotion {
+  public static final long DEFAULT_SMOOTH_TIME_MS = 40;
+  public static final double DEFAULT_MAX_SPEED_PX_PER_SECOND = 20000;
+  // Longer gaps, e.g after the thread was stalled, are treated as this long so the cursor doesn't leap.
+  private static final double MAX_STEP_SECONDS = 0.1;
+
+  private final SystemCalls systemCalls;
+  private final Dimension screenSize;
+  private double smoothTimeSeconds = DEFAULT_SMOOTH_TIME_MS / 1000d;
+  private double maxSpeed = DEFAULT_MAX_SPEED_PX_PER_SECOND;
+  private double x;
+  private double y;
+  private double velocityX;
+  private double velocityY;
+  private double destX;
+  private double destY;
+  private int pixelX;
+  private int pixelY;
+  private long lastStepNanos;
+  private boolean started;
+
+  /**
+   * Starts from where the cursor currently is.
+   *
+   * @param nature the nature that provides the system calls and mouse info
+   */
+  public StreamingMouseMotion(MouseMotionNature nature) {
+    this.systemCalls = nature.getSystemCalls();
+    this.screenSize = systemCalls.getScreenSize();
+    Point position = nature.getMouseInfo().getMousePosition();
+    reset(position.x, position.y);
+  }
+
+  /**
+   * Sets a new destination, the cursor keeps its velocity and starts blending towards it on the next step.
+   *
+   * @param xDest the x-coordinate of destination, may contain fractions of a pixel
+   * @param yDest the y-coordinate of destination, may contain fractions of a pixel
+   */
+  public void setDestination(double xDest, double yDest) {
+    this.destX = Math.max(0, Math.min(screenSize.width - 1, xDest));
+    this.destY = Math.max(0, Math.min(screenSize.height - 1, yDest));
+  }
+
+  /**
+   * Places the cursor at the position at rest, with the destination being the same position.
+   * Doesn't move the actual cursor until the next step.
+   *
+   * @param x the x-coordinate
+   * @param y the y-coordinate
+   */
+  public void reset(double x, double y) {
+    setDestination(x, y);
+    this.x = destX;
+    this.y = destY;
+    this.velocityX = 0;
+    this.velocityY = 0;
+    this.pixelX = (int) Math.round(this.x);
+    this.pixelY = (int) Math.round(this.y);
+    this.started = false;
+  }
+
+  /**
+   * Advances the motion to the given time and moves the cursor if it ended up on another pixel.
+   *
+   * @param nowNanos the current time, System.nanoTime()
+   * @return true if the cursor was moved
+   */
+  public boolean step(long nowNanos) {
+    boolean moved = advance(nowNanos);
+    if (moved) {
+      systemCalls.setMousePosition(pixelX, pixelY);
+    }
+    return moved;
+  }
+
+  /**
+   * Advances the motion to the given time without moving the cursor, for owners which set the cursor themselves.
+   *
+   * @param nowNanos the current time, System.nanoTime()
+   * @return true if the motion ended up on another pixel, see getX() and getY()
+   */
+  public boolean advance(long nowNanos) {
+    if (!started) {
+      started = true;
+      lastStepNanos = nowNanos;
+      return true;
+    }
+    double dt = Math.min((nowNanos - lastStepNanos) / 1e9, MAX_STEP_SECONDS);
+    lastStepNanos = nowNanos;
+    if (dt <= 0) {
+      return false;
+    }
+
+    // Exact enough integration of a critically damped spring for any dt, so irregular ticks are fine.
+    double omega = 2 / smoothTimeSeconds;
+    double omegaDt = omega * dt;
+    double decay = 1 / (1 + omegaDt + 0.48 * omegaDt * omegaDt + 0.235 * omegaDt * omegaDt * omegaDt);
+
+    double changeX = x - destX;
+    double changeY = y - destY;
+    double maxChange = maxSpeed * smoothTimeSeconds;
+    double change = Math.hypot(changeX, changeY);
+    if (change > maxChange) {
+      // Chases a point at most maxChange away, which limits the speed.
+      changeX *= maxChange / change;
+      changeY *= maxChange / change;
+    }
+    double targetX = x - changeX;
+    double targetY = y - changeY;
+
+    double previousX = x;
+    double previousY = y;
+    double tempX = (velocityX + omega * changeX) * dt;
+    double tempY = (velocityY + omega * changeY) * dt;
+    velocityX = (velocityX - omega * tempX) * decay;
+    velocityY = (velocityY - omega * tempY) * decay;
+    x = targetX + (changeX + tempX) * decay;
+    y = targetY + (changeY + tempY) * decay;
+    if ((destX - previousX) * (x - destX) + (destY - previousY) * (y - destY) > 0) {
+      // Went past the destination, the spring alone would swing back from there.
+      x = destX;
+      y = destY;
+      velocityX = 0;
+      velocityY = 0;
+    }
+
+    int newPixelX = (int) Math.round(x);
+    int newPixelY = (int) Math.round(y);
+    boolean moved = newPixelX != pixelX || newPixelY != pixelY;
+    pixelX = newPixelX;
+    pixelY = newPixelY;
+    return moved;
+  }
+
+  /**
+   * @return the x-coordinate of the pixel the motion is at
+   */
+  public int getX() {
+    return pixelX;
+  }
+
+  /**
+   * @return the y-coordinate of the pixel the motion is at
+   */
+  public int getY() {
+    return pixelY;
+  }
+
+  /**
+   * @return the current speed in pixels per second
+   */
+  public double getSpeed() {
+    return Math.hypot(velocityX, velocityY);
+  }
+
+  /**
+   * @param smoothTimeMs roughly the time it takes to reach a destination which stays still, smaller is snappier
+   */
+  public void setSmoothTimeMs(double smoothTimeMs) {
+    if (smoothTimeMs <= 0) {
+      throw new IllegalArgumentException("Smooth time must be positive: " + smoothTimeMs);
+    }
+    this.smoothTimeSeconds = smoothTimeMs / 1000d;
+  }
+
+  /**
+   * @param maxSpeed about the speed the cursor travels at towards a far destination, in pixels per second
+   */
+  public void setMaxSpeed(double maxSpeed) {
+    if (maxSpeed <= 0) {
+      throw new IllegalArgumentException("Max speed must be positive: " + maxSpeed);
+    }
+    this.maxSpeed = maxSpeed;
+  }
+}
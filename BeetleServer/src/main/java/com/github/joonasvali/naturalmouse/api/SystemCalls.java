@@ -1,6 +1,7 @@
 package com.github.joonasvali.naturalmouse.api;
 
 import java.awt.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Abstracts ordinary static System calls away
@@ -10,4 +11,28 @@ public interface SystemCalls {
   void sleep(long time) throws InterruptedException;
   Dimension getScreenSize();
   void setMousePosition(int x, int y);
+
+  /**
+   * A clock for scheduling steps, only the difference of two values has a meaning, like System.nanoTime().
+   * Defaults to currentTimeMillis(), so it's only as precise as that.
+   *
+   * @return the current time in nanoseconds
+   */
+  default long nanoTime() {
+    return TimeUnit.MILLISECONDS.toNanos(currentTimeMillis());
+  }
+
+  /**
+   * Blocks until nanoTime() reaches the deadline, returns at once if it already has.
+   * Defaults to sleep() for the whole milliseconds left, so it may return up to a millisecond early.
+   *
+   * @param deadlineNanos the time to wake up at, in terms of nanoTime()
+   * @throws InterruptedException when interrupted
+   */
+  default void sleepUntilNanos(long deadlineNanos) throws InterruptedException {
+    long remaining = deadlineNanos - nanoTime();
+    if (remaining > 0) {
+      sleep(TimeUnit.NANOSECONDS.toMillis(remaining));
+    }
+  }
 }
@@ -0,0 +1,93 @@
+package com.github.joonasvali.naturalmouse.api;
+
+import com.github.joonasvali.naturalmouse.support.MouseMotionNature;
+import com.github.joonasvali.naturalmouse.support.mousemotion.StepJitter;
+import com.github.joonasvali.naturalmouse.support.mousemotion.Trajectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.*;
+
+/**
+ * Plays a Trajectory planned by MouseMotion: sets the cursor to every step and sleeps until the next one is due,
+ * using the nanosecond clock of SystemCalls. How late the steps were is kept in getJitter(). The clock restarts with
+ * every movement, so a late movement doesn't rush the ones after it. When the cursor is not on the destination of
+ * a movement at its end, e.g. because it was moved manually, it is put there before going on.
+ */
+public class TrajectoryExecutor {
+  private static final Logger log = LoggerFactory.getLogger(TrajectoryExecutor.class);
+  private static final int SLEEP_AFTER_ADJUSTMENT_MS = 2;
+  private final SystemCalls systemCalls;
+  private final MouseInfoAccessor mouseInfo;
+  private final StepJitter jitter = new StepJitter();
+
+  public TrajectoryExecutor(MouseMotionNature nature) {
+    this(nature.getSystemCalls(), nature.getMouseInfo());
+  }
+
+  public TrajectoryExecutor(SystemCalls systemCalls, MouseInfoAccessor mouseInfo) {
+    this.systemCalls = systemCalls;
+    this.mouseInfo = mouseInfo;
+  }
+
+  /**
+   * Blocking call, moves the cursor along the trajectory.
+   *
+   * @param trajectory the planned motion
+   * @param observer receives the location of the mouse on every step
+   * @return true if the cursor ended up on the target of the trajectory
+   * @throws InterruptedException when interrupted
+   */
+  public boolean execute(Trajectory trajectory, MouseMotionObserver observer) throws InterruptedException {
+    int[] xs = trajectory.getXs();
+    int[] ys = trajectory.getYs();
+    long[] offsetsNanos = trajectory.getOffsetsNanos();
+    for (int movement = 0; movement < trajectory.getMovementCount(); movement++) {
+      long movementStartNanos = trajectory.getMovementStartNanos(movement);
+      if (movement > 0) {
+        // The reaction time before an overshoot is corrected.
+        long previousEndNanos = trajectory.getMovementStart(movement) == 0 ? 0
+            : offsetsNanos[trajectory.getMovementStart(movement) - 1];
+        systemCalls.sleepUntilNanos(systemCalls.nanoTime() + Math.max(0, movementStartNanos - previousEndNanos));
+      }
+
+      // The steps are due at absolute times, so the time spent setting the cursor and observing doesn't add up.
+      long baseNanos = systemCalls.nanoTime() - movementStartNanos;
+      for (int i = trajectory.getMovementStart(movement); i < trajectory.getMovementEnd(movement); i++) {
+        systemCalls.setMousePosition(xs[i], ys[i]);
+        // Allow other action to take place or just observe, we'll later compensate by sleeping less.
+        observer.observe(xs[i], ys[i]);
+
+        long deadlineNanos = baseNanos + offsetsNanos[i];
+        systemCalls.sleepUntilNanos(deadlineNanos);
+        jitter.record(systemCalls.nanoTime() - deadlineNanos);
+      }
+
+      int destX = trajectory.getMovementDestX(movement);
+      int destY = trajectory.getMovementDestY(movement);
+      Point mousePosition = mouseInfo.getMousePosition();
+      if (mousePosition.x != destX || mousePosition.y != destY) {
+        // It's possible that mouse is manually moved or for some other reason.
+        // Let's start next step from pre-calculated location to prevent errors from accumulating.
+        // But print warning as this is not expected behavior.
+        log.warn("Mouse off from step endpoint (adjustment was done) " +
+            "x: (" + mousePosition.x + " -> " + destX + ") " +
+            "y: (" + mousePosition.y + " -> " + destY + ") "
+        );
+        systemCalls.setMousePosition(destX, destY);
+        // Let's wait a bit before getting mouse info.
+        systemCalls.sleep(SLEEP_AFTER_ADJUSTMENT_MS);
+      }
+      log.debug("Steps completed, mouse at " + destX + " " + destY);
+    }
+    Point mousePosition = mouseInfo.getMousePosition();
+    return mousePosition.x == trajectory.getTargetX() && mousePosition.y == trajectory.getTargetY();
+  }
+
+  /**
+   * @return how late the steps played by this executor were
+   */
+  public StepJitter getJitter() {
+    return jitter;
+  }
+}
@@ -1,10 +1,11 @@
 package com.github.joonasvali.naturalmouse.support;
 
+import com.github.joonasvali.naturalmouse.api.InPlaceNoiseProvider;
 import com.github.joonasvali.naturalmouse.api.NoiseProvider;
 
 import java.util.Random;
 
-public class DefaultNoiseProvider implements NoiseProvider {
+public class DefaultNoiseProvider implements NoiseProvider, InPlaceNoiseProvider {
   public static final double DEFAULT_NOISINESS_DIVIDER = 2;
   private static final double SMALL_DELTA = 10e-6;
   private final double noisinessDivider;
@@ -18,9 +19,20 @@ public class DefaultNoiseProvider implements NoiseProvider {
 
   @Override
   public DoublePoint getNoise(Random random, double xStepSize, double yStepSize) {
-    if (Math.abs(xStepSize - 0) < SMALL_DELTA && Math.abs(yStepSize - 0) < SMALL_DELTA) {
+    MutableDoublePoint result = new MutableDoublePoint();
+    getNoise(random, xStepSize, yStepSize, result);
+    if (result.getX() == 0 && result.getY() == 0) {
       return DoublePoint.ZERO;
     }
+    return new DoublePoint(result.getX(), result.getY());
+  }
+
+  @Override
+  public void getNoise(Random random, double xStepSize, double yStepSize, MutableDoublePoint result) {
+    if (Math.abs(xStepSize - 0) < SMALL_DELTA && Math.abs(yStepSize - 0) < SMALL_DELTA) {
+      result.set(0, 0);
+      return;
+    }
     double noiseX = 0;
     double noiseY = 0;
     double stepSize = Math.hypot(xStepSize, yStepSize);
@@ -29,6 +41,6 @@ public class DefaultNoiseProvider implements NoiseProvider {
       noiseX = (random.nextDouble() - 0.5) * Math.max(0, (8 - stepSize)) / noisinessDivider;
       noiseY = (random.nextDouble() - 0.5) * Math.max(0, (8 - stepSize)) / noisinessDivider;
     }
-    return new DoublePoint(noiseX, noiseY);
+    result.set(noiseX, noiseY);
   }
 }
@@ -9,6 +9,8 @@ public class Flow {
   private static final int AVERAGE_BUCKET_VALUE = 100;
 
   private final double[] buckets;
+  // prefixSums[i] is the sum of buckets before i, so the contents of any range are a difference of two entries.
+  private final double[] prefixSums;
 
   /**
    * @param characteristics the characteristics array, which can be any size, contain non-negative numbers.
@@ -21,6 +23,10 @@ public class Flow {
    */
   public Flow(double[] characteristics) {
     buckets = normalizeBuckets(characteristics);
+    prefixSums = new double[buckets.length + 1];
+    for (int i = 0; i < buckets.length; i++) {
+      prefixSums[i + 1] = prefixSums[i] + buckets[i];
+    }
   }
 
   /**
@@ -95,26 +101,24 @@ public class Flow {
    * from first or last bucket is just a fragment of it's full value, depending how
    * large portion the decimal place contains. For example getBucketContents(0.6, 2.4)
    * returns 0.4 * bucket[0] + 1 * bucket[1] + 0.4 * bucket[2]
+   * Takes constant time regardless of how many buckets the range covers.
    * @param bucketFrom bucket from where to start reading
    * @param bucketUntil bucket where to read
    * @return the sum of the contents in the buckets
    */
   private double getBucketsContents(double bucketFrom, double bucketUntil) {
-    double sum = 0;
-    for (int i = (int)bucketFrom; i < bucketUntil; i++) {
-      double value = buckets[i];
-      double endMultiplier = 1;
-      double startMultiplier = 0;
-      if (bucketUntil < i+1) {
-        endMultiplier = bucketUntil - (int)bucketUntil;
-      }
-      if ((int)bucketFrom == i) {
-        startMultiplier = bucketFrom - (int)bucketFrom;
-      }
-      value *= endMultiplier - startMultiplier;
-      sum += value;
-    }
+    return getContentsUntil(bucketUntil) - getContentsUntil(bucketFrom);
+  }
 
-    return sum;
+  /**
+   * @param bucket bucket until where to read, may have decimal places
+   * @return the sum of the contents from the beginning until the bucket, including the fragment of the last one
+   */
+  private double getContentsUntil(double bucket) {
+    int whole = (int) bucket;
+    if (whole >= buckets.length) {
+      return prefixSums[buckets.length];
+    }
+    return prefixSums[whole] + buckets[whole] * (bucket - whole);
   }
 }
@@ -0,0 +1,57 @@
+package com.github.joonasvali.naturalmouse.support;
+
+import com.github.joonasvali.naturalmouse.api.SpeedManager;
+import com.github.joonasvali.naturalmouse.util.FlowTemplates;
+import com.github.joonasvali.naturalmouse.util.Pair;
+
+/**
+ * SpeedManager for following a live source, e.g. a phone sending its position some tens of times per second.
+ * Every movement is done at constant speed and finishes within the latency budget, which itself is never longer than
+ * the interval between samples, so the movement towards one sample is done before the next sample arrives.
+ */
+public class LiveFollowSpeedManager implements SpeedManager {
+  private final Flow flow = new Flow(FlowTemplates.constantSpeed());
+  private long sampleIntervalMs;
+  private long latencyBudgetMs;
+
+  /**
+   * @param sampleIntervalMs the time between two samples of the source
+   * @param latencyBudgetMs the time a movement may take at most
+   */
+  public LiveFollowSpeedManager(long sampleIntervalMs, long latencyBudgetMs) {
+    this.sampleIntervalMs = sampleIntervalMs;
+    this.latencyBudgetMs = latencyBudgetMs;
+  }
+
+  @Override
+  public Pair<Flow, Long> getFlowWithTime(double distance) {
+    return new Pair<>(flow, getMouseMovementTimeMs());
+  }
+
+  /**
+   * @return the time every movement takes
+   */
+  public long getMouseMovementTimeMs() {
+    return Math.max(1, Math.min(sampleIntervalMs, latencyBudgetMs));
+  }
+
+  public long getSampleIntervalMs() {
+    return sampleIntervalMs;
+  }
+
+  /**
+   * @param sampleIntervalMs the time between two samples, e.g. after the source changed its rate. A StreamingMouseMotion
+   * takes it when built, see MouseMotionFactory.buildStreaming()
+   */
+  public void setSampleIntervalMs(long sampleIntervalMs) {
+    this.sampleIntervalMs = sampleIntervalMs;
+  }
+
+  public long getLatencyBudgetMs() {
+    return latencyBudgetMs;
+  }
+
+  public void setLatencyBudgetMs(long latencyBudgetMs) {
+    this.latencyBudgetMs = latencyBudgetMs;
+  }
+}
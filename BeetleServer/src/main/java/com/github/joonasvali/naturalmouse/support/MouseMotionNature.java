@@ -6,6 +6,7 @@ import com.github.joonasvali.naturalmouse.api.NoiseProvider;
 import com.github.joonasvali.naturalmouse.api.OvershootManager;
 import com.github.joonasvali.naturalmouse.api.SpeedManager;
 import com.github.joonasvali.naturalmouse.api.SystemCalls;
+import com.github.joonasvali.naturalmouse.support.mousemotion.TrajectoryCache;
 
 public class MouseMotionNature {
   private double timeToStepsDivider;
@@ -20,6 +21,7 @@ public class MouseMotionNature {
   private MouseInfoAccessor mouseInfo;
   private SystemCalls systemCalls;
   private SpeedManager speedManager;
+  private TrajectoryCache trajectoryCache;
 
   /**
    * Time to steps is how NaturalMouseMotion calculates how many locations need to be visited between
@@ -227,4 +229,21 @@ public class MouseMotionNature {
   public void setOvershootManager(OvershootManager overshootManager) {
     this.overshootManager = overshootManager;
   }
+
+  /**
+   * Get the cache motions are replayed from, null if every motion is planned from scratch.
+   * @return the cache or null
+   */
+  public TrajectoryCache getTrajectoryCache() {
+    return trajectoryCache;
+  }
+
+  /**
+   * Set the cache motions are replayed from. Motions of about the same displacement are then planned once per
+   * variant and replayed with some variation, instead of planned from scratch every time. Off by default.
+   * @param trajectoryCache the cache, or null to plan every motion
+   */
+  public void setTrajectoryCache(TrajectoryCache trajectoryCache) {
+    this.trajectoryCache = trajectoryCache;
+  }
 }
@@ -0,0 +1,27 @@
+package com.github.joonasvali.naturalmouse.support;
+
+/**
+ * A point which can be overwritten, for passing results out of methods called on every step without allocating.
+ */
+public class MutableDoublePoint {
+  private double x;
+  private double y;
+
+  public void set(double x, double y) {
+    this.x = x;
+    this.y = y;
+  }
+
+  public double getX() {
+    return x;
+  }
+
+  public double getY() {
+    return y;
+  }
+
+  @Override
+  public String toString() {
+    return "(" + x + ", " + y + ")";
+  }
+}
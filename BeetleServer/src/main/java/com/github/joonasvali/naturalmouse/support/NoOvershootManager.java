@@ -0,0 +1,25 @@
+package com.github.joonasvali.naturalmouse.support;
+
+import com.github.joonasvali.naturalmouse.api.OvershootManager;
+
+import java.awt.*;
+
+/**
+ * OvershootManager which never overshoots, every movement goes straight to the destination.
+ */
+public class NoOvershootManager implements OvershootManager {
+  @Override
+  public int getOvershoots(Flow flow, long mouseMovementMs, double distance) {
+    return 0;
+  }
+
+  @Override
+  public Point getOvershootAmount(double distanceToRealTargetX, double distanceToRealTargetY, long mouseMovementMs, int overshootsRemaining) {
+    return new Point(0, 0);
+  }
+
+  @Override
+  public long deriveNextMouseMovementTimeMs(long mouseMovementMs, int overshootsRemaining) {
+    return mouseMovementMs;
+  }
+}
@@ -0,0 +1,89 @@
+package com.github.joonasvali.naturalmouse.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * SystemCalls with a nanosecond clock and sleeps which wake up on time. Sleeping for a millisecond can take up to
+ * another one depending on the OS, which adds up over the steps of a motion and makes them uneven. This sleeps until
+ * shortly before the deadline and spins for the rest, so it wakes up within microseconds of it. The spinning
+ * keeps a core busy for up to spinNanos per sleep. On a single processor spinning only holds up the thread being
+ * waited for, so by default it's left out there.
+ */
+public class PrecisionSystemCalls extends DefaultSystemCalls {
+  private static final Logger log = LoggerFactory.getLogger(PrecisionSystemCalls.class);
+  public static final long DEFAULT_SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(300);
+  // Thread.onSpinWait() tells the CPU it's a busy-wait loop, it only exists from Java 9 on.
+  private static final MethodHandle ON_SPIN_WAIT = findOnSpinWait();
+  private final long spinNanos;
+
+  public PrecisionSystemCalls(Robot robot) {
+    this(robot, Runtime.getRuntime().availableProcessors() > 1 ? DEFAULT_SPIN_NANOS : 0);
+  }
+
+  /**
+   * @param robot the robot which moves the cursor
+   * @param spinNanos how long before a deadline to stop sleeping and spin instead
+   */
+  public PrecisionSystemCalls(Robot robot, long spinNanos) {
+    super(robot);
+    if (spinNanos < 0) {
+      throw new IllegalArgumentException("Spin time must not be negative: " + spinNanos);
+    }
+    this.spinNanos = spinNanos;
+  }
+
+  @Override
+  public long nanoTime() {
+    return System.nanoTime();
+  }
+
+  @Override
+  public void sleep(long time) throws InterruptedException {
+    sleepUntilNanos(nanoTime() + TimeUnit.MILLISECONDS.toNanos(time));
+  }
+
+  @Override
+  public void sleepUntilNanos(long deadlineNanos) throws InterruptedException {
+    long remaining;
+    while ((remaining = deadlineNanos - nanoTime()) > spinNanos) {
+      LockSupport.parkNanos(remaining - spinNanos);
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+    }
+    while (deadlineNanos - nanoTime() > 0) {
+      onSpinWait();
+    }
+  }
+
+  public long getSpinNanos() {
+    return spinNanos;
+  }
+
+  private static void onSpinWait() {
+    if (ON_SPIN_WAIT != null) {
+      try {
+        ON_SPIN_WAIT.invokeExact();
+      } catch (Throwable e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  private static MethodHandle findOnSpinWait() {
+    try {
+      return MethodHandles.lookup().findStatic(Thread.class, "onSpinWait", MethodType.methodType(void.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      log.debug("Thread.onSpinWait is not available, spinning without it");
+      return null;
+    }
+  }
+}
@@ -2,8 +2,10 @@ package com.github.joonasvali.naturalmouse.support;
 
 import com.github.joonasvali.naturalmouse.api.MouseInfoAccessor;
 import com.github.joonasvali.naturalmouse.api.SystemCalls;
+import com.github.joonasvali.naturalmouse.support.pipeline.DisplayTopology;
 
 import java.awt.*;
+import java.util.List;
 
 /**
  * This nature translates mouse coordinates to specified offset and screen dimension.
@@ -25,6 +27,27 @@ public class ScreenAdjustedNature extends DefaultMouseMotionNature {
     this.offset = mouseOffset;
   }
 
+  /**
+   * @param region the area of the desktop the coordinates are relative to, e.g. one monitor or all of them
+   */
+  public ScreenAdjustedNature(Rectangle region) {
+    this(region.getSize(), region.getLocation());
+  }
+
+  /**
+   * Creates a nature for one monitor of a multi-monitor desktop.
+   *
+   * @param index the index of the monitor in DisplayTopology.query(), 0 is the primary monitor as with -Dbeetle.screen
+   * @return a nature with the coordinates relative to the monitor
+   */
+  public static ScreenAdjustedNature forMonitor(int index) {
+    List<DisplayTopology.Display> displays = DisplayTopology.query().getDisplays();
+    if (index < 0 || index >= displays.size()) {
+      throw new IllegalArgumentException("No monitor " + index + ", there are " + displays.size());
+    }
+    return new ScreenAdjustedNature(displays.get(index).getBounds());
+  }
+
   @Override
   public void setMouseInfo(MouseInfoAccessor mouseInfo) {
     super.setMouseInfo(new ProxyMouseInfo(mouseInfo));
@@ -70,6 +93,16 @@ public class ScreenAdjustedNature extends DefaultMouseMotionNature {
       underlying.sleep(time);
     }
 
+    @Override
+    public long nanoTime() {
+      return underlying.nanoTime();
+    }
+
+    @Override
+    public void sleepUntilNanos(long deadlineNanos) throws InterruptedException {
+      underlying.sleepUntilNanos(deadlineNanos);
+    }
+
     @Override
     public Dimension getScreenSize() {
       return screenSize;
@@ -1,8 +1,9 @@
 package com.github.joonasvali.naturalmouse.support;
 
 import com.github.joonasvali.naturalmouse.api.DeviationProvider;
+import com.github.joonasvali.naturalmouse.api.InPlaceDeviationProvider;
 
-public class SinusoidalDeviationProvider implements DeviationProvider {
+public class SinusoidalDeviationProvider implements DeviationProvider, InPlaceDeviationProvider {
   public static final int DEFAULT_SLOPE_DIVIDER = 10;
   private final double slopeDivider;
 
@@ -12,11 +13,18 @@ public class SinusoidalDeviationProvider implements DeviationProvider {
 
   @Override
   public DoublePoint getDeviation(double totalDistanceInPixels, double completionFraction) {
+    MutableDoublePoint result = new MutableDoublePoint();
+    getDeviation(totalDistanceInPixels, completionFraction, result);
+    return new DoublePoint(result.getX(), result.getY());
+  }
+
+  @Override
+  public void getDeviation(double totalDistanceInPixels, double completionFraction, MutableDoublePoint result) {
     double deviationFunctionResult = (1 - Math.cos(completionFraction * Math.PI * 2)) / 2;
 
     double deviationX = totalDistanceInPixels / slopeDivider;
     double deviationY = totalDistanceInPixels / slopeDivider;
 
-    return new DoublePoint(deviationFunctionResult * deviationX, deviationFunctionResult * deviationY);
+    result.set(deviationFunctionResult * deviationX, deviationFunctionResult * deviationY);
   }
 }
@@ -0,0 +1,71 @@
+package com.github.joonasvali.naturalmouse.support.mousemotion;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How late the steps of motions were set compared to when they were due, for checking how evenly the cursor moves
+ * with given SystemCalls. Recorded by the thread moving the cursor, it may be read from any thread.
+ */
+public class StepJitter {
+  private long steps;
+  private long sumNanos;
+  private double sumSquaredMicros;
+  private long maxNanos;
+
+  /**
+   * @param latenessNanos how much later than due the step was, negative if early
+   */
+  public synchronized void record(long latenessNanos) {
+    steps++;
+    sumNanos += latenessNanos;
+    double micros = latenessNanos / 1000d;
+    sumSquaredMicros += micros * micros;
+    maxNanos = Math.max(maxNanos, Math.abs(latenessNanos));
+  }
+
+  public synchronized void reset() {
+    steps = 0;
+    sumNanos = 0;
+    sumSquaredMicros = 0;
+    maxNanos = 0;
+  }
+
+  /**
+   * @return the amount of steps recorded
+   */
+  public synchronized long getSteps() {
+    return steps;
+  }
+
+  /**
+   * @return the average lateness of the steps in nanoseconds
+   */
+  public synchronized double getMeanNanos() {
+    return steps == 0 ? 0 : sumNanos / (double) steps;
+  }
+
+  /**
+   * @return the standard deviation of the lateness of the steps in nanoseconds
+   */
+  public synchronized double getStdDevNanos() {
+    if (steps == 0) {
+      return 0;
+    }
+    double meanMicros = sumNanos / 1000d / steps;
+    return Math.sqrt(Math.max(0, sumSquaredMicros / steps - meanMicros * meanMicros)) * 1000;
+  }
+
+  /**
+   * @return the largest lateness or earliness of a step in nanoseconds
+   */
+  public synchronized long getMaxNanos() {
+    return maxNanos;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format("steps: %d, mean: %.3f ms, stddev: %.3f ms, max: %.3f ms", steps,
+        getMeanNanos() / TimeUnit.MILLISECONDS.toNanos(1), getStdDevNanos() / TimeUnit.MILLISECONDS.toNanos(1),
+        maxNanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+  }
+}
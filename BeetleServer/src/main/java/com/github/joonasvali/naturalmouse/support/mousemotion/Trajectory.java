@@ -0,0 +1,176 @@
+package com.github.joonasvali.naturalmouse.support.mousemotion;
+
+import java.util.Arrays;
+
+/**
+ * The planned path of a MouseMotion: every position the cursor is set to, with the time since the start of the
+ * motion at which the step is due, in parallel primitive arrays. The steps are grouped into movements, the first one
+ * towards an overshoot or the target and the rest correcting towards the target, each with the destination it
+ * is expected to end on and the time it starts at, which includes the reaction time before it.
+ *
+ * Instances are reusable: clear() keeps the arrays, which only grow.
+ */
+public class Trajectory {
+  private static final int INITIAL_STEPS = 64;
+  private static final int INITIAL_MOVEMENTS = 4;
+
+  private int[] xs = new int[INITIAL_STEPS];
+  private int[] ys = new int[INITIAL_STEPS];
+  private long[] offsetsNanos = new long[INITIAL_STEPS];
+  private int size;
+  private int[] movementEnds = new int[INITIAL_MOVEMENTS];
+  private int[] destXs = new int[INITIAL_MOVEMENTS];
+  private int[] destYs = new int[INITIAL_MOVEMENTS];
+  private long[] movementStartsNanos = new long[INITIAL_MOVEMENTS];
+  private int movementCount;
+  private int targetX;
+  private int targetY;
+
+  /**
+   * Empties the trajectory for planning a new motion.
+   *
+   * @param targetX the x-coordinate the motion ends on
+   * @param targetY the y-coordinate the motion ends on
+   */
+  public void clear(int targetX, int targetY) {
+    this.targetX = targetX;
+    this.targetY = targetY;
+    size = 0;
+    movementCount = 0;
+  }
+
+  /**
+   * Starts a movement, the steps added from now on belong to it.
+   *
+   * @param destX the x-coordinate the movement ends on
+   * @param destY the y-coordinate the movement ends on
+   * @param startNanos the time since the start of the motion the movement starts at
+   */
+  public void startMovement(int destX, int destY, long startNanos) {
+    if (movementCount == movementEnds.length) {
+      int capacity = movementCount * 2;
+      movementEnds = Arrays.copyOf(movementEnds, capacity);
+      destXs = Arrays.copyOf(destXs, capacity);
+      destYs = Arrays.copyOf(destYs, capacity);
+      movementStartsNanos = Arrays.copyOf(movementStartsNanos, capacity);
+    }
+    destXs[movementCount] = destX;
+    destYs[movementCount] = destY;
+    movementStartsNanos[movementCount] = startNanos;
+    movementEnds[movementCount] = size;
+    movementCount++;
+  }
+
+  /**
+   * Adds a step to the current movement.
+   *
+   * @param x the x-coordinate the cursor is set to
+   * @param y the y-coordinate the cursor is set to
+   * @param offsetNanos the time since the start of the motion the step is due at
+   */
+  public void addStep(int x, int y, long offsetNanos) {
+    if (movementCount == 0) {
+      throw new IllegalStateException("No movement started");
+    }
+    if (size == xs.length) {
+      int capacity = size * 2;
+      xs = Arrays.copyOf(xs, capacity);
+      ys = Arrays.copyOf(ys, capacity);
+      offsetsNanos = Arrays.copyOf(offsetsNanos, capacity);
+    }
+    xs[size] = x;
+    ys[size] = y;
+    offsetsNanos[size] = offsetNanos;
+    size++;
+    movementEnds[movementCount - 1] = size;
+  }
+
+  /**
+   * @return the amount of steps
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the x-coordinates of the steps, valid up to size(), not a copy
+   */
+  public int[] getXs() {
+    return xs;
+  }
+
+  /**
+   * @return the y-coordinates of the steps, valid up to size(), not a copy
+   */
+  public int[] getYs() {
+    return ys;
+  }
+
+  /**
+   * @return the times since the start of the motion the steps are due at, valid up to size(), not a copy
+   */
+  public long[] getOffsetsNanos() {
+    return offsetsNanos;
+  }
+
+  public int getMovementCount() {
+    return movementCount;
+  }
+
+  /**
+   * @param movement the index of the movement
+   * @return the index of the first step of the movement
+   */
+  public int getMovementStart(int movement) {
+    return movement == 0 ? 0 : movementEnds[movement - 1];
+  }
+
+  /**
+   * @param movement the index of the movement
+   * @return the index after the last step of the movement
+   */
+  public int getMovementEnd(int movement) {
+    return movementEnds[movement];
+  }
+
+  public int getMovementDestX(int movement) {
+    return destXs[movement];
+  }
+
+  public int getMovementDestY(int movement) {
+    return destYs[movement];
+  }
+
+  /**
+   * @param movement the index of the movement
+   * @return the time since the start of the motion the movement starts at
+   */
+  public long getMovementStartNanos(int movement) {
+    return movementStartsNanos[movement];
+  }
+
+  public int getTargetX() {
+    return targetX;
+  }
+
+  public int getTargetY() {
+    return targetY;
+  }
+
+  /**
+   * @return the time since the start of the motion the last step is due at
+   */
+  public long getDurationNanos() {
+    return size == 0 ? 0 : offsetsNanos[size - 1];
+  }
+
+  @Override
+  public String toString() {
+    return "Trajectory{" +
+        "target=" + targetX + "," + targetY +
+        ", steps=" + size +
+        ", movements=" + movementCount +
+        ", durationMs=" + getDurationNanos() / 1_000_000 +
+        '}';
+  }
+}
@@ -0,0 +1,255 @@
+package com.github.joonasvali.naturalmouse.support.mousemotion;
+
+import java.awt.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Keeps planned trajectories for replaying motions of about the same displacement, for callers which move between
+ * the same few targets over and over. A motion is looked up by its displacement rounded to a grid and a variant
+ * drawn at random, each variant is planned once with its own flow, speed and overshoots and replayed after that.
+ *
+ * A replay is stretched to end exactly on the target, given an arc of random size to the side of the straight line and
+ * its timing scaled by a random factor, so repeated motions don't retrace the same pixels. That is a handful of
+ * multiplications per step, instead of planning the flow, noise and deviation again.
+ *
+ * The cache holds at most maxEntries trajectories and drops the least recently used one when full. It is shared by
+ * all motions of a nature and may be used from several threads. Clear it after changing the nature, as the trajectories
+ * planned with the previous one are replayed otherwise.
+ */
+public class TrajectoryCache {
+  public static final int DEFAULT_MAX_ENTRIES = 256;
+  public static final int DEFAULT_QUANTUM = 8;
+  public static final int DEFAULT_VARIANTS = 4;
+  // Largest arc added to a replay, as a fraction of the distance.
+  private static final double ARC_FRACTION = 0.03;
+  // Largest change of the duration of a replay, as a fraction of it.
+  private static final double TIME_VARIATION = 0.1;
+  // Rough size of a cache entry besides its arrays, for the memory footprint.
+  private static final int ENTRY_OVERHEAD_BYTES = 160;
+
+  private final int quantum;
+  private final int variants;
+  private final Map<Long, Entry> entries;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long memoryBytes;
+
+  public TrajectoryCache() {
+    this(DEFAULT_MAX_ENTRIES, DEFAULT_QUANTUM, DEFAULT_VARIANTS);
+  }
+
+  /**
+   * @param maxEntries the most trajectories kept
+   * @param quantum the size of the grid cells displacements are rounded to in pixels, a replay is stretched by less
+   * @param variants the amount of different trajectories kept per grid cell
+   */
+  public TrajectoryCache(int maxEntries, int quantum, int variants) {
+    if (maxEntries < 1 || quantum < 1 || variants < 1) {
+      throw new IllegalArgumentException("Max entries, quantum and variants must be positive: " +
+          maxEntries + ", " + quantum + ", " + variants);
+    }
+    this.quantum = quantum;
+    this.variants = variants;
+    this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+        if (size() > maxEntries) {
+          evictions++;
+          memoryBytes -= eldest.getValue().memoryBytes;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * @param from the position the motion starts from
+   * @param xDest the x-coordinate the motion ends on
+   * @param yDest the y-coordinate the motion ends on
+   * @param random picks the variant
+   * @return the key of the motion, for replay() and store()
+   */
+  public long getKey(Point from, int xDest, int yDest, Random random) {
+    long cellX = Math.floorDiv(xDest - from.x, quantum);
+    long cellY = Math.floorDiv(yDest - from.y, quantum);
+    return (cellX & 0xFFFFFF) << 40 | (cellY & 0xFFFFFF) << 16 | random.nextInt(variants);
+  }
+
+  /**
+   * Fills the trajectory with the one stored for the key, moved to start from the given position and stretched to end
+   * on its target, which it was cleared with.
+   *
+   * @param key the key from getKey()
+   * @param from the position the motion starts from
+   * @param random the random for the variation of the replay
+   * @param screenSize the size of the screen the steps are kept on
+   * @param trajectory the trajectory to fill, cleared with the target of the motion
+   * @return true if a trajectory was stored for the key, otherwise the trajectory is left as it was
+   */
+  public boolean replay(long key, Point from, Random random, Dimension screenSize, Trajectory trajectory) {
+    Entry entry;
+    synchronized (this) {
+      entry = entries.get(key);
+      if (entry == null) {
+        misses++;
+        return false;
+      }
+      hits++;
+    }
+    // The stored trajectory is not changed after it was stored, so it is read outside of the lock.
+    Trajectory stored = entry.trajectory;
+    double dx = trajectory.getTargetX() - from.x;
+    double dy = trajectory.getTargetY() - from.y;
+    double stretchX = dx - entry.dx;
+    double stretchY = dy - entry.dy;
+    double distance = Math.hypot(dx, dy);
+    double arc = (random.nextDouble() * 2 - 1) * ARC_FRACTION;
+    // Perpendicular to the displacement, with the length of the arc at its highest point.
+    double arcX = -dy * arc;
+    double arcY = dx * arc;
+    if (distance == 0) {
+      arcX = 0;
+      arcY = 0;
+    }
+    double timeScale = 1 + (random.nextDouble() * 2 - 1) * TIME_VARIATION;
+    double duration = stored.getDurationNanos();
+
+    int[] xs = stored.getXs();
+    int[] ys = stored.getYs();
+    long[] offsetsNanos = stored.getOffsetsNanos();
+    for (int movement = 0; movement < stored.getMovementCount(); movement++) {
+      int start = stored.getMovementStart(movement);
+      int end = stored.getMovementEnd(movement);
+      long endOffsetNanos = end > start ? offsetsNanos[end - 1] : stored.getMovementStartNanos(movement);
+      double endFraction = duration == 0 ? 1 : endOffsetNanos / duration;
+      trajectory.startMovement(
+          replayX(stored.getMovementDestX(movement), from, stretchX, arcX, endFraction, screenSize),
+          replayY(stored.getMovementDestY(movement), from, stretchY, arcY, endFraction, screenSize),
+          (long) (stored.getMovementStartNanos(movement) * timeScale)
+      );
+      for (int i = start; i < end; i++) {
+        double fraction = duration == 0 ? 1 : offsetsNanos[i] / duration;
+        trajectory.addStep(
+            replayX(xs[i], from, stretchX, arcX, fraction, screenSize),
+            replayY(ys[i], from, stretchY, arcY, fraction, screenSize),
+            (long) (offsetsNanos[i] * timeScale)
+        );
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Stores a trajectory planned for the motion, relative to where it starts from, unless one already is.
+   *
+   * @param key the key from getKey()
+   * @param from the position the motion starts from
+   * @param trajectory the planned trajectory, it is copied
+   */
+  public void store(long key, Point from, Trajectory trajectory) {
+    Trajectory relative = new Trajectory();
+    relative.clear(trajectory.getTargetX() - from.x, trajectory.getTargetY() - from.y);
+    int[] xs = trajectory.getXs();
+    int[] ys = trajectory.getYs();
+    long[] offsetsNanos = trajectory.getOffsetsNanos();
+    for (int movement = 0; movement < trajectory.getMovementCount(); movement++) {
+      relative.startMovement(trajectory.getMovementDestX(movement) - from.x,
+          trajectory.getMovementDestY(movement) - from.y, trajectory.getMovementStartNanos(movement));
+      for (int i = trajectory.getMovementStart(movement); i < trajectory.getMovementEnd(movement); i++) {
+        relative.addStep(xs[i] - from.x, ys[i] - from.y, offsetsNanos[i]);
+      }
+    }
+    Entry entry = new Entry(relative);
+    synchronized (this) {
+      if (!entries.containsKey(key)) {
+        memoryBytes += entry.memoryBytes;
+        entries.put(key, entry);
+      }
+    }
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+    memoryBytes = 0;
+  }
+
+  /**
+   * @return the amount of trajectories kept
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return the amount of motions replayed from the cache
+   */
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  /**
+   * @return the amount of motions which had to be planned
+   */
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  /**
+   * @return the fraction of motions replayed from the cache, 0 before any
+   */
+  public synchronized double getHitRate() {
+    long lookups = hits + misses;
+    return lookups == 0 ? 0 : hits / (double) lookups;
+  }
+
+  /**
+   * @return the amount of trajectories dropped to make room for new ones
+   */
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * @return an estimate of the memory the kept trajectories take in bytes
+   */
+  public synchronized long getMemoryBytes() {
+    return memoryBytes;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format("TrajectoryCache{entries=%d, hitRate=%.2f, hits=%d, misses=%d, evictions=%d, memoryKb=%d}",
+        entries.size(), getHitRate(), hits, misses, evictions, memoryBytes / 1024);
+  }
+
+  private static int replayX(int relativeX, Point from, double stretchX, double arcX, double fraction,
+                             Dimension screenSize) {
+    double x = from.x + relativeX + stretchX * fraction + arcX * 4 * fraction * (1 - fraction);
+    return Math.max(0, Math.min(screenSize.width - 1, (int) Math.round(x)));
+  }
+
+  private static int replayY(int relativeY, Point from, double stretchY, double arcY, double fraction,
+                             Dimension screenSize) {
+    double y = from.y + relativeY + stretchY * fraction + arcY * 4 * fraction * (1 - fraction);
+    return Math.max(0, Math.min(screenSize.height - 1, (int) Math.round(y)));
+  }
+
+  private static class Entry {
+    private final Trajectory trajectory;
+    private final int dx;
+    private final int dy;
+    private final long memoryBytes;
+
+    private Entry(Trajectory trajectory) {
+      this.trajectory = trajectory;
+      this.dx = trajectory.getTargetX();
+      this.dy = trajectory.getTargetY();
+      // Two ints and a long per step, four values per movement.
+      this.memoryBytes = ENTRY_OVERHEAD_BYTES + trajectory.getXs().length * 16L + trajectory.getMovementCount() * 20L;
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+/**
+ * Decides which of several connected clients moves the cursor, see CursorArbiter.
+ */
+public enum ArbitrationPolicy {
+  /**
+   * The client which moved most recently owns the cursor, the others are ignored. A moving owner is not
+   * interrupted, the cursor changes hands once the owner pauses.
+   */
+  LAST_WRITER_WINS,
+  /**
+   * The first client to move owns the cursor until it disconnects or stays still for a while.
+   */
+  FIRST_OWNER_LOCK,
+  /**
+   * All clients move the cursor, their movements are added together.
+   */
+  SUM;
+
+  /**
+   * @param name the name of the policy, case insensitive, also accepts the short forms last, first and sum
+   * @return the policy
+   * @throws IllegalArgumentException if there is no such policy
+   */
+  public static ArbitrationPolicy fromName(String name) {
+    switch (name.toLowerCase()) {
+      case "last":
+        return LAST_WRITER_WINS;
+      case "first":
+        return FIRST_OWNER_LOCK;
+      default:
+        return valueOf(name.toUpperCase());
+    }
+  }
+}
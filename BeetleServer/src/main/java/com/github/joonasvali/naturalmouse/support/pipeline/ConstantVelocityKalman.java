@@ -0,0 +1,83 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+/**
+ * Kalman filter for a single coordinate moving at a roughly constant velocity, estimating position and velocity
+ * from noisy position measurements at irregular times. Changes of the velocity are modelled as a random
+ * acceleration which is constant within each step, the discrete white noise model. Keeps only primitive state and creates no garbage.
+ */
+public class ConstantVelocityKalman {
+  private double position;
+  private double velocity;
+  // Covariance of the estimate, symmetric so p10 == p01.
+  private double p00;
+  private double p01;
+  private double p11;
+  private boolean initialized;
+
+  /**
+   * Starts from the measurement, at rest.
+   *
+   * @param measurement the position
+   * @param measurementNoise the variance of the measurements
+   */
+  public void reset(double measurement, double measurementNoise) {
+    position = measurement;
+    velocity = 0;
+    p00 = measurementNoise;
+    p01 = 0;
+    p11 = 1;
+    initialized = true;
+  }
+
+  /**
+   * Moves the estimate forward in time.
+   *
+   * @param dt seconds since the previous predict or reset
+   * @param processNoise the variance of the acceleration during the step, larger follows changes of velocity quicker
+   */
+  public void predict(double dt, double processNoise) {
+    double dt2 = dt * dt;
+    position += velocity * dt;
+    p00 += 2 * dt * p01 + dt2 * p11 + processNoise * dt2 * dt2 / 4;
+    p01 += dt * p11 + processNoise * dt2 * dt / 2;
+    p11 += processNoise * dt2;
+  }
+
+  /**
+   * Corrects the estimate with a measurement made at the time the estimate was predicted to.
+   *
+   * @param measurement the measured position
+   * @param measurementNoise the variance of the measurement
+   */
+  public void update(double measurement, double measurementNoise) {
+    double residual = measurement - position;
+    double s = p00 + measurementNoise;
+    double k0 = p00 / s;
+    double k1 = p01 / s;
+    position += k0 * residual;
+    velocity += k1 * residual;
+    p11 -= k1 * p01;
+    p01 *= 1 - k0;
+    p00 *= 1 - k0;
+  }
+
+  /**
+   * @param dt seconds ahead of the current estimate
+   * @return the position extrapolated with the current velocity, the estimate itself doesn't change
+   */
+  public double extrapolate(double dt) {
+    return position + velocity * dt;
+  }
+
+  public double getPosition() {
+    return position;
+  }
+
+  public double getVelocity() {
+    return velocity;
+  }
+
+  public boolean isInitialized() {
+    return initialized;
+  }
+}
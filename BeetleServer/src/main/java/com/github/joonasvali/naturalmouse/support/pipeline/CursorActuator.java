@@ -0,0 +1,160 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.api.SystemCalls;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.DisplayMode;
+import java.awt.GraphicsEnvironment;
+import java.awt.HeadlessException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves the cursor from its own thread at a fixed rate. Every tick takes the newest pose from the mailbox,
+ * lets the CursorController decide the target and sets the cursor at most once. Ticks are scheduled against
+ * absolute deadlines, so the rate doesn't drift, and ticks missed because of a stall are skipped, not made up for.
+ */
+public class CursorActuator implements Runnable {
+  private static final Logger log = LoggerFactory.getLogger(CursorActuator.class);
+  public static final int MIN_RATE_HZ = 30;
+  public static final int MAX_RATE_HZ = 240;
+  public static final int DEFAULT_RATE_HZ = 60;
+
+  private final SystemCalls systemCalls;
+  private final PoseMailbox mailbox;
+  private final CursorController controller;
+  private final int rateHz;
+  private final long periodNanos;
+  private final PoseSample pose = new PoseSample();
+  private volatile boolean running = true;
+  private volatile long ticks;
+  private volatile long missedTicks;
+  private volatile long cursorUpdates;
+  private int lastX = Integer.MIN_VALUE;
+  private int lastY = Integer.MIN_VALUE;
+
+  /**
+   * For controllers which take poses from their own sources, they are called with a null pose on every tick.
+   *
+   * @param systemCalls sets the cursor position
+   * @param controller decides the cursor position
+   * @param rateHz ticks per second, clamped to MIN_RATE_HZ...MAX_RATE_HZ
+   */
+  public CursorActuator(SystemCalls systemCalls, CursorController controller, int rateHz) {
+    this(systemCalls, null, controller, rateHz);
+  }
+
+  /**
+   * @param systemCalls sets the cursor position
+   * @param mailbox the source of poses
+   * @param controller decides the cursor position
+   * @param rateHz ticks per second, clamped to MIN_RATE_HZ...MAX_RATE_HZ
+   */
+  public CursorActuator(SystemCalls systemCalls, PoseMailbox mailbox, CursorController controller, int rateHz) {
+    this.systemCalls = systemCalls;
+    this.mailbox = mailbox;
+    this.controller = controller;
+    this.rateHz = Math.max(MIN_RATE_HZ, Math.min(MAX_RATE_HZ, rateHz));
+    this.periodNanos = TimeUnit.SECONDS.toNanos(1) / this.rateHz;
+  }
+
+  /**
+   * Starts the actuation thread.
+   *
+   * @return the started thread
+   */
+  public Thread start() {
+    Thread thread = new Thread(this, "cursor-actuator");
+    thread.setDaemon(true);
+    // Late ticks are visible as stutter, so the scheduler should not wait for ordinary work.
+    thread.setPriority(Thread.MAX_PRIORITY);
+    thread.start();
+    return thread;
+  }
+
+  /**
+   * Makes the actuation thread finish after its current tick.
+   */
+  public void stop() {
+    running = false;
+  }
+
+  @Override
+  public void run() {
+    log.info("Actuating cursor at {} Hz", rateHz);
+    long deadline = System.nanoTime();
+    while (running) {
+      tick(deadline);
+
+      deadline += periodNanos;
+      long now = System.nanoTime();
+      if (now - deadline > periodNanos) {
+        long behind = (now - deadline) / periodNanos;
+        missedTicks += behind;
+        deadline += behind * periodNanos;
+      }
+      long remaining;
+      while ((remaining = deadline - System.nanoTime()) > 0) {
+        LockSupport.parkNanos(remaining);
+      }
+    }
+  }
+
+  /**
+   * Runs a single tick, run() calls this at the configured rate.
+   *
+   * @param nowNanos the time of the tick
+   */
+  public void tick(long nowNanos) {
+    ticks++;
+    boolean move = controller.update(mailbox != null && mailbox.poll(pose) ? pose : null, nowNanos);
+    if (move) {
+      int x = controller.getX();
+      int y = controller.getY();
+      if (x != lastX || y != lastY) {
+        systemCalls.setMousePosition(x, y);
+        cursorUpdates++;
+        lastX = x;
+        lastY = y;
+      }
+    }
+  }
+
+  public int getRateHz() {
+    return rateHz;
+  }
+
+  public long getTicks() {
+    return ticks;
+  }
+
+  /**
+   * @return ticks skipped because the thread was late by more than a period
+   */
+  public long getMissedTicks() {
+    return missedTicks;
+  }
+
+  /**
+   * @return the amount of times the cursor position was set
+   */
+  public long getCursorUpdates() {
+    return cursorUpdates;
+  }
+
+  /**
+   * @param fallback the rate to use if it can't be found out
+   * @return the refresh rate of the default screen in Hz, so that the cursor moves once per displayed frame
+   */
+  public static int getDisplayRefreshRate(int fallback) {
+    try {
+      DisplayMode mode = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode();
+      int refreshRate = mode.getRefreshRate();
+      return refreshRate == DisplayMode.REFRESH_RATE_UNKNOWN ? fallback : refreshRate;
+    } catch (HeadlessException e) {
+      return fallback;
+    }
+  }
+}
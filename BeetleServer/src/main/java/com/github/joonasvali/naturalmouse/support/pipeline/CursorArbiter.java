@@ -0,0 +1,498 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.support.pose.PointingMode;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lets several clients share one cursor. Every client has its own PoseClient state, on every tick the arbiter feeds
+ * the newest sample of each client to that client's PosePredictor, turns the position predicted for the tick into
+ * a movement against the previous prediction and lets the ArbitrationPolicy decide whose movements reach
+ * the PoseCursorMapper. Whether a client moves enough to claim the cursor is judged from its samples alone.
+ * With interpolation enabled the PoseInterpolator of the client takes the place of the predictor, trading latency
+ * for smoothness.
+ *
+ * A client in the ORIENTATION pointing mode owning the cursor aims it absolutely: the pointer span of angle covers
+ * the width of the screen, calibrated so the cursor stays where it was when the client took it over, or centered
+ * with recenterPointer(). Under SUM its aim only moves the cursor by the same amount of pixels.
+ *
+ * With a WorkspaceMapping set the arbiter is in the absolute mode: the samples of TRANSLATION clients are projected
+ * onto the workspace before prediction and the owner places the cursor where its position maps on the screen,
+ * so the phone and the cursor can't drift apart. Under SUM the clients move it by the change of their places.
+ * The workspace is calibrated by capturing the corners from the phone of the owner, or the only client. While
+ * calibrating and in the absolute mode the clients hand over their translation without the origin moves of
+ * the OutlierRejector, as a loss of tracking or a rejected jump would otherwise shift the mapping for good.
+ *
+ * A client which lost tracking is skipped altogether, so its part of the cursor stays frozen and no prediction
+ * runs on stale samples. Its baseline, predictor and interpolator are dropped on the loss, so once tracking resumes
+ * the motion starts over from wherever ARCore puts the phone, whatever stages the samples go through.
+ *
+ * connect() and disconnect() may be called from any thread, update() is called on the actuation thread.
+ */
+public class CursorArbiter implements CursorController {
+  private static final Logger log = LoggerFactory.getLogger(CursorArbiter.class);
+  /**
+   * A client needs to move at least this much between samples to claim the cursor, so a phone lying on a table
+   * and jittering doesn't take it over.
+   */
+  public static final double CLAIM_MOTION_METERS = 0.0005;
+  /**
+   * FIRST_OWNER_LOCK releases the cursor after the owner hasn't moved for this long.
+   */
+  public static final long OWNER_IDLE_TIMEOUT_NS = TimeUnit.SECONDS.toNanos(2);
+  /**
+   * LAST_WRITER_WINS hands the cursor to another client once the owner hasn't moved for this long.
+   */
+  public static final long LAST_WRITER_HOLD_NS = TimeUnit.MILLISECONDS.toNanos(250);
+  /**
+   * How far the phone turns in the ORIENTATION pointing mode to cross the screen.
+   */
+  public static final double DEFAULT_POINTER_SPAN_DEGREES = 40;
+
+  private final PoseCursorMapper mapper;
+  private final OneEuroSettings filterSettings = new OneEuroSettings();
+  private final OutlierSettings outlierSettings = new OutlierSettings();
+  private final PredictionSettings predictionSettings = new PredictionSettings();
+  private final PredictionMetrics predictionMetrics = new PredictionMetrics();
+  private final InterpolationSettings interpolationSettings = new InterpolationSettings();
+  private final PipelineMetrics pipelineMetrics = new PipelineMetrics();
+  private final LongAdder droppedByDisconnected = new LongAdder();
+  private final LongAdder rejectedByDisconnected = new LongAdder();
+  private volatile ArbitrationPolicy policy;
+  private volatile PipelineConfig pipelineConfig = new PipelineConfig();
+  private volatile PoseClient[] clients = new PoseClient[0];
+  private volatile PoseClient owner;
+  private volatile double pixelsPerRadian;
+  private volatile boolean recenterRequested;
+  private volatile WorkspaceMapping workspace;
+  private volatile WorkspaceCalibration calibration;
+  private volatile boolean cornerRequested;
+  private WorkspaceMapping activeWorkspace;
+  private boolean activeAbsolute;
+  private int nextId = 1;
+  private long lastUpdateNanos;
+
+  /**
+   * @param mapper moves the cursor by the movements of the clients
+   * @param policy decides whose movements are used
+   */
+  public CursorArbiter(PoseCursorMapper mapper, ArbitrationPolicy policy) {
+    this.mapper = mapper;
+    this.policy = policy;
+    setPointerSpanDegrees(DEFAULT_POINTER_SPAN_DEGREES);
+  }
+
+  /**
+   * @param remoteName a human readable description of the client
+   * @return the state of the new client, publish its samples there
+   */
+  public synchronized PoseClient connect(String remoteName) {
+    PipelineConfig config = pipelineConfig;
+    PoseClient client = new PoseClient(nextId++, remoteName,
+        config.createPipeline(PointingMode.TRANSLATION, filterSettings, outlierSettings, pipelineMetrics),
+        config.createPipeline(PointingMode.ORIENTATION, filterSettings, outlierSettings, pipelineMetrics),
+        new PosePredictor(predictionSettings, predictionMetrics), new PoseInterpolator(interpolationSettings));
+    client.setAbsolute(isAbsolute());
+    PoseClient[] updated = Arrays.copyOf(clients, clients.length + 1);
+    updated[clients.length] = client;
+    clients = updated;
+    return client;
+  }
+
+  /**
+   * @param client the client which went away, its samples are ignored from now on
+   */
+  public synchronized void disconnect(PoseClient client) {
+    client.disconnected();
+    PoseClient[] updated = new PoseClient[clients.length];
+    int count = 0;
+    for (PoseClient other : clients) {
+      if (other != client) {
+        updated[count++] = other;
+      }
+    }
+    clients = Arrays.copyOf(updated, count);
+    droppedByDisconnected.add(client.getDroppedSamples());
+    rejectedByDisconnected.add(client.getRejectedSamples());
+  }
+
+  @Override
+  public boolean update(PoseSample pose, long nowNanos) {
+    ArbitrationPolicy policy = this.policy;
+    PoseClient owner = this.owner;
+    if (owner != null && (!owner.isConnected() ||
+        policy == ArbitrationPolicy.FIRST_OWNER_LOCK && nowNanos - owner.lastMotionNanos > OWNER_IDLE_TIMEOUT_NS)) {
+      owner = null;
+    }
+
+    WorkspaceMapping workspace = this.workspace;
+    boolean absolute = isAbsolute();
+    if (workspace != activeWorkspace || absolute != activeAbsolute) {
+      // The positions of the clients change their meaning, so they start over.
+      activeWorkspace = workspace;
+      activeAbsolute = absolute;
+      for (PoseClient client : clients) {
+        client.setAbsolute(absolute);
+        client.hasBaseline = false;
+        client.pointerCalibrated = false;
+        client.predictor.reset();
+        client.interpolator.reset();
+      }
+    }
+
+    // Deltas are computed for every client, also the ignored ones, so a client taking over doesn't jump.
+    long targetNanos = nowNanos + (long) (predictionSettings.getLookaheadMs() * 1e6);
+    boolean interpolate = interpolationSettings.isEnabled();
+    double tickSeconds = lastUpdateNanos == 0 ? 0 : (nowNanos - lastUpdateNanos) / 1e9;
+    lastUpdateNanos = nowNanos;
+    boolean moved = false;
+    for (PoseClient client : clients) {
+      boolean fresh = client.poll();
+      int trackingLosses = client.getTrackingLosses();
+      if (trackingLosses != client.seenTrackingLosses) {
+        // Read after polling, so the sample taken may be from before the loss but never one after it is missed.
+        // It's not used, the next sample is the new baseline.
+        client.seenTrackingLosses = trackingLosses;
+        client.hasBaseline = false;
+        client.pointerCalibrated = false;
+        client.predictor.reset();
+        client.interpolator.reset();
+        fresh = false;
+      }
+      if (!client.isTracking()) {
+        continue;
+      }
+      boolean orientation = client.getPointingMode() == PointingMode.ORIENTATION;
+      if (fresh) {
+        PoseSample sample = client.sample;
+        client.worldX = sample.tx;
+        client.worldY = sample.ty;
+        client.worldZ = sample.tz;
+        if (workspace != null && !orientation) {
+          workspace.project(sample);
+        }
+        if (!client.hasBaseline) {
+          client.predictor.reset();
+          client.interpolator.reset();
+        } else if (Math.hypot(sample.tx - client.lastSampleTX, sample.ty - client.lastSampleTY) >= CLAIM_MOTION_METERS
+            && policy != ArbitrationPolicy.SUM) {
+          if (client != owner && mayTakeOver(policy, owner, nowNanos)) {
+            owner = client;
+          }
+          client.lastMotionNanos = nowNanos;
+        }
+        client.lastSampleTX = sample.tx;
+        client.lastSampleTY = sample.ty;
+        client.predictor.update(sample);
+        client.interpolator.setAnnouncedSampleRate(client.getAnnouncedSampleRateHz());
+        client.interpolator.update(sample);
+      }
+      double tx;
+      double ty;
+      if (interpolate) {
+        if (!client.interpolator.interpolate(nowNanos)) {
+          continue;
+        }
+        tx = client.interpolator.getX();
+        ty = client.interpolator.getY();
+      } else {
+        if (!client.predictor.predict(targetNanos)) {
+          continue;
+        }
+        tx = client.predictor.getPredictedX();
+        ty = client.predictor.getPredictedY();
+      }
+      if (!client.hasBaseline) {
+        client.hasBaseline = true;
+        client.previousTX = tx;
+        client.previousTY = ty;
+        continue;
+      }
+      double dx = tx - client.previousTX;
+      double dy = ty - client.previousTY;
+      client.previousTX = tx;
+      client.previousTY = ty;
+      if (client != owner || policy == ArbitrationPolicy.SUM) {
+        client.pointerCalibrated = false;
+      } else if (orientation) {
+        moved |= aim(client, tx, ty, dx, dy);
+        continue;
+      } else if (workspace != null) {
+        moved |= place(client, workspace, tx, ty, dx, dy);
+        continue;
+      }
+      if (dx == 0 && dy == 0) {
+        continue;
+      }
+      if (policy == ArbitrationPolicy.SUM || client == owner) {
+        if (orientation) {
+          mapper.movePixels(dx * pixelsPerRadian, dy * pixelsPerRadian);
+        } else if (workspace != null) {
+          mapper.movePixels(workspace.getScreenX(tx, ty) - workspace.getScreenX(tx - dx, ty - dy),
+              workspace.getScreenY(tx, ty) - workspace.getScreenY(tx - dx, ty - dy));
+        } else {
+          mapper.move(dx, dy, tickSeconds);
+        }
+        moved = true;
+      }
+    }
+
+    if (owner != this.owner) {
+      log.info("Cursor owner changed to {}", owner);
+      this.owner = owner;
+    }
+    if (cornerRequested) {
+      cornerRequested = false;
+      captureCorner(owner != null ? owner : clients.length == 1 ? clients[0] : null);
+    }
+    return moved;
+  }
+
+  private boolean place(PoseClient client, WorkspaceMapping workspace, double tx, double ty, double dx, double dy) {
+    if (client.pointerCalibrated && dx == 0 && dy == 0) {
+      return false;
+    }
+    client.pointerCalibrated = true;
+    mapper.moveTo(workspace.getScreenX(tx, ty), workspace.getScreenY(tx, ty));
+    return true;
+  }
+
+  private void captureCorner(PoseClient client) {
+    WorkspaceCalibration calibration = this.calibration;
+    if (calibration == null) {
+      return;
+    }
+    if (client == null || !client.hasBaseline || client.getPointingMode() != PointingMode.TRANSLATION) {
+      log.warn("No client to capture the {} corner of the workspace from", calibration.getNextCornerName());
+      return;
+    }
+    log.info("Captured the {} corner of the workspace from {}", calibration.getNextCornerName(), client);
+    calibration.addCorner(client.worldX, client.worldY, client.worldZ);
+    if (!calibration.isComplete()) {
+      return;
+    }
+    this.calibration = null;
+    try {
+      setWorkspace(calibration.build(mapper.getBounds()));
+      log.info("Mapping the workspace absolutely: {}", workspace);
+    } catch (IllegalArgumentException e) {
+      log.warn("Workspace calibration failed: {}", e.getMessage());
+    }
+  }
+
+  private boolean aim(PoseClient client, double tx, double ty, double dx, double dy) {
+    if (recenterRequested) {
+      recenterRequested = false;
+      Rectangle bounds = mapper.getBounds();
+      calibrate(client, bounds.getCenterX(), bounds.getCenterY(), tx, ty);
+    } else if (!client.pointerCalibrated) {
+      // Continues from the cursor, including the movement of this tick.
+      calibrate(client, mapper.getPreciseX(), mapper.getPreciseY(), tx - dx, ty - dy);
+    } else if (dx == 0 && dy == 0) {
+      return false;
+    }
+    double pixelsPerRadian = this.pixelsPerRadian;
+    mapper.moveTo(client.pointerX + (tx - client.pointerTX) * pixelsPerRadian,
+        client.pointerY + (ty - client.pointerTY) * pixelsPerRadian);
+    return true;
+  }
+
+  private static void calibrate(PoseClient client, double x, double y, double tx, double ty) {
+    client.pointerCalibrated = true;
+    client.pointerX = x;
+    client.pointerY = y;
+    client.pointerTX = tx;
+    client.pointerTY = ty;
+  }
+
+  private static boolean mayTakeOver(ArbitrationPolicy policy, PoseClient owner, long nowNanos) {
+    if (owner == null) {
+      return true;
+    }
+    // Without a short hold two moving clients would snatch the cursor from each other on every tick.
+    return policy == ArbitrationPolicy.LAST_WRITER_WINS && nowNanos - owner.lastMotionNanos > LAST_WRITER_HOLD_NS;
+  }
+
+  @Override
+  public int getX() {
+    return mapper.getX();
+  }
+
+  @Override
+  public int getY() {
+    return mapper.getY();
+  }
+
+  /**
+   * @return the smoothing parameters of all clients, changes apply right away
+   */
+  public OneEuroSettings getFilterSettings() {
+    return filterSettings;
+  }
+
+  /**
+   * @return the jump detection parameters of all clients, changes apply right away
+   */
+  public OutlierSettings getOutlierSettings() {
+    return outlierSettings;
+  }
+
+  /**
+   * Applies the parameters in the configuration right away, the stages to the clients connecting from now on.
+   *
+   * @param config the stages the samples of the clients go through
+   */
+  public void setPipelineConfig(PipelineConfig config) {
+    config.configure(filterSettings, outlierSettings);
+    pipelineConfig = config;
+  }
+
+  public PipelineConfig getPipelineConfig() {
+    return pipelineConfig;
+  }
+
+  /**
+   * @return the time the stages of all clients take
+   */
+  public PipelineMetrics getPipelineMetrics() {
+    return pipelineMetrics;
+  }
+
+  /**
+   * @return the prediction parameters of all clients, changes apply right away
+   */
+  public PredictionSettings getPredictionSettings() {
+    return predictionSettings;
+  }
+
+  /**
+   * @return the prediction errors and lookahead of all clients together
+   */
+  public PredictionMetrics getPredictionMetrics() {
+    return predictionMetrics;
+  }
+
+  /**
+   * @return the interpolation parameters of all clients, changes apply right away
+   */
+  public InterpolationSettings getInterpolationSettings() {
+    return interpolationSettings;
+  }
+
+  /**
+   * @param degrees how far a client in the ORIENTATION pointing mode turns to cross the width of the screen
+   */
+  public void setPointerSpanDegrees(double degrees) {
+    if (degrees <= 0) {
+      throw new IllegalArgumentException("Pointer span must be positive: " + degrees);
+    }
+    pixelsPerRadian = mapper.getBounds().width / Math.toRadians(degrees);
+  }
+
+  /**
+   * Calibrates the ORIENTATION pointing mode on the next tick, so the owner's current aim is the center of
+   * the screen.
+   */
+  public void recenterPointer() {
+    recenterRequested = true;
+  }
+
+  /**
+   * Starts collecting the corners of a new workspace, the current one stays in use until all are captured.
+   */
+  public void startWorkspaceCalibration() {
+    calibration = new WorkspaceCalibration();
+    applyAbsolute();
+  }
+
+  /**
+   * Captures the position of the owner's phone as the next corner of the workspace on the next tick.
+   */
+  public void captureWorkspaceCorner() {
+    cornerRequested = true;
+  }
+
+  /**
+   * @return the calibration in progress, null if there is none
+   */
+  public WorkspaceCalibration getWorkspaceCalibration() {
+    return calibration;
+  }
+
+  /**
+   * @param workspace the mapping of the absolute mode, null for the relative mode
+   */
+  public void setWorkspace(WorkspaceMapping workspace) {
+    this.workspace = workspace;
+    applyAbsolute();
+  }
+
+  private boolean isAbsolute() {
+    return workspace != null || calibration != null;
+  }
+
+  // Right away rather than on the next tick, so the samples published until then are already without the origin.
+  private void applyAbsolute() {
+    boolean absolute = isAbsolute();
+    for (PoseClient client : clients) {
+      client.setAbsolute(absolute);
+    }
+  }
+
+  /**
+   * @return the mapping of the absolute mode, null in the relative mode
+   */
+  public WorkspaceMapping getWorkspace() {
+    return workspace;
+  }
+
+  public ArbitrationPolicy getPolicy() {
+    return policy;
+  }
+
+  public void setPolicy(ArbitrationPolicy policy) {
+    this.policy = policy;
+  }
+
+  /**
+   * @return the client owning the cursor, null if nobody does or the policy is SUM
+   */
+  public PoseClient getOwner() {
+    return policy == ArbitrationPolicy.SUM ? null : owner;
+  }
+
+  /**
+   * @return the amount of clients connected
+   */
+  public int getClientCount() {
+    return clients.length;
+  }
+
+  /**
+   * @return the samples of all clients, also disconnected ones, replaced by a newer one before they were used
+   */
+  public long getDroppedSamples() {
+    long dropped = droppedByDisconnected.sum();
+    for (PoseClient client : clients) {
+      dropped += client.getDroppedSamples();
+    }
+    return dropped;
+  }
+
+  /**
+   * @return the samples of all clients, also disconnected ones, which jumped and moved the origin of their client
+   */
+  public long getRejectedSamples() {
+    long rejected = rejectedByDisconnected.sum();
+    for (PoseClient client : clients) {
+      rejected += client.getRejectedSamples();
+    }
+    return rejected;
+  }
+}
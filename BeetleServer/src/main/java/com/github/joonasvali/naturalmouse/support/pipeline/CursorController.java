@@ -0,0 +1,25 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+
+/**
+ * Decides where the cursor should be on every tick of the CursorActuator. Called only from the actuation thread.
+ */
+public interface CursorController {
+  /**
+   * @param pose the newest pose if one arrived since the previous tick, otherwise null
+   * @param nowNanos the time of the tick, System.nanoTime()
+   * @return true if the cursor should be at getX(), getY()
+   */
+  boolean update(PoseSample pose, long nowNanos);
+
+  /**
+   * @return the x-coordinate of the target pixel
+   */
+  int getX();
+
+  /**
+   * @return the y-coordinate of the target pixel
+   */
+  int getY();
+}
@@ -0,0 +1,210 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The monitors the cursor can be on, so it is kept on an actual monitor instead of the gaps of their bounding box,
+ * and moved by the same physical distance on each of them. Querying the monitors is slow, a topology is created
+ * once and replaced when the monitors change, looking up the monitor at a position only walks a short array.
+ *
+ * The gain factor of a monitor is its pixel density relative to the primary monitor, for when monitors of different
+ * densities are side by side. Java only tells the density of the primary monitor, the others are taken to be the same
+ * unless given.
+ *
+ * Instances are immutable and may be shared between threads.
+ */
+public class DisplayTopology {
+  private final Display[] displays;
+  private final Rectangle bounds;
+
+  /**
+   * @param displays the monitors, the first one is the primary
+   * @throws IllegalArgumentException if there are none
+   */
+  public DisplayTopology(List<Display> displays) {
+    if (displays.isEmpty()) {
+      throw new IllegalArgumentException("No displays");
+    }
+    this.displays = displays.toArray(new Display[0]);
+    Rectangle union = new Rectangle(this.displays[0].bounds);
+    for (Display display : this.displays) {
+      union = union.union(display.bounds);
+    }
+    this.bounds = union;
+  }
+
+  /**
+   * @return the monitors of the local graphics environment, the default one first
+   */
+  public static DisplayTopology query() {
+    return query(Collections.emptyMap());
+  }
+
+  /**
+   * @param dpiByIndex the pixel densities of the monitors Java doesn't know, by their index in the result
+   * @return the monitors of the local graphics environment, the default one first
+   * @throws HeadlessException if there are no monitors
+   */
+  public static DisplayTopology query(Map<Integer, Double> dpiByIndex) {
+    GraphicsEnvironment environment = GraphicsEnvironment.getLocalGraphicsEnvironment();
+    GraphicsDevice primary = environment.getDefaultScreenDevice();
+    List<GraphicsDevice> devices = new ArrayList<>();
+    devices.add(primary);
+    for (GraphicsDevice device : environment.getScreenDevices()) {
+      if (device != primary) {
+        devices.add(device);
+      }
+    }
+    double defaultDpi = Toolkit.getDefaultToolkit().getScreenResolution();
+    List<Display> displays = new ArrayList<>();
+    for (int i = 0; i < devices.size(); i++) {
+      GraphicsDevice device = devices.get(i);
+      displays.add(new Display(device.getIDstring(), device.getDefaultConfiguration().getBounds(),
+          dpiByIndex.getOrDefault(i, defaultDpi)));
+    }
+    return new DisplayTopology(displays);
+  }
+
+  /**
+   * @param area an area of the desktop
+   * @return the parts of the monitors within the area, in coordinates relative to the area
+   * @throws IllegalArgumentException if no monitor overlaps the area
+   */
+  public DisplayTopology within(Rectangle area) {
+    List<Display> result = new ArrayList<>();
+    for (Display display : displays) {
+      Rectangle part = display.bounds.intersection(area);
+      if (!part.isEmpty()) {
+        part.translate(-area.x, -area.y);
+        result.add(new Display(display.id, part, display.dpi));
+      }
+    }
+    if (result.isEmpty()) {
+      throw new IllegalArgumentException("No display within " + area);
+    }
+    return new DisplayTopology(result);
+  }
+
+  /**
+   * @param x the x-coordinate
+   * @param y the y-coordinate
+   * @return the monitor at the position, or the closest one if the position is off all of them
+   */
+  public Display getDisplayAt(double x, double y) {
+    Display closest = displays[0];
+    double closestDistance = Double.MAX_VALUE;
+    for (Display display : displays) {
+      Rectangle r = display.bounds;
+      double dx = Math.max(Math.max(r.x - x, x - (r.x + r.width - 1)), 0);
+      double dy = Math.max(Math.max(r.y - y, y - (r.y + r.height - 1)), 0);
+      double distance = dx * dx + dy * dy;
+      if (distance == 0) {
+        return display;
+      }
+      if (distance < closestDistance) {
+        closest = display;
+        closestDistance = distance;
+      }
+    }
+    return closest;
+  }
+
+  /**
+   * @param x the x-coordinate
+   * @param y the y-coordinate
+   * @return the pixel density of the monitor at the position relative to the primary one
+   */
+  public double getGainFactor(double x, double y) {
+    return getDisplayAt(x, y).dpi / displays[0].dpi;
+  }
+
+  /**
+   * @return the bounding box of all monitors
+   */
+  public Rectangle getBounds() {
+    return new Rectangle(bounds);
+  }
+
+  /**
+   * @return the monitors, the primary one first
+   */
+  public List<Display> getDisplays() {
+    return Collections.unmodifiableList(Arrays.asList(displays));
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof DisplayTopology && Arrays.equals(displays, ((DisplayTopology) o).displays);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(displays);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(displays);
+  }
+
+  public static class Display {
+    private final String id;
+    private final Rectangle bounds;
+    private final double dpi;
+
+    /**
+     * @param id identifies the monitor, for logging
+     * @param bounds the area of the desktop the monitor shows
+     * @param dpi the pixel density of the monitor
+     */
+    public Display(String id, Rectangle bounds, double dpi) {
+      this.id = id;
+      this.bounds = new Rectangle(bounds);
+      this.dpi = dpi;
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public Rectangle getBounds() {
+      return new Rectangle(bounds);
+    }
+
+    public double getDpi() {
+      return dpi;
+    }
+
+    double clampX(double x) {
+      return Math.max(bounds.x, Math.min(bounds.x + bounds.width - 1, x));
+    }
+
+    double clampY(double y) {
+      return Math.max(bounds.y, Math.min(bounds.y + bounds.height - 1, y));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Display)) {
+        return false;
+      }
+      Display other = (Display) o;
+      return id.equals(other.id) && bounds.equals(other.bounds) && dpi == other.dpi;
+    }
+
+    @Override
+    public int hashCode() {
+      return id.hashCode() * 31 + bounds.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s %dx%d at %d,%d, %.0f dpi", id, bounds.width, bounds.height, bounds.x, bounds.y, dpi);
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+/**
+ * Pointer acceleration, how much the gain of the PoseCursorMapper is multiplied by at a given speed of the phone.
+ * Slow motion is usually scaled down for precision on small targets and fast motion scaled up, so the whole
+ * screen can be crossed with a flick of the wrist.
+ *
+ * Curves may be slow to evaluate, the mapper samples them into a GainTable once and uses that on every tick.
+ */
+public interface GainCurve {
+  /**
+   * A curve which always returns 1, every speed moves the cursor by the base gain.
+   */
+  GainCurve LINEAR = new GainCurve() {
+    @Override
+    public double getFactor(double speedMetersPerSecond) {
+      return 1;
+    }
+
+    @Override
+    public String toString() {
+      return "linear";
+    }
+  };
+
+  /**
+   * @param speedMetersPerSecond the speed of the phone, not negative
+   * @return the multiplier of the gain at this speed
+   */
+  double getFactor(double speedMetersPerSecond);
+
+  /**
+   * @param definition "linear", "sigmoid" for the default SigmoidGainCurve or the points of a PiecewiseGainCurve
+   * @return the curve
+   */
+  static GainCurve fromDefinition(String definition) {
+    switch (definition.trim().toLowerCase()) {
+      case "linear":
+        return LINEAR;
+      case "sigmoid":
+        return new SigmoidGainCurve();
+      default:
+        return PiecewiseGainCurve.parse(definition);
+    }
+  }
+}
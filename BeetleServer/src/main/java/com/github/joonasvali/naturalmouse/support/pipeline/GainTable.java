@@ -0,0 +1,64 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+/**
+ * A GainCurve sampled at evenly spaced speeds, looked up with linear interpolation on the actuation thread without
+ * evaluating the curve itself. Speeds above the range get the factor of the highest speed.
+ *
+ * Immutable, so a table can be replaced by another while it is being used.
+ */
+public class GainTable {
+  /**
+   * Faster than a hand moves a phone.
+   */
+  public static final double DEFAULT_MAX_SPEED = 4;
+  public static final int DEFAULT_SIZE = 1024;
+
+  private final GainCurve curve;
+  private final double[] factors;
+  private final double indexPerSpeed;
+
+  public GainTable(GainCurve curve) {
+    this(curve, DEFAULT_MAX_SPEED, DEFAULT_SIZE);
+  }
+
+  /**
+   * @param curve the curve
+   * @param maxSpeed the highest speed sampled, in meters per second
+   * @param size the amount of samples, at least 2
+   */
+  public GainTable(GainCurve curve, double maxSpeed, int size) {
+    if (size < 2 || maxSpeed <= 0) {
+      throw new IllegalArgumentException("Invalid table of " + size + " samples up to " + maxSpeed + " m/s");
+    }
+    this.curve = curve;
+    this.factors = new double[size];
+    this.indexPerSpeed = (size - 1) / maxSpeed;
+    for (int i = 0; i < size; i++) {
+      factors[i] = curve.getFactor(i / indexPerSpeed);
+    }
+  }
+
+  /**
+   * @param speedMetersPerSecond the speed
+   * @return the factor of the curve at the speed
+   */
+  public double getFactor(double speedMetersPerSecond) {
+    double position = speedMetersPerSecond * indexPerSpeed;
+    if (!(position > 0)) {
+      return factors[0];
+    }
+    int index = (int) position;
+    if (index >= factors.length - 1) {
+      return factors[factors.length - 1];
+    }
+    double fraction = position - index;
+    return factors[index] + (factors[index + 1] - factors[index]) * fraction;
+  }
+
+  /**
+   * @return the curve this table samples
+   */
+  public GainCurve getCurve() {
+    return curve;
+  }
+}
@@ -0,0 +1,35 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+/**
+ * How the PoseInterpolator fills the time between two samples.
+ */
+public enum InterpolationMode {
+  /**
+   * Straight lines between the samples, the velocity changes abruptly at every sample.
+   */
+  LINEAR,
+  /**
+   * Cubic curves with the velocity at each sample estimated from its neighbours and their capture times, so uneven
+   * sample intervals don't bend the curve.
+   */
+  HERMITE,
+  /**
+   * The classic uniform Catmull-Rom spline, which treats the samples as evenly spaced. Slightly rounder than
+   * HERMITE when the intervals are regular.
+   */
+  CATMULL_ROM;
+
+  /**
+   * @param name the case insensitive name, dashes allowed in place of underscores, e.g "catmull-rom"
+   * @return the mode
+   * @throws IllegalArgumentException if no mode with this name exists
+   */
+  public static InterpolationMode fromName(String name) {
+    for (InterpolationMode mode : values()) {
+      if (mode.name().equalsIgnoreCase(name.trim().replace('-', '_'))) {
+        return mode;
+      }
+    }
+    throw new IllegalArgumentException("Unknown interpolation mode: " + name);
+  }
+}
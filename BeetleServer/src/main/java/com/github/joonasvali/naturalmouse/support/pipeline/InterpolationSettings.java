@@ -0,0 +1,61 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+/**
+ * Parameters of the PoseInterpolator, shared by all clients. Can be changed from any thread at any time.
+ */
+public class InterpolationSettings {
+  /**
+   * The jitter buffer never holds the samples back longer than this, the latency would be felt.
+   */
+  public static final double DEFAULT_MAX_PLAYOUT_DELAY_MS = 100;
+  /**
+   * How many mean deviations of the arrival delay the playout delay covers, more means fewer late samples.
+   */
+  public static final double DEFAULT_JITTER_MARGIN = 2;
+
+  private volatile boolean enabled;
+  private volatile InterpolationMode mode = InterpolationMode.HERMITE;
+  private volatile double maxPlayoutDelayMs = DEFAULT_MAX_PLAYOUT_DELAY_MS;
+  private volatile double jitterMargin = DEFAULT_JITTER_MARGIN;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * @param enabled true to play the samples out with a delay and interpolate between them, instead of predicting
+   */
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public InterpolationMode getMode() {
+    return mode;
+  }
+
+  public void setMode(InterpolationMode mode) {
+    this.mode = mode;
+  }
+
+  public double getMaxPlayoutDelayMs() {
+    return maxPlayoutDelayMs;
+  }
+
+  public void setMaxPlayoutDelayMs(double maxPlayoutDelayMs) {
+    if (maxPlayoutDelayMs < 0) {
+      throw new IllegalArgumentException("Max playout delay can't be negative: " + maxPlayoutDelayMs);
+    }
+    this.maxPlayoutDelayMs = maxPlayoutDelayMs;
+  }
+
+  public double getJitterMargin() {
+    return jitterMargin;
+  }
+
+  public void setJitterMargin(double jitterMargin) {
+    if (jitterMargin < 0) {
+      throw new IllegalArgumentException("Jitter margin can't be negative: " + jitterMargin);
+    }
+    this.jitterMargin = jitterMargin;
+  }
+}
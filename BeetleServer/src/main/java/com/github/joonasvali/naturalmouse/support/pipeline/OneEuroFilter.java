@@ -0,0 +1,57 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+/**
+ * Speed-adaptive low-pass filter for a single value, the 1€ filter by Casiez, Roussel and Vogel.
+ * At low speed the cutoff frequency is low, which removes jitter, and it rises with the speed so fast motion
+ * isn't lagging behind. Keeps only primitive state and creates no garbage.
+ *
+ * The parameters are passed on every call, so they can be shared and changed at runtime, see OneEuroSettings.
+ */
+public class OneEuroFilter {
+  private double value;
+  private double derivative;
+  private long lastTimestampNanos;
+  private boolean initialized;
+
+  /**
+   * @param raw the new raw value
+   * @param timestampNanos the time of the value, only differences between the timestamps matter
+   * @param minCutoffHz the cutoff frequency at rest, lower removes more jitter
+   * @param beta how much the cutoff frequency rises with speed, higher lags less
+   * @param derivativeCutoffHz the cutoff frequency for the speed estimate
+   * @return the filtered value
+   */
+  public double filter(double raw, long timestampNanos, double minCutoffHz, double beta, double derivativeCutoffHz) {
+    if (!initialized) {
+      initialized = true;
+      value = raw;
+      derivative = 0;
+      lastTimestampNanos = timestampNanos;
+      return value;
+    }
+    double dt = (timestampNanos - lastTimestampNanos) / 1e9;
+    if (dt <= 0) {
+      // Same or older sample, nothing to learn from the time difference.
+      return value;
+    }
+    lastTimestampNanos = timestampNanos;
+
+    double rawDerivative = (raw - value) / dt;
+    derivative += alpha(derivativeCutoffHz, dt) * (rawDerivative - derivative);
+    double cutoff = minCutoffHz + beta * Math.abs(derivative);
+    value += alpha(cutoff, dt) * (raw - value);
+    return value;
+  }
+
+  /**
+   * Forgets the history, the next value passes through as is.
+   */
+  public void reset() {
+    initialized = false;
+  }
+
+  private static double alpha(double cutoffHz, double dt) {
+    double tau = 1 / (2 * Math.PI * cutoffHz);
+    return 1 / (1 + tau / dt);
+  }
+}
@@ -0,0 +1,50 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.api.PoseStage;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+
+/**
+ * Smooths the translation of the poses of one client with a OneEuroFilter per axis.
+ */
+public class OneEuroPoseFilter implements PoseStage {
+  private final OneEuroSettings settings;
+  private final OneEuroFilter x = new OneEuroFilter();
+  private final OneEuroFilter y = new OneEuroFilter();
+  private final OneEuroFilter z = new OneEuroFilter();
+
+  public OneEuroPoseFilter(OneEuroSettings settings) {
+    this.settings = settings;
+  }
+
+  /**
+   * Filters the translation of the sample in place.
+   *
+   * @param sample the sample
+   * @param receivedNanos the time the sample was received, used if the sample has no timestamp of its own
+   */
+  public void apply(PoseSample sample, long receivedNanos) {
+    if (!settings.isEnabled()) {
+      return;
+    }
+    long timestamp = sample.timestampNanos != 0 ? sample.timestampNanos : receivedNanos;
+    double minCutoff = settings.getMinCutoffHz();
+    double beta = settings.getBeta();
+    double derivativeCutoff = settings.getDerivativeCutoffHz();
+    sample.tx = x.filter(sample.tx, timestamp, minCutoff, beta, derivativeCutoff);
+    sample.ty = y.filter(sample.ty, timestamp, minCutoff, beta, derivativeCutoff);
+    sample.tz = z.filter(sample.tz, timestamp, minCutoff, beta, derivativeCutoff);
+  }
+
+  @Override
+  public boolean process(PoseSample sample, long receivedNanos) {
+    apply(sample, receivedNanos);
+    return true;
+  }
+
+  @Override
+  public void reset() {
+    x.reset();
+    y.reset();
+    z.reset();
+  }
+}
@@ -0,0 +1,66 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+/**
+ * Parameters of the OneEuroFilter, shared by all filters using them. Can be changed from any thread at any time,
+ * the filters pick the new values up on their next sample.
+ */
+public class OneEuroSettings {
+  public static final double DEFAULT_MIN_CUTOFF_HZ = 1.0;
+  /**
+   * Per meter per second of phone speed, a hand sweeping at half a meter per second gets a cutoff of about 10 Hz.
+   */
+  public static final double DEFAULT_BETA = 20;
+  public static final double DEFAULT_DERIVATIVE_CUTOFF_HZ = 1.0;
+
+  private volatile boolean enabled = true;
+  private volatile double minCutoffHz = DEFAULT_MIN_CUTOFF_HZ;
+  private volatile double beta = DEFAULT_BETA;
+  private volatile double derivativeCutoffHz = DEFAULT_DERIVATIVE_CUTOFF_HZ;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public double getMinCutoffHz() {
+    return minCutoffHz;
+  }
+
+  /**
+   * @param minCutoffHz the cutoff frequency at rest, lower removes more jitter but lags more
+   */
+  public void setMinCutoffHz(double minCutoffHz) {
+    if (minCutoffHz <= 0) {
+      throw new IllegalArgumentException("Cutoff must be positive: " + minCutoffHz);
+    }
+    this.minCutoffHz = minCutoffHz;
+  }
+
+  public double getBeta() {
+    return beta;
+  }
+
+  /**
+   * @param beta how much the cutoff frequency rises with speed, higher lags less during fast movement
+   */
+  public void setBeta(double beta) {
+    if (beta < 0) {
+      throw new IllegalArgumentException("Beta can't be negative: " + beta);
+    }
+    this.beta = beta;
+  }
+
+  public double getDerivativeCutoffHz() {
+    return derivativeCutoffHz;
+  }
+
+  public void setDerivativeCutoffHz(double derivativeCutoffHz) {
+    if (derivativeCutoffHz <= 0) {
+      throw new IllegalArgumentException("Cutoff must be positive: " + derivativeCutoffHz);
+    }
+    this.derivativeCutoffHz = derivativeCutoffHz;
+  }
+}
@@ -0,0 +1,153 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.api.PoseStage;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the cursor in place when ARCore relocalizes and the translation of one client jumps by tens of centimeters
+ * from one frame to the next. A step is taken for a jump if it is faster than the max speed, or much faster than
+ * the median of the last few steps while also long. A jump is not motion but a new origin: the step is subtracted
+ * from this and every later sample, so what follows the jump continues from where the phone was before it.
+ * A single bad sample turns into two jumps cancelling each other. The rejection can be disabled, re-anchoring
+ * after a loss of tracking still happens then.
+ *
+ * The state is a handful of primitives and a fixed window of speeds, so each sample costs the same.
+ * Used on the receiving thread of the client, the counter may be read from any thread.
+ */
+public class OutlierRejector implements PoseStage {
+  private static final int WINDOW = 5;
+  // Samples arriving in a burst without a capture time of their own would otherwise look infinitely fast.
+  private static final double MIN_INTERVAL_SECONDS = 0.01;
+
+  private final OutlierSettings settings;
+  private final LongAdder rejected = new LongAdder();
+  private final double[] speeds = new double[WINDOW];
+  private final double[] sorted = new double[WINDOW];
+  private int speedCount;
+  private int nextSpeed;
+  private boolean hasPrevious;
+  private boolean reanchorNext;
+  private long previousNanos;
+  private double previousX;
+  private double previousY;
+  private double previousZ;
+  private double offsetX;
+  private double offsetY;
+  private double offsetZ;
+
+  public OutlierRejector(OutlierSettings settings) {
+    this.settings = settings;
+  }
+
+  /**
+   * Moves the translation of the sample in place to the current origin.
+   *
+   * @param sample the sample
+   * @param receivedNanos the time the sample was received, used if the sample has no timestamp of its own
+   * @return true if the origin was moved
+   */
+  public boolean apply(PoseSample sample, long receivedNanos) {
+    long nanos = sample.timestampNanos != 0 ? sample.timestampNanos : receivedNanos;
+    double x = sample.tx;
+    double y = sample.ty;
+    double z = sample.tz;
+    boolean jump = false;
+    if (hasPrevious) {
+      double dx = x - previousX;
+      double dy = y - previousY;
+      double dz = z - previousZ;
+      if (reanchorNext) {
+        jump = true;
+        speedCount = 0;
+      } else if (settings.isEnabled()) {
+        double step = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        double speed = step / Math.max(MIN_INTERVAL_SECONDS, (nanos - previousNanos) / 1e9);
+        jump = speed > settings.getMaxSpeed() || step >= settings.getMinJumpMeters() && speedCount == WINDOW
+            && speed > medianSpeed() * settings.getMedianRatio();
+        if (jump) {
+          rejected.increment();
+        } else {
+          speeds[nextSpeed] = speed;
+          nextSpeed = (nextSpeed + 1) % WINDOW;
+          speedCount = Math.min(speedCount + 1, WINDOW);
+        }
+      }
+      if (jump) {
+        offsetX -= dx;
+        offsetY -= dy;
+        offsetZ -= dz;
+      }
+    }
+    reanchorNext = false;
+    hasPrevious = true;
+    previousNanos = nanos;
+    previousX = x;
+    previousY = y;
+    previousZ = z;
+
+    sample.tx = x + offsetX;
+    sample.ty = y + offsetY;
+    sample.tz = z + offsetZ;
+    return jump;
+  }
+
+  /**
+   * Takes the next sample for a jump whatever its speed, without counting it. For when ARCore lost tracking and
+   * the next sample may be anywhere: the motion continues from the last sample before the loss.
+   */
+  public void reanchor() {
+    reanchorNext = true;
+  }
+
+  @Override
+  public boolean process(PoseSample sample, long receivedNanos) {
+    apply(sample, receivedNanos);
+    return true;
+  }
+
+  /**
+   * Re-anchors, see reanchor().
+   */
+  @Override
+  public void reset() {
+    reanchor();
+  }
+
+  private double medianSpeed() {
+    System.arraycopy(speeds, 0, sorted, 0, WINDOW);
+    for (int i = 1; i < WINDOW; i++) {
+      double value = sorted[i];
+      int j = i - 1;
+      while (j >= 0 && sorted[j] > value) {
+        sorted[j + 1] = sorted[j];
+        j--;
+      }
+      sorted[j + 1] = value;
+    }
+    return sorted[WINDOW / 2];
+  }
+
+  /**
+   * @return how far the origin has been moved along x, added to the translation of the samples
+   */
+  public double getOffsetX() {
+    return offsetX;
+  }
+
+  public double getOffsetY() {
+    return offsetY;
+  }
+
+  public double getOffsetZ() {
+    return offsetZ;
+  }
+
+  /**
+   * @return the amount of samples which jumped
+   */
+  public long getRejectedSamples() {
+    return rejected.sum();
+  }
+}
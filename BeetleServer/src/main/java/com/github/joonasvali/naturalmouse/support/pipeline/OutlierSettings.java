@@ -0,0 +1,66 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+/**
+ * Parameters of the OutlierRejector, shared by all clients. Can be changed from any thread at any time.
+ */
+public class OutlierSettings {
+  /**
+   * Faster than a hand moves a phone, in meters per second.
+   */
+  public static final double DEFAULT_MAX_SPEED = 3;
+  /**
+   * A step this many times faster than the median of the recent ones is suspicious.
+   */
+  public static final double DEFAULT_MEDIAN_RATIO = 8;
+  /**
+   * Steps shorter than this are never taken for a jump by the median check, in meters. Keeps motion starting from
+   * rest, where the median is next to nothing, from being rejected.
+   */
+  public static final double DEFAULT_MIN_JUMP_METERS = 0.05;
+
+  private volatile boolean enabled = true;
+  private volatile double maxSpeed = DEFAULT_MAX_SPEED;
+  private volatile double medianRatio = DEFAULT_MEDIAN_RATIO;
+  private volatile double minJumpMeters = DEFAULT_MIN_JUMP_METERS;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public double getMaxSpeed() {
+    return maxSpeed;
+  }
+
+  public void setMaxSpeed(double maxSpeed) {
+    if (maxSpeed <= 0) {
+      throw new IllegalArgumentException("Max speed must be positive: " + maxSpeed);
+    }
+    this.maxSpeed = maxSpeed;
+  }
+
+  public double getMedianRatio() {
+    return medianRatio;
+  }
+
+  public void setMedianRatio(double medianRatio) {
+    if (medianRatio <= 1) {
+      throw new IllegalArgumentException("Median ratio must be above 1: " + medianRatio);
+    }
+    this.medianRatio = medianRatio;
+  }
+
+  public double getMinJumpMeters() {
+    return minJumpMeters;
+  }
+
+  public void setMinJumpMeters(double minJumpMeters) {
+    if (minJumpMeters < 0) {
+      throw new IllegalArgumentException("Min jump can't be negative: " + minJumpMeters);
+    }
+    this.minJumpMeters = minJumpMeters;
+  }
+}
@@ -0,0 +1,71 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import java.util.Arrays;
+
+/**
+ * A curve through the given points, linear between them and flat before the first and after the last one.
+ */
+public class PiecewiseGainCurve implements GainCurve {
+  private final double[] speeds;
+  private final double[] factors;
+
+  /**
+   * @param speeds the speeds of the points in meters per second, increasing
+   * @param factors the factors at the points
+   */
+  public PiecewiseGainCurve(double[] speeds, double[] factors) {
+    if (speeds.length == 0 || speeds.length != factors.length) {
+      throw new IllegalArgumentException("Expected the same positive amount of speeds and factors, got "
+          + speeds.length + " and " + factors.length);
+    }
+    for (int i = 1; i < speeds.length; i++) {
+      if (speeds[i] <= speeds[i - 1]) {
+        throw new IllegalArgumentException("Speeds must be increasing: " + Arrays.toString(speeds));
+      }
+    }
+    this.speeds = speeds.clone();
+    this.factors = factors.clone();
+  }
+
+  /**
+   * @param definition the points as speed:factor pairs separated by commas, e.g "0:0.5,0.1:1,0.6:3"
+   * @return the curve
+   */
+  public static PiecewiseGainCurve parse(String definition) {
+    String[] points = definition.split(",");
+    double[] speeds = new double[points.length];
+    double[] factors = new double[points.length];
+    for (int i = 0; i < points.length; i++) {
+      String[] pair = points[i].split(":");
+      if (pair.length != 2) {
+        throw new IllegalArgumentException("Expected speed:factor, got '" + points[i] + "'");
+      }
+      speeds[i] = Double.parseDouble(pair[0].trim());
+      factors[i] = Double.parseDouble(pair[1].trim());
+    }
+    return new PiecewiseGainCurve(speeds, factors);
+  }
+
+  @Override
+  public double getFactor(double speedMetersPerSecond) {
+    if (speedMetersPerSecond <= speeds[0]) {
+      return factors[0];
+    }
+    for (int i = 1; i < speeds.length; i++) {
+      if (speedMetersPerSecond < speeds[i]) {
+        double t = (speedMetersPerSecond - speeds[i - 1]) / (speeds[i] - speeds[i - 1]);
+        return factors[i - 1] + (factors[i] - factors[i - 1]) * t;
+      }
+    }
+    return factors[factors.length - 1];
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("piecewise ");
+    for (int i = 0; i < speeds.length; i++) {
+      builder.append(i == 0 ? "" : ",").append(speeds[i]).append(':').append(factors[i]);
+    }
+    return builder.toString();
+  }
+}
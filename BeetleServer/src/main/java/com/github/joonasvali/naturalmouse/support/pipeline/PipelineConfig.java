@@ -0,0 +1,174 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.api.PoseStage;
+import com.github.joonasvali.naturalmouse.support.pose.PointingMode;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Which PoseStages the samples of a client go through, read from a properties file so stage chains can be
+ * compared without rebuilding:
+ *
+ * <pre>
+ * # The stages of the TRANSLATION pointing mode, in order
+ * stages = reject, filter
+ * # The stages of the ORIENTATION pointing mode
+ * orientation.stages = angles, filter
+ * # Parameters of the built-in stages
+ * filter.minCutoff = 1.0
+ * filter.beta = 20
+ * reject.maxSpeed = 3
+ * </pre>
+ *
+ * The built-in stages are reject (OutlierRejector), angles (PointingAngles, which the ORIENTATION mode needs) and
+ * filter (OneEuroPoseFilter), anything else is taken for the class name of a custom stage. Leaving out a stage
+ * disables it. The parameters go into the settings shared by all clients.
+ */
+public class PipelineConfig {
+  public static final String DEFAULT_STAGES = "reject, filter";
+  public static final String DEFAULT_ORIENTATION_STAGES = "angles, filter";
+  public static final String REJECT = "reject";
+  public static final String ANGLES = "angles";
+  public static final String FILTER = "filter";
+
+  private final Properties properties;
+  private final List<String> stages;
+  private final List<String> orientationStages;
+
+  /**
+   * The default stages.
+   */
+  public PipelineConfig() {
+    this(new Properties());
+  }
+
+  /**
+   * @param properties the configuration, missing keys keep their defaults
+   * @throws IllegalArgumentException if a stage is unknown
+   */
+  public PipelineConfig(Properties properties) {
+    this.properties = new Properties();
+    this.properties.putAll(properties);
+    stages = parseStages(properties.getProperty("stages", DEFAULT_STAGES));
+    orientationStages = parseStages(properties.getProperty("orientation.stages", DEFAULT_ORIENTATION_STAGES));
+  }
+
+  /**
+   * @param file a properties file
+   * @return the configuration in the file
+   * @throws IOException if the file can't be read
+   */
+  public static PipelineConfig load(Path file) throws IOException {
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      properties.load(reader);
+    }
+    return new PipelineConfig(properties);
+  }
+
+  /**
+   * Applies the parameters of the built-in stages found in the configuration.
+   *
+   * @param filterSettings the settings of the filter stage
+   * @param outlierSettings the settings of the reject stage
+   */
+  public void configure(OneEuroSettings filterSettings, OutlierSettings outlierSettings) {
+    String value;
+    if ((value = properties.getProperty("filter.minCutoff")) != null) {
+      filterSettings.setMinCutoffHz(Double.parseDouble(value));
+    }
+    if ((value = properties.getProperty("filter.beta")) != null) {
+      filterSettings.setBeta(Double.parseDouble(value));
+    }
+    if ((value = properties.getProperty("filter.derivativeCutoff")) != null) {
+      filterSettings.setDerivativeCutoffHz(Double.parseDouble(value));
+    }
+    if ((value = properties.getProperty("reject.maxSpeed")) != null) {
+      outlierSettings.setMaxSpeed(Double.parseDouble(value));
+    }
+    if ((value = properties.getProperty("reject.medianRatio")) != null) {
+      outlierSettings.setMedianRatio(Double.parseDouble(value));
+    }
+    if ((value = properties.getProperty("reject.minJump")) != null) {
+      outlierSettings.setMinJumpMeters(Double.parseDouble(value));
+    }
+  }
+
+  /**
+   * @param mode the pointing mode of the client
+   * @param filterSettings the settings of the filter stage
+   * @param outlierSettings the settings of the reject stage
+   * @param metrics where the stages are timed
+   * @return new stages for one client
+   */
+  public PosePipeline createPipeline(PointingMode mode, OneEuroSettings filterSettings,
+      OutlierSettings outlierSettings, PipelineMetrics metrics) {
+    List<String> names = getStages(mode);
+    List<PoseStage> created = new ArrayList<>(names.size());
+    for (String name : names) {
+      created.add(createStage(name, filterSettings, outlierSettings));
+    }
+    return new PosePipeline(names, created, metrics);
+  }
+
+  /**
+   * @param mode the pointing mode
+   * @return the names of the stages of the mode, in order
+   */
+  public List<String> getStages(PointingMode mode) {
+    return mode == PointingMode.ORIENTATION ? orientationStages : stages;
+  }
+
+  private static PoseStage createStage(String name, OneEuroSettings filterSettings, OutlierSettings outlierSettings) {
+    switch (name) {
+      case REJECT:
+        return new OutlierRejector(outlierSettings);
+      case FILTER:
+        return new OneEuroPoseFilter(filterSettings);
+      case ANGLES:
+        return new PointingAngles();
+      default:
+        try {
+          return customStage(name).getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+          throw new IllegalArgumentException("Can't create the stage " + name, e);
+        }
+    }
+  }
+
+  private static Class<? extends PoseStage> customStage(String name) {
+    try {
+      return Class.forName(name).asSubclass(PoseStage.class);
+    } catch (ClassNotFoundException | ClassCastException e) {
+      throw new IllegalArgumentException("Unknown stage: " + name, e);
+    }
+  }
+
+  private static List<String> parseStages(String definition) {
+    List<String> names = new ArrayList<>();
+    for (String name : definition.split(",")) {
+      name = name.trim();
+      if (name.isEmpty()) {
+        continue;
+      }
+      if (!name.equals(REJECT) && !name.equals(FILTER) && !name.equals(ANGLES)) {
+        customStage(name);
+      }
+      names.add(name);
+    }
+    return Collections.unmodifiableList(names);
+  }
+
+  @Override
+  public String toString() {
+    return String.join(" -> ", stages) + ", orientation: " + String.join(" -> ", orientationStages);
+  }
+}
@@ -0,0 +1,101 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How long the stages of the pose pipelines take, per stage name over all clients, for comparing stage chains.
+ * Pipelines record into it from the receiving threads, it may be read from any thread.
+ */
+public class PipelineMetrics {
+  private final Map<String, Stage> stages = new LinkedHashMap<>();
+
+  /**
+   * @param name the name of the stage
+   * @return the timing of the stage, created on first use
+   */
+  public synchronized Stage getStage(String name) {
+    return stages.computeIfAbsent(name, Stage::new);
+  }
+
+  /**
+   * @return the timing of all stages, in the order they were first used
+   */
+  public synchronized List<Stage> getStages() {
+    return new ArrayList<>(stages.values());
+  }
+
+  @Override
+  public String toString() {
+    StringJoiner joiner = new StringJoiner(", ", "stages: ", "");
+    for (Stage stage : getStages()) {
+      joiner.add(stage.toString());
+    }
+    return joiner.toString();
+  }
+
+  public static class Stage {
+    private final String name;
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder nanosSum = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    Stage(String name) {
+      this.name = name;
+    }
+
+    void record(long nanos, boolean passed) {
+      samples.increment();
+      nanosSum.add(nanos);
+      maxNanos.accumulate(nanos);
+      if (!passed) {
+        dropped.increment();
+      }
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return the amount of samples the stage processed
+     */
+    public long getSamples() {
+      return samples.sum();
+    }
+
+    /**
+     * @return the amount of samples the stage dropped
+     */
+    public long getDropped() {
+      return dropped.sum();
+    }
+
+    /**
+     * @return the mean time the stage took per sample, in microseconds
+     */
+    public double getMeanMicros() {
+      long count = samples.sum();
+      return count == 0 ? 0 : nanosSum.sum() / 1e3 / count;
+    }
+
+    /**
+     * @return the longest time the stage took for a sample, in microseconds
+     */
+    public double getMaxMicros() {
+      return maxNanos.get() / 1e3;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s %.1f us (max %.1f us)", name, getMeanMicros(), getMaxMicros()) +
+          (getDropped() == 0 ? "" : ", dropped " + getDropped());
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.api.PoseStage;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+
+/**
+ * Turns the orientation of a sample into where the phone is aimed, for the ORIENTATION pointing mode. The phone
+ * points along its back camera, the negative z-axis of the device. The direction is taken straight from
+ * the quaternion, only the one column of the rotation matrix which is needed, and turned into yaw and pitch with
+ * a single atan2 and asin, without creating arrays or Euler angles on the way.
+ *
+ * The angles replace the translation of the sample, as the distance a laser spot moves on a sphere of one meter
+ * radius around the phone: tx is the yaw, positive to the right, and ty the pitch, positive downwards like the screen.
+ * That way the filtering and prediction of translation work unchanged, with millimeters becoming milliradians.
+ * The yaw is unwrapped, so turning past behind doesn't jump by a full turn. The unwrapping starts over when tracking
+ * was lost, the cursor is aimed from a new baseline then anyway.
+ */
+public class PointingAngles implements PoseStage {
+  private static final double FULL_TURN = 2 * Math.PI;
+
+  private boolean hasPrevious;
+  private double previousYaw;
+
+  /**
+   * @param sample the sample, its translation is replaced by the angles
+   */
+  public void apply(PoseSample sample) {
+    double qx = sample.qx;
+    double qy = sample.qy;
+    double qz = sample.qz;
+    double qw = sample.qw;
+    // The rotated (0, 0, -1), normalized so a slightly off quaternion from the quantized codec doesn't matter.
+    double norm = qx * qx + qy * qy + qz * qz + qw * qw;
+    double scale = norm > 0 ? 2 / norm : 0;
+    double forwardX = -scale * (qx * qz + qw * qy);
+    double forwardY = -scale * (qy * qz - qw * qx);
+    double forwardZ = scale * (qx * qx + qy * qy) - 1;
+
+    double yaw = Math.atan2(forwardX, -forwardZ);
+    double pitch = Math.asin(Math.max(-1, Math.min(1, forwardY)));
+    if (hasPrevious) {
+      yaw += FULL_TURN * Math.rint((previousYaw - yaw) / FULL_TURN);
+    }
+    hasPrevious = true;
+    previousYaw = yaw;
+
+    sample.tx = yaw;
+    sample.ty = -pitch;
+    sample.tz = 0;
+  }
+
+  @Override
+  public boolean process(PoseSample sample, long receivedNanos) {
+    apply(sample);
+    return true;
+  }
+
+  /**
+   * Forgets the previous yaw, the next one is taken as it is.
+   */
+  @Override
+  public void reset() {
+    hasPrevious = false;
+  }
+}
@@ -0,0 +1,219 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.support.pose.PointingMode;
+import com.github.joonasvali.naturalmouse.support.pose.PoseCodecType;
+import com.github.joonasvali.naturalmouse.support.pose.PoseHandshake;
+import com.github.joonasvali.naturalmouse.support.pose.PoseListener;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+import com.github.joonasvali.naturalmouse.support.pose.TrackingFailureReason;
+import com.github.joonasvali.naturalmouse.support.pose.TrackingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The state of a single connected client. The receiving thread of the client publishes its samples here, where they
+ * are smoothed, and the CursorArbiter takes them on the actuation thread. Every client has its own filter and
+ * baseline so the clients don't disturb each other's movement.
+ *
+ * The samples go through the PosePipeline of the pointing mode, by default first the OutlierRejector, so
+ * relocalization jumps aren't taken for motion, and then the filter. A client in the ORIENTATION pointing mode gets
+ * its samples turned into PointingAngles instead of rejecting jumps, so from there on its translation holds where
+ * the phone is aimed.
+ *
+ * Samples captured while ARCore isn't tracking are not used at all and the arbiter leaves the client's part of
+ * the cursor frozen. The loss is counted, the arbiter starts the client over from a new baseline on it, so the motion
+ * continues from where it stopped instead of jumping to wherever ARCore now puts the phone. That doesn't depend on
+ * the stages: the pipeline is only reset so its stages don't carry state over the loss.
+ *
+ * In the absolute mode the moves of the origin are taken out of the translation again after the pipeline, so the
+ * workspace is calibrated and mapped on where ARCore puts the phone, still smoothed by the filter.
+ */
+public class PoseClient implements PoseListener {
+  private static final Logger log = LoggerFactory.getLogger(PoseClient.class);
+  private final int id;
+  private final String remoteName;
+  private final PoseMailbox mailbox = new PoseMailbox();
+  // Owned by the receiving thread.
+  private final PosePipeline translationPipeline;
+  private final PosePipeline orientationPipeline;
+  private final PoseSample filtered = new PoseSample();
+  // Null if not configured.
+  private final OutlierRejector outliers;
+  // Owned by the actuation thread.
+  final PoseSample sample = new PoseSample();
+  final PosePredictor predictor;
+  final PoseInterpolator interpolator;
+  double lastSampleTX;
+  double lastSampleTY;
+  double previousTX;
+  double previousTY;
+  boolean hasBaseline;
+  int seenTrackingLosses;
+  long lastMotionNanos;
+  // The translation of the newest sample before it was projected onto the workspace.
+  double worldX;
+  double worldY;
+  double worldZ;
+  // The screen position and aim the ORIENTATION mode is calibrated to, valid while the client owns the cursor.
+  // Without the ORIENTATION mode whether the cursor was placed on the workspace since the client took it over.
+  boolean pointerCalibrated;
+  double pointerX;
+  double pointerY;
+  double pointerTX;
+  double pointerTY;
+  private volatile PointingMode pointingMode = PointingMode.TRANSLATION;
+  private volatile int announcedSampleRateHz;
+  private volatile boolean absolute;
+  private volatile boolean connected = true;
+  private volatile TrackingState trackingState = TrackingState.TRACKING;
+  private volatile TrackingFailureReason failureReason = TrackingFailureReason.NONE;
+  // Written by the receiving thread only.
+  private volatile int trackingLosses;
+
+  PoseClient(int id, String remoteName, PosePipeline translationPipeline, PosePipeline orientationPipeline,
+      PosePredictor predictor, PoseInterpolator interpolator) {
+    this.id = id;
+    this.remoteName = remoteName;
+    this.translationPipeline = translationPipeline;
+    this.orientationPipeline = orientationPipeline;
+    this.outliers = translationPipeline.getStage(OutlierRejector.class);
+    this.predictor = predictor;
+    this.interpolator = interpolator;
+  }
+
+  // Filtering happens here rather than on the actuation thread, as the filter needs to see every sample.
+  @Override
+  public void onPose(PoseSample sample) {
+    PosePipeline pipeline = pointingMode == PointingMode.ORIENTATION ? orientationPipeline : translationPipeline;
+    if (!sample.isTracking()) {
+      if (trackingState == TrackingState.TRACKING) {
+        trackingLosses++;
+        pipeline.reset();
+      }
+      trackingState = sample.trackingState;
+      failureReason = sample.failureReason;
+      return;
+    }
+    trackingState = TrackingState.TRACKING;
+    failureReason = TrackingFailureReason.NONE;
+
+    long receivedNanos = System.nanoTime();
+    filtered.set(sample);
+    filtered.receivedNanos = receivedNanos;
+    if (pipeline.process(filtered, receivedNanos)) {
+      if (absolute && outliers != null && pipeline == translationPipeline) {
+        filtered.tx -= outliers.getOffsetX();
+        filtered.ty -= outliers.getOffsetY();
+        filtered.tz -= outliers.getOffsetZ();
+      }
+      mailbox.publish(filtered);
+    }
+  }
+
+  @Override
+  public void onHandshake(PoseHandshake handshake) {
+    PointingMode mode = handshake.getPointingMode();
+    if (mode == PointingMode.ORIENTATION && handshake.codecId == PoseCodecType.TEXT.getId()) {
+      log.warn("Client {} asked for orientation pointing over text frames, which carry no orientation", this);
+      mode = PointingMode.TRANSLATION;
+    }
+    pointingMode = mode;
+    announcedSampleRateHz = handshake.sampleRateHz;
+  }
+
+  /**
+   * @param absolute whether to publish the translation without the origin moves of the OutlierRejector
+   */
+  void setAbsolute(boolean absolute) {
+    this.absolute = absolute;
+  }
+
+  boolean poll() {
+    return mailbox.poll(sample);
+  }
+
+  void disconnected() {
+    connected = false;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public String getRemoteName() {
+    return remoteName;
+  }
+
+  public PointingMode getPointingMode() {
+    return pointingMode;
+  }
+
+  /**
+   * @return the rate the client announced it sends samples at in its handshake, 0 if it didn't
+   */
+  public int getAnnouncedSampleRateHz() {
+    return announcedSampleRateHz;
+  }
+
+  /**
+   * @return the delay the jitter buffer of this client plays the samples out with, 0 unless interpolating
+   */
+  public double getPlayoutDelayMs() {
+    return interpolator.getPlayoutDelayMs();
+  }
+
+  /**
+   * @return the amount of samples of this client which jumped and moved its origin
+   */
+  public long getRejectedSamples() {
+    return outliers == null ? 0 : outliers.getRejectedSamples();
+  }
+
+  /**
+   * @return false while ARCore of this client isn't tracking
+   */
+  public boolean isTracking() {
+    return trackingState == TrackingState.TRACKING;
+  }
+
+  /**
+   * @return the stages the samples of this client go through
+   */
+  public PosePipeline getPipeline() {
+    return pointingMode == PointingMode.ORIENTATION ? orientationPipeline : translationPipeline;
+  }
+
+  public TrackingState getTrackingState() {
+    return trackingState;
+  }
+
+  /**
+   * @return why tracking was lost, NONE while tracking
+   */
+  public TrackingFailureReason getFailureReason() {
+    return failureReason;
+  }
+
+  /**
+   * @return how many times this client has lost tracking
+   */
+  public int getTrackingLosses() {
+    return trackingLosses;
+  }
+
+  public boolean isConnected() {
+    return connected;
+  }
+
+  /**
+   * @return the amount of samples of this client replaced by a newer one before they were used
+   */
+  public long getDroppedSamples() {
+    return mailbox.getDroppedSamples();
+  }
+
+  @Override
+  public String toString() {
+    return "#" + id + " " + remoteName;
+  }
+}
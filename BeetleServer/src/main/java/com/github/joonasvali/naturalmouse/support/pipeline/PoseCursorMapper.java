@@ -0,0 +1,213 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+
+import java.awt.*;
+
+/**
+ * Turns the movement of the phone into movement of the cursor. The change of the pose translation between samples
+ * is multiplied by the gain of its axis and added to the cursor position, which is kept with sub-pixel precision,
+ * so slow motion adds up over several samples instead of being truncated away on each of them.
+ *
+ * When the time of the change is known the gain is further multiplied by the GainCurve at the speed of the phone.
+ * The curve is linear by default and can be replaced at any time from any thread.
+ *
+ * With a DisplayTopology the cursor is kept on the monitors rather than their bounding box, moving off all of them
+ * puts it on the edge of the closest one, and the gain is multiplied by the gain factor of the monitor it is on.
+ *
+ * The first sample after construction or reset() only sets the baseline and doesn't move the cursor.
+ */
+public class PoseCursorMapper implements CursorController {
+  /**
+   * Pixels per meter of phone movement.
+   */
+  public static final double DEFAULT_GAIN = 65000;
+
+  private final Rectangle bounds;
+  private double gainX = DEFAULT_GAIN;
+  private double gainY = DEFAULT_GAIN;
+  private volatile GainTable gainTable = new GainTable(GainCurve.LINEAR);
+  private volatile DisplayTopology displays;
+  private double cursorX;
+  private double cursorY;
+  private double previousTX;
+  private double previousTY;
+  private boolean hasBaseline;
+
+  /**
+   * @param bounds the area the cursor is kept in
+   * @param startX the x-coordinate the cursor starts from
+   * @param startY the y-coordinate the cursor starts from
+   */
+  public PoseCursorMapper(Rectangle bounds, double startX, double startY) {
+    this.bounds = new Rectangle(bounds);
+    reset(startX, startY);
+  }
+
+  /**
+   * Places the cursor and forgets the baseline, the next sample sets a new one.
+   *
+   * @param x the x-coordinate
+   * @param y the y-coordinate
+   */
+  public void reset(double x, double y) {
+    place(x, y);
+    hasBaseline = false;
+  }
+
+  @Override
+  public boolean update(PoseSample pose, long nowNanos) {
+    return pose != null && update(pose.tx, pose.ty);
+  }
+
+  /**
+   * @param tx the x translation of the pose
+   * @param ty the y translation of the pose
+   * @return false if this was the first sample, which only sets the baseline
+   */
+  public boolean update(double tx, double ty) {
+    if (!hasBaseline) {
+      previousTX = tx;
+      previousTY = ty;
+      hasBaseline = true;
+      return false;
+    }
+    move(tx - previousTX, ty - previousTY);
+    previousTX = tx;
+    previousTY = ty;
+    return true;
+  }
+
+  /**
+   * Moves the cursor by a change of translation, for callers which keep the baseline themselves.
+   *
+   * @param dtx the change of the x translation
+   * @param dty the change of the y translation
+   */
+  public void move(double dtx, double dty) {
+    double factor = getDisplayGainFactor();
+    place(cursorX + dtx * gainX * factor, cursorY + dty * gainY * factor);
+  }
+
+  /**
+   * Moves the cursor by a change of translation which took the given time, accelerated by the gain curve.
+   *
+   * @param dtx the change of the x translation
+   * @param dty the change of the y translation
+   * @param seconds the time the change took, the slowest gain is used if not positive
+   */
+  public void move(double dtx, double dty, double seconds) {
+    double factor = gainTable.getFactor(seconds > 0 ? Math.hypot(dtx, dty) / seconds : 0) * getDisplayGainFactor();
+    place(cursorX + dtx * gainX * factor, cursorY + dty * gainY * factor);
+  }
+
+  /**
+   * Moves the cursor by pixels, bypassing the gain.
+   *
+   * @param dx pixels on the x-axis
+   * @param dy pixels on the y-axis
+   */
+  public void movePixels(double dx, double dy) {
+    place(cursorX + dx, cursorY + dy);
+  }
+
+  /**
+   * Places the cursor, keeping the baseline.
+   *
+   * @param x the x-coordinate
+   * @param y the y-coordinate
+   */
+  public void moveTo(double x, double y) {
+    place(x, y);
+  }
+
+  /**
+   * @return the area the cursor is kept in
+   */
+  public Rectangle getBounds() {
+    return new Rectangle(bounds);
+  }
+
+  @Override
+  public int getX() {
+    return (int) Math.round(cursorX);
+  }
+
+  @Override
+  public int getY() {
+    return (int) Math.round(cursorY);
+  }
+
+  /**
+   * @return the precise x-coordinate, including the fraction of a pixel not yet moved
+   */
+  public double getPreciseX() {
+    return cursorX;
+  }
+
+  /**
+   * @return the precise y-coordinate, including the fraction of a pixel not yet moved
+   */
+  public double getPreciseY() {
+    return cursorY;
+  }
+
+  /**
+   * @param gainX pixels per meter on the x-axis, negative to invert the axis
+   * @param gainY pixels per meter on the y-axis, negative to invert the axis
+   */
+  public void setGain(double gainX, double gainY) {
+    this.gainX = gainX;
+    this.gainY = gainY;
+  }
+
+  public double getGainX() {
+    return gainX;
+  }
+
+  public double getGainY() {
+    return gainY;
+  }
+
+  /**
+   * Samples the curve into a new table, which replaces the current one once ready.
+   *
+   * @param curve the acceleration applied on top of the gain
+   */
+  public void setGainCurve(GainCurve curve) {
+    gainTable = new GainTable(curve);
+  }
+
+  public GainCurve getGainCurve() {
+    return gainTable.getCurve();
+  }
+
+  /**
+   * @param displays the monitors within the bounds, in the same coordinates, null to only keep the cursor in the bounds
+   */
+  public void setDisplays(DisplayTopology displays) {
+    this.displays = displays;
+  }
+
+  public DisplayTopology getDisplays() {
+    return displays;
+  }
+
+  private double getDisplayGainFactor() {
+    DisplayTopology displays = this.displays;
+    return displays == null ? 1 : displays.getGainFactor(cursorX, cursorY);
+  }
+
+  private void place(double x, double y) {
+    x = Math.max(bounds.x, Math.min(bounds.x + bounds.width - 1, x));
+    y = Math.max(bounds.y, Math.min(bounds.y + bounds.height - 1, y));
+    DisplayTopology displays = this.displays;
+    if (displays != null) {
+      DisplayTopology.Display display = displays.getDisplayAt(x, y);
+      x = display.clampX(x);
+      y = display.clampY(y);
+    }
+    cursorX = x;
+    cursorY = y;
+  }
+}
@@ -0,0 +1,187 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays the samples of a single client out a little late and interpolates between them, so the cursor can be moved
+ * smoothly on every actuation tick although the phone sends only about 30 samples per second.
+ *
+ * The samples go to a small jitter buffer ordered by their capture time, moved to the local clock by
+ * a SenderClock. The position at a tick is the one at the tick minus the playout delay, which has to be long enough
+ * for the next sample to have arrived: the sample interval plus the arrival delay, covering its mean and a margin
+ * of its mean deviation. Both are measured from the samples with the smoothing of RFC 3550, so the delay grows on
+ * a jittery link and shrinks back on a steady one. Until the interval was measured, the one the client announced in
+ * its handshake is used, so the first samples aren't played out too early. If the next sample is late anyway,
+ * the newest one is held.
+ *
+ * Not thread-safe, used on the actuation thread only.
+ */
+public class PoseInterpolator {
+  private static final int CAPACITY = 8;
+  private static final double SMOOTHING = 1 / 16d;
+
+  private final InterpolationSettings settings;
+  private final SenderClock clock = new SenderClock();
+  private final long[] times = new long[CAPACITY];
+  private final double[] xs = new double[CAPACITY];
+  private final double[] ys = new double[CAPACITY];
+  private int count;
+  private int newest;
+  private double intervalNanos;
+  private long announcedIntervalNanos;
+  private double arrivalDelayNanos;
+  private double arrivalDeviationNanos;
+  private long playoutDelayNanos;
+  private double x;
+  private double y;
+
+  /**
+   * @param settings the parameters, shared with other clients
+   */
+  public PoseInterpolator(InterpolationSettings settings) {
+    this.settings = settings;
+  }
+
+  /**
+   * Empties the buffer and forgets the measured timing.
+   */
+  public void reset() {
+    clock.reset();
+    count = 0;
+    intervalNanos = 0;
+    arrivalDelayNanos = 0;
+    arrivalDeviationNanos = 0;
+  }
+
+  /**
+   * Adds a sample to the buffer. Samples captured before the newest one in the buffer are dropped, they can't be
+   * played out any more.
+   *
+   * @param sample the sample, its receivedNanos should be set
+   */
+  public void update(PoseSample sample) {
+    if (clock.checkRestart(sample)) {
+      count = 0;
+    }
+    long captured = clock.toLocalTime(sample);
+    if (count > 0) {
+      long interval = captured - times[newest];
+      if (interval <= 0) {
+        return;
+      }
+      intervalNanos = count == 1 ? interval : intervalNanos + (interval - intervalNanos) * SMOOTHING;
+    }
+    double delay = sample.receivedNanos - captured;
+    arrivalDelayNanos += (delay - arrivalDelayNanos) * SMOOTHING;
+    arrivalDeviationNanos += (Math.abs(delay - arrivalDelayNanos) - arrivalDeviationNanos) * SMOOTHING;
+
+    newest = (newest + 1) % CAPACITY;
+    times[newest] = captured;
+    xs[newest] = sample.tx;
+    ys[newest] = sample.ty;
+    count = Math.min(count + 1, CAPACITY);
+  }
+
+  /**
+   * Interpolates the position played out at the given time, see getX() and getY().
+   *
+   * @param nowNanos the current time, System.nanoTime()
+   * @return false if there is no sample yet
+   */
+  public boolean interpolate(long nowNanos) {
+    if (count == 0) {
+      return false;
+    }
+    double interval = intervalNanos > 0 ? intervalNanos : announcedIntervalNanos;
+    double delay = interval + arrivalDelayNanos + settings.getJitterMargin() * arrivalDeviationNanos;
+    playoutDelayNanos = (long) Math.max(0, Math.min(settings.getMaxPlayoutDelayMs() * 1e6, delay));
+    long target = nowNanos - playoutDelayNanos;
+
+    // k counts back from the newest sample, the segment runs from the k-th newest to the one after it.
+    int k = 0;
+    while (k < count && times[slot(k)] > target) {
+      k++;
+    }
+    if (k == 0 || k == count) {
+      int held = slot(k == 0 ? 0 : count - 1);
+      x = xs[held];
+      y = ys[held];
+      return true;
+    }
+
+    int p1 = slot(k);
+    int p2 = slot(k - 1);
+    int p0 = k + 1 < count ? slot(k + 1) : p1;
+    int p3 = k >= 2 ? slot(k - 2) : p2;
+    long segment = times[p2] - times[p1];
+    double u = (double) (target - times[p1]) / segment;
+    switch (settings.getMode()) {
+      case LINEAR:
+        x = xs[p1] + (xs[p2] - xs[p1]) * u;
+        y = ys[p1] + (ys[p2] - ys[p1]) * u;
+        break;
+      case HERMITE:
+        x = hermite(xs[p1], xs[p2], timedTangent(xs, p0, p1, p2, segment), timedTangent(xs, p1, p2, p3, segment), u);
+        y = hermite(ys[p1], ys[p2], timedTangent(ys, p0, p1, p2, segment), timedTangent(ys, p1, p2, p3, segment), u);
+        break;
+      case CATMULL_ROM:
+        x = hermite(xs[p1], xs[p2], uniformTangent(xs, p0, p1, p2), uniformTangent(xs, p1, p2, p3), u);
+        y = hermite(ys[p1], ys[p2], uniformTangent(ys, p0, p1, p2), uniformTangent(ys, p1, p2, p3), u);
+        break;
+      default:
+        throw new IllegalStateException("Unknown interpolation mode " + settings.getMode());
+    }
+    return true;
+  }
+
+  private int slot(int k) {
+    return (newest - k + CAPACITY) % CAPACITY;
+  }
+
+  /**
+   * The velocity at the middle sample from its neighbours and their capture times, scaled to the segment duration.
+   * A missing neighbour is passed as the middle sample itself.
+   */
+  private double timedTangent(double[] values, int before, int at, int after, long segmentNanos) {
+    int from = before == at ? at : before;
+    int to = after == at ? at : after;
+    return (values[to] - values[from]) / (times[to] - times[from]) * segmentNanos;
+  }
+
+  private static double uniformTangent(double[] values, int before, int at, int after) {
+    if (before == at || after == at) {
+      return values[after] - values[before];
+    }
+    return (values[after] - values[before]) / 2;
+  }
+
+  private static double hermite(double p1, double p2, double m1, double m2, double u) {
+    double u2 = u * u;
+    double u3 = u2 * u;
+    return (2 * u3 - 3 * u2 + 1) * p1 + (u3 - 2 * u2 + u) * m1 + (-2 * u3 + 3 * u2) * p2 + (u3 - u2) * m2;
+  }
+
+  /**
+   * @param sampleRateHz the rate the client announced it sends samples at, 0 if unknown
+   */
+  public void setAnnouncedSampleRate(int sampleRateHz) {
+    announcedIntervalNanos = sampleRateHz > 0 ? TimeUnit.SECONDS.toNanos(1) / sampleRateHz : 0;
+  }
+
+  public double getX() {
+    return x;
+  }
+
+  public double getY() {
+    return y;
+  }
+
+  /**
+   * @return the delay the samples were played out with on the last interpolate(), in milliseconds
+   */
+  public double getPlayoutDelayMs() {
+    return playoutDelayNanos / 1e6;
+  }
+}
@@ -0,0 +1,72 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands the newest pose from the receiving side to the side moving the cursor. Only the latest sample is kept:
+ * publishing over a sample which was not yet taken replaces it and counts it as dropped, so a slow consumer always
+ * sees fresh data instead of working through a backlog.
+ *
+ * Lock-free and safe for several publishing threads and one consuming thread. Samples are copied in and out of
+ * slots which are recycled, so no garbage is created once the slots exist.
+ */
+public class PoseMailbox {
+  private final AtomicReference<PoseSample> latest = new AtomicReference<>();
+  private final AtomicReference<PoseSample> free = new AtomicReference<>(new PoseSample());
+  private final LongAdder published = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+
+  /**
+   * Makes the sample the newest one, replacing an earlier sample which was not taken yet.
+   *
+   * @param sample the sample, its values are copied
+   */
+  public void publish(PoseSample sample) {
+    PoseSample slot = free.getAndSet(null);
+    if (slot == null) {
+      // Only happens before the slots exist or when threads race for them.
+      slot = new PoseSample();
+    }
+    slot.set(sample);
+    published.increment();
+
+    PoseSample replaced = latest.getAndSet(slot);
+    if (replaced != null) {
+      dropped.increment();
+      free.compareAndSet(null, replaced);
+    }
+  }
+
+  /**
+   * Takes the newest sample, if there is one which was not taken before.
+   *
+   * @param dst receives the values of the sample
+   * @return false if nothing was published since the last call
+   */
+  public boolean poll(PoseSample dst) {
+    PoseSample slot = latest.getAndSet(null);
+    if (slot == null) {
+      return false;
+    }
+    dst.set(slot);
+    free.compareAndSet(null, slot);
+    return true;
+  }
+
+  /**
+   * @return the amount of samples published
+   */
+  public long getPublishedSamples() {
+    return published.sum();
+  }
+
+  /**
+   * @return the amount of samples replaced by a newer one before they were taken
+   */
+  public long getDroppedSamples() {
+    return dropped.sum();
+  }
+}
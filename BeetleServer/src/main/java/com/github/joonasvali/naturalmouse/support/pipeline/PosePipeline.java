@@ -0,0 +1,87 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.api.PoseStage;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the samples of one client through a chain of PoseStages and times every stage on the way, into
+ * the PipelineMetrics under the name the stage was configured with. The end of one stage is the start of
+ * the next, so the timing costs one System.nanoTime() per stage.
+ *
+ * Used on the receiving thread of the client.
+ */
+public class PosePipeline {
+  private final String[] names;
+  private final PoseStage[] stages;
+  private final PipelineMetrics.Stage[] timings;
+
+  /**
+   * @param names the names of the stages, for the metrics
+   * @param stages the stages, in the order the samples go through them
+   * @param metrics where the stages are timed
+   */
+  public PosePipeline(List<String> names, List<PoseStage> stages, PipelineMetrics metrics) {
+    if (names.size() != stages.size()) {
+      throw new IllegalArgumentException(names.size() + " names for " + stages.size() + " stages");
+    }
+    this.names = names.toArray(new String[0]);
+    this.stages = stages.toArray(new PoseStage[0]);
+    this.timings = new PipelineMetrics.Stage[this.stages.length];
+    for (int i = 0; i < timings.length; i++) {
+      timings[i] = metrics.getStage(this.names[i]);
+    }
+  }
+
+  /**
+   * @param sample the sample, changed in place by the stages
+   * @param receivedNanos the System.nanoTime() the sample was received at
+   * @return false if a stage dropped the sample
+   */
+  public boolean process(PoseSample sample, long receivedNanos) {
+    long start = System.nanoTime();
+    for (int i = 0; i < stages.length; i++) {
+      boolean passed = stages[i].process(sample, receivedNanos);
+      long end = System.nanoTime();
+      timings[i].record(end - start, passed);
+      if (!passed) {
+        return false;
+      }
+      start = end;
+    }
+    return true;
+  }
+
+  /**
+   * Resets every stage, for when tracking was lost.
+   */
+  public void reset() {
+    for (PoseStage stage : stages) {
+      stage.reset();
+    }
+  }
+
+  /**
+   * @param type the class of the stage
+   * @return the first stage of the class, null if there is none
+   */
+  public <T extends PoseStage> T getStage(Class<T> type) {
+    for (PoseStage stage : stages) {
+      if (type.isInstance(stage)) {
+        return type.cast(stage);
+      }
+    }
+    return null;
+  }
+
+  public List<String> getStageNames() {
+    return Arrays.asList(names.clone());
+  }
+
+  @Override
+  public String toString() {
+    return String.join(" -> ", names);
+  }
+}
@@ -0,0 +1,151 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Predicts where the phone of a single client is at a given moment, to hide the latency between the camera frame
+ * and the cursor. The x and y translation are each tracked by a ConstantVelocityKalman, which is fed the samples at
+ * the time they were captured and extrapolated to the time asked for, usually the next actuation tick plus
+ * the lookahead of the PredictionSettings.
+ *
+ * The capture time is the timestamp of the sample moved to the local clock by a SenderClock.
+ *
+ * The first prediction after each sample is checked once the samples reach its target time, against the position
+ * interpolated between the two samples around it, so the PredictionMetrics tell how far off the cursor was.
+ *
+ * Not thread-safe, used on the actuation thread only.
+ */
+public class PosePredictor {
+  private static final long MAX_EXTRAPOLATION_NANOS =
+      (long) (PredictionSettings.MAX_EXTRAPOLATION_MS * TimeUnit.MILLISECONDS.toNanos(1));
+
+  private final PredictionSettings settings;
+  private final PredictionMetrics metrics;
+  private final ConstantVelocityKalman x = new ConstantVelocityKalman();
+  private final ConstantVelocityKalman y = new ConstantVelocityKalman();
+  private final SenderClock clock = new SenderClock();
+  private boolean hasMeasurement;
+  private long lastMeasurementNanos;
+  private double lastTX;
+  private double lastTY;
+  private double predictedX;
+  private double predictedY;
+  private boolean checkPending;
+  private long checkTargetNanos;
+  private double checkX;
+  private double checkY;
+
+  /**
+   * @param settings the parameters, shared with other clients
+   * @param metrics where the prediction errors are counted, may be shared with other clients
+   */
+  public PosePredictor(PredictionSettings settings, PredictionMetrics metrics) {
+    this.settings = settings;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Forgets the motion, the next sample starts over at rest.
+   */
+  public void reset() {
+    clock.reset();
+    hasMeasurement = false;
+    checkPending = false;
+  }
+
+  /**
+   * Corrects the prediction with a new sample.
+   *
+   * @param sample the sample, its receivedNanos should be set
+   */
+  public void update(PoseSample sample) {
+    if (clock.checkRestart(sample)) {
+      hasMeasurement = false;
+      checkPending = false;
+    }
+    long measurementNanos = clock.toLocalTime(sample);
+    if (checkPending && hasMeasurement && measurementNanos >= checkTargetNanos) {
+      checkPrediction(sample, measurementNanos);
+    }
+    lastTX = sample.tx;
+    lastTY = sample.ty;
+    double measurementNoise = settings.getMeasurementNoise();
+    // After a gap, e.g while tracking was lost, the old velocity says nothing about the new motion.
+    if (!hasMeasurement || measurementNanos - lastMeasurementNanos > MAX_EXTRAPOLATION_NANOS) {
+      hasMeasurement = true;
+      lastMeasurementNanos = measurementNanos;
+      x.reset(sample.tx, measurementNoise);
+      y.reset(sample.ty, measurementNoise);
+      checkPending = false;
+      return;
+    }
+
+    // A sample captured at the same time or before the previous one is only used for correcting the position.
+    if (measurementNanos > lastMeasurementNanos) {
+      double dt = (measurementNanos - lastMeasurementNanos) / 1e9;
+      double processNoise = settings.getProcessNoise();
+      x.predict(dt, processNoise);
+      y.predict(dt, processNoise);
+      lastMeasurementNanos = measurementNanos;
+    }
+    x.update(sample.tx, measurementNoise);
+    y.update(sample.ty, measurementNoise);
+  }
+
+  /**
+   * Predicts the position at the given time, see getPredictedX() and getPredictedY(). When prediction is disabled
+   * the prediction is the newest sample.
+   *
+   * @param targetNanos the time, System.nanoTime(), usually the present plus the lookahead
+   * @return false if there is no sample to predict from
+   */
+  public boolean predict(long targetNanos) {
+    if (!hasMeasurement) {
+      return false;
+    }
+    if (!settings.isEnabled()) {
+      predictedX = lastTX;
+      predictedY = lastTY;
+      return true;
+    }
+    long horizonNanos = Math.max(0, Math.min(MAX_EXTRAPOLATION_NANOS, targetNanos - lastMeasurementNanos));
+    double horizon = horizonNanos / 1e9;
+    predictedX = x.extrapolate(horizon);
+    predictedY = y.extrapolate(horizon);
+    metrics.prediction(horizonNanos);
+    if (!checkPending) {
+      checkPending = true;
+      checkTargetNanos = lastMeasurementNanos + horizonNanos;
+      checkX = predictedX;
+      checkY = predictedY;
+    }
+    return true;
+  }
+
+  // Called before the sample is taken in, the newest sample so far is the one before the target time.
+  private void checkPrediction(PoseSample sample, long measurementNanos) {
+    long span = measurementNanos - lastMeasurementNanos;
+    double fraction = span <= 0 ? 1 : Math.max(0, Math.min(1, (checkTargetNanos - lastMeasurementNanos) / (double) span));
+    double actualX = lastTX + (sample.tx - lastTX) * fraction;
+    double actualY = lastTY + (sample.ty - lastTY) * fraction;
+    metrics.predictionError(Math.hypot(checkX - actualX, checkY - actualY));
+    checkPending = false;
+  }
+
+  public double getPredictedX() {
+    return predictedX;
+  }
+
+  public double getPredictedY() {
+    return predictedY;
+  }
+
+  /**
+   * @return the estimated velocity in meters per second
+   */
+  public double getSpeed() {
+    return Math.hypot(x.getVelocity(), y.getVelocity());
+  }
+}
@@ -0,0 +1,70 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How well the PosePredictor does, for tuning the lookahead and noise per device. The prediction error is the
+ * distance between where a prediction put the phone at its target time, the tick plus the lookahead, and where
+ * the samples show the phone was then. One prediction per sample is checked. The applied lookahead is how far past
+ * the newest sample the predictions reached.
+ */
+public class PredictionMetrics {
+  private final LongAdder errors = new LongAdder();
+  private final DoubleAdder errorSum = new DoubleAdder();
+  private final DoubleAdder squaredErrorSum = new DoubleAdder();
+  private final LongAdder predictions = new LongAdder();
+  private final LongAdder lookaheadNanosSum = new LongAdder();
+
+  public void predictionError(double meters) {
+    errors.increment();
+    errorSum.add(meters);
+    squaredErrorSum.add(meters * meters);
+  }
+
+  public void prediction(long lookaheadNanos) {
+    predictions.increment();
+    lookaheadNanosSum.add(lookaheadNanos);
+  }
+
+  /**
+   * @return the mean prediction error in meters
+   */
+  public double getMeanError() {
+    long count = errors.sum();
+    return count == 0 ? 0 : errorSum.sum() / count;
+  }
+
+  /**
+   * @return the root mean square prediction error in meters
+   */
+  public double getRmsError() {
+    long count = errors.sum();
+    return count == 0 ? 0 : Math.sqrt(squaredErrorSum.sum() / count);
+  }
+
+  /**
+   * @return the mean time the predictions reached past the newest sample, in milliseconds
+   */
+  public double getMeanLookaheadMs() {
+    long count = predictions.sum();
+    return count == 0 ? 0 : lookaheadNanosSum.sum() / 1e6 / count;
+  }
+
+  public long getPredictions() {
+    return predictions.sum();
+  }
+
+  /**
+   * @return the amount of predictions checked against the samples, which the errors are the mean of
+   */
+  public long getCheckedPredictions() {
+    return errors.sum();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("prediction error: %.2f mm mean, %.2f mm rms, lookahead: %.1f ms",
+        getMeanError() * 1000, getRmsError() * 1000, getMeanLookaheadMs());
+  }
+}
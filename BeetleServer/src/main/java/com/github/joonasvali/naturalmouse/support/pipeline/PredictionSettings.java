@@ -0,0 +1,67 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+/**
+ * Parameters of the PosePredictor, shared by all clients. Can be changed from any thread at any time.
+ */
+public class PredictionSettings {
+  public static final double DEFAULT_LOOKAHEAD_MS = 20;
+  /**
+   * Variance of the acceleration between two samples in (m/s^2)^2, a hand changes its velocity quickly.
+   */
+  public static final double DEFAULT_PROCESS_NOISE = 50;
+  /**
+   * Variance of the measured position in m^2, ARCore is good to about a millimeter.
+   */
+  public static final double DEFAULT_MEASUREMENT_NOISE = 1e-6;
+  /**
+   * The furthest the prediction reaches past the last sample, so a client going silent doesn't fly away.
+   */
+  public static final double MAX_EXTRAPOLATION_MS = 100;
+
+  private volatile boolean enabled = true;
+  private volatile double lookaheadMs = DEFAULT_LOOKAHEAD_MS;
+  private volatile double processNoise = DEFAULT_PROCESS_NOISE;
+  private volatile double measurementNoise = DEFAULT_MEASUREMENT_NOISE;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * @param enabled false to use the newest sample as it is
+   */
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public double getLookaheadMs() {
+    return lookaheadMs;
+  }
+
+  /**
+   * @param lookaheadMs how far past the present the position is predicted, to make up for the latency
+   *                    which the timestamps can't tell, e.g. the time from the camera frame to its pose
+   */
+  public void setLookaheadMs(double lookaheadMs) {
+    if (lookaheadMs < 0) {
+      throw new IllegalArgumentException("Lookahead can't be negative: " + lookaheadMs);
+    }
+    this.lookaheadMs = lookaheadMs;
+  }
+
+  public double getProcessNoise() {
+    return processNoise;
+  }
+
+  public void setProcessNoise(double processNoise) {
+    this.processNoise = processNoise;
+  }
+
+  public double getMeasurementNoise() {
+    return measurementNoise;
+  }
+
+  public void setMeasurementNoise(double measurementNoise) {
+    this.measurementNoise = measurementNoise;
+  }
+}
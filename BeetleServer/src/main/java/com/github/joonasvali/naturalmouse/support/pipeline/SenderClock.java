@@ -0,0 +1,52 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+
+/**
+ * Moves the capture timestamps of a client to the local clock, System.nanoTime(). The offset between the clocks is
+ * taken as the smallest difference between receive time and timestamp seen so far, the sample which travelled
+ * the fastest, so the network jitter doesn't end up in the timing. Samples without a timestamp, such as legacy text
+ * frames, are taken as captured when received.
+ */
+public class SenderClock {
+  private boolean hasOffset;
+  private long offsetNanos;
+  private long lastRemoteNanos;
+
+  /**
+   * Forgets the offset.
+   */
+  public void reset() {
+    hasOffset = false;
+  }
+
+  /**
+   * @param sample the sample
+   * @return true if the timestamp went backwards, the sender restarted or its clock jumped. The offset is
+   * forgotten then and whatever was learned from the earlier samples doesn't apply any more.
+   */
+  public boolean checkRestart(PoseSample sample) {
+    if (sample.timestampNanos != 0 && hasOffset && sample.timestampNanos < lastRemoteNanos) {
+      hasOffset = false;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * @param sample the sample, its receivedNanos should be set
+   * @return the local time the sample was captured
+   */
+  public long toLocalTime(PoseSample sample) {
+    if (sample.timestampNanos == 0 || sample.receivedNanos == 0) {
+      return sample.receivedNanos;
+    }
+    lastRemoteNanos = sample.timestampNanos;
+    long offset = sample.receivedNanos - sample.timestampNanos;
+    if (!hasOffset || offset < offsetNanos) {
+      offsetNanos = offset;
+      hasOffset = true;
+    }
+    return sample.timestampNanos + offsetNanos;
+  }
+}
@@ -0,0 +1,56 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+/**
+ * A smooth S-shaped curve from the slow factor to the fast factor, centered at the midpoint speed.
+ */
+public class SigmoidGainCurve implements GainCurve {
+  public static final double DEFAULT_SLOW_FACTOR = 0.4;
+  public static final double DEFAULT_FAST_FACTOR = 2.5;
+  public static final double DEFAULT_MIDPOINT_SPEED = 0.25;
+  public static final double DEFAULT_TRANSITION_WIDTH = 0.08;
+
+  private final double slowFactor;
+  private final double fastFactor;
+  private final double midpointSpeed;
+  private final double transitionWidth;
+
+  /**
+   * A curve precise below a few centimeters per second and fast above half a meter per second.
+   */
+  public SigmoidGainCurve() {
+    this(DEFAULT_SLOW_FACTOR, DEFAULT_FAST_FACTOR, DEFAULT_MIDPOINT_SPEED, DEFAULT_TRANSITION_WIDTH);
+  }
+
+  /**
+   * @param slowFactor the factor when still
+   * @param fastFactor the factor approached at high speeds
+   * @param midpointSpeed the speed where the factor is halfway, in meters per second
+   * @param transitionWidth how gradually the factor changes around the midpoint, in meters per second
+   */
+  public SigmoidGainCurve(double slowFactor, double fastFactor, double midpointSpeed, double transitionWidth) {
+    if (transitionWidth <= 0) {
+      throw new IllegalArgumentException("Transition width must be positive: " + transitionWidth);
+    }
+    this.slowFactor = slowFactor;
+    this.fastFactor = fastFactor;
+    this.midpointSpeed = midpointSpeed;
+    this.transitionWidth = transitionWidth;
+  }
+
+  @Override
+  public double getFactor(double speedMetersPerSecond) {
+    // Shifted so the curve starts exactly at the slow factor.
+    double start = logistic(-midpointSpeed / transitionWidth);
+    double value = logistic((speedMetersPerSecond - midpointSpeed) / transitionWidth);
+    return slowFactor + (fastFactor - slowFactor) * (value - start) / (1 - start);
+  }
+
+  private static double logistic(double x) {
+    return 1 / (1 + Math.exp(-x));
+  }
+
+  @Override
+  public String toString() {
+    return "sigmoid " + slowFactor + ".." + fastFactor + " at " + midpointSpeed + " m/s";
+  }
+}
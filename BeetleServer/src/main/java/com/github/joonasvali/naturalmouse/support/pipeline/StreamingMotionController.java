@@ -0,0 +1,36 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.api.StreamingMouseMotion;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+
+/**
+ * Smooths the targets of another CursorController: the target becomes the destination of a StreamingMouseMotion
+ * and the cursor follows it on every tick, also the ticks without a new pose.
+ */
+public class StreamingMotionController implements CursorController {
+  private final CursorController target;
+  private final StreamingMouseMotion motion;
+
+  public StreamingMotionController(CursorController target, StreamingMouseMotion motion) {
+    this.target = target;
+    this.motion = motion;
+  }
+
+  @Override
+  public boolean update(PoseSample pose, long nowNanos) {
+    if (target.update(pose, nowNanos)) {
+      motion.setDestination(target.getX(), target.getY());
+    }
+    return motion.advance(nowNanos);
+  }
+
+  @Override
+  public int getX() {
+    return motion.getX();
+  }
+
+  @Override
+  public int getY() {
+    return motion.getY();
+  }
+}
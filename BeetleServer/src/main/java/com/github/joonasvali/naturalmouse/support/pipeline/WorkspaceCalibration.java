@@ -0,0 +1,58 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import java.awt.*;
+
+/**
+ * Collects the corners of a workspace one at a time, in the order of CORNER_NAMES, for a WorkspaceMapping.
+ *
+ * Corners are added on the actuation thread, the progress may be read from any thread.
+ */
+public class WorkspaceCalibration {
+  public static final String[] CORNER_NAMES = {"top left", "top right", "bottom right", "bottom left"};
+
+  private final double[][] corners = new double[4][];
+  private volatile int cornerCount;
+
+  /**
+   * @param x the x-coordinate of the phone in the world
+   * @param y the y-coordinate of the phone in the world
+   * @param z the z-coordinate of the phone in the world
+   * @throws IllegalStateException if all corners are known already
+   */
+  public void addCorner(double x, double y, double z) {
+    if (isComplete()) {
+      throw new IllegalStateException("All corners of the workspace are known");
+    }
+    corners[cornerCount] = new double[]{x, y, z};
+    cornerCount++;
+  }
+
+  public int getCornerCount() {
+    return cornerCount;
+  }
+
+  /**
+   * @return the name of the corner added next, null once complete
+   */
+  public String getNextCornerName() {
+    int count = cornerCount;
+    return count < corners.length ? CORNER_NAMES[count] : null;
+  }
+
+  public boolean isComplete() {
+    return cornerCount == corners.length;
+  }
+
+  /**
+   * @param screen the area the workspace maps onto
+   * @return the mapping from the corners onto the area
+   * @throws IllegalStateException if a corner is missing
+   * @throws IllegalArgumentException if the corners don't span a usable workspace
+   */
+  public WorkspaceMapping build(Rectangle screen) {
+    if (!isComplete()) {
+      throw new IllegalStateException("Only " + cornerCount + " corners of the workspace are known");
+    }
+    return new WorkspaceMapping(corners, screen);
+  }
+}
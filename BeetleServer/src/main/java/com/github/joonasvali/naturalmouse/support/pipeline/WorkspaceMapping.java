@@ -0,0 +1,245 @@
+package com.github.joonasvali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+
+import java.awt.*;
+
+/**
+ * Maps positions of the phone in the ARCore world straight to screen pixels, so the cursor is always where
+ * the phone is and clamping at the edges of the screen can't make the two drift apart.
+ *
+ * The workspace is a quadrilateral the phone was held at the corners of, ideally a rectangle on a desk or in the air.
+ * A position is first projected onto the plane of the corners, giving coordinates in meters along the top and
+ * the left edge, and those go through a homography taking the corners onto the corners of the screen area. Both
+ * are computed once, mapping a pose only takes a few multiplications.
+ *
+ * Instances are immutable and may be shared between threads.
+ */
+public class WorkspaceMapping {
+  /**
+   * Corners closer than this to each other are taken for a failed calibration.
+   */
+  public static final double MIN_EDGE_METERS = 0.02;
+
+  private final Rectangle screen;
+  private final double originX;
+  private final double originY;
+  private final double originZ;
+  // Unit vectors of the plane, u along the top edge and v along the left edge, n = u x v.
+  private final double uX;
+  private final double uY;
+  private final double uZ;
+  private final double vX;
+  private final double vY;
+  private final double vZ;
+  private final double nX;
+  private final double nY;
+  private final double nZ;
+  // Row-major 3x3 homography from the plane to the screen, h[8] = 1.
+  private final double[] h;
+  // Positions outside the workspace are clamped to its bounding box on the plane first.
+  private final double minU;
+  private final double maxU;
+  private final double minV;
+  private final double maxV;
+
+  /**
+   * @param corners the top left, top right, bottom right and bottom left corner of the workspace, as {x, y, z}
+   * @param screen the area the workspace maps onto
+   * @throws IllegalArgumentException if the corners don't span a convex quadrilateral
+   */
+  public WorkspaceMapping(double[][] corners, Rectangle screen) {
+    if (corners.length != 4) {
+      throw new IllegalArgumentException("A workspace has 4 corners, got " + corners.length);
+    }
+    this.screen = new Rectangle(screen);
+    double[] topLeft = corners[0];
+    double[] topRight = corners[1];
+    double[] bottomRight = corners[2];
+    double[] bottomLeft = corners[3];
+    originX = topLeft[0];
+    originY = topLeft[1];
+    originZ = topLeft[2];
+
+    // Averaging the opposite edges keeps a sloppily held corner from tilting the plane much.
+    double ax = topRight[0] - topLeft[0] + bottomRight[0] - bottomLeft[0];
+    double ay = topRight[1] - topLeft[1] + bottomRight[1] - bottomLeft[1];
+    double az = topRight[2] - topLeft[2] + bottomRight[2] - bottomLeft[2];
+    double length = Math.sqrt(ax * ax + ay * ay + az * az);
+    if (length < 2 * MIN_EDGE_METERS) {
+      throw new IllegalArgumentException("The workspace is too narrow: " + length / 2 + " m");
+    }
+    uX = ax / length;
+    uY = ay / length;
+    uZ = az / length;
+    double bx = bottomLeft[0] - topLeft[0] + bottomRight[0] - topRight[0];
+    double by = bottomLeft[1] - topLeft[1] + bottomRight[1] - topRight[1];
+    double bz = bottomLeft[2] - topLeft[2] + bottomRight[2] - topRight[2];
+    double along = bx * uX + by * uY + bz * uZ;
+    bx -= along * uX;
+    by -= along * uY;
+    bz -= along * uZ;
+    length = Math.sqrt(bx * bx + by * by + bz * bz);
+    if (length < 2 * MIN_EDGE_METERS) {
+      throw new IllegalArgumentException("The workspace is too low: " + length / 2 + " m");
+    }
+    vX = bx / length;
+    vY = by / length;
+    vZ = bz / length;
+    nX = uY * vZ - uZ * vY;
+    nY = uZ * vX - uX * vZ;
+    nZ = uX * vY - uY * vX;
+
+    double[] u = new double[4];
+    double[] v = new double[4];
+    for (int i = 0; i < 4; i++) {
+      double dx = corners[i][0] - originX;
+      double dy = corners[i][1] - originY;
+      double dz = corners[i][2] - originZ;
+      u[i] = dx * uX + dy * uY + dz * uZ;
+      v[i] = dx * vX + dy * vY + dz * vZ;
+    }
+    checkConvex(u, v);
+    minU = Math.min(Math.min(u[0], u[1]), Math.min(u[2], u[3]));
+    maxU = Math.max(Math.max(u[0], u[1]), Math.max(u[2], u[3]));
+    minV = Math.min(Math.min(v[0], v[1]), Math.min(v[2], v[3]));
+    maxV = Math.max(Math.max(v[0], v[1]), Math.max(v[2], v[3]));
+
+    double left = screen.x;
+    double top = screen.y;
+    double right = screen.x + screen.width - 1;
+    double bottom = screen.y + screen.height - 1;
+    h = homography(u, v, new double[]{left, right, right, left}, new double[]{top, top, bottom, bottom});
+  }
+
+  /**
+   * Replaces the translation of the sample by its coordinates on the workspace: tx along the top edge, ty along
+   * the left edge and tz the distance from the plane, all in meters from the top left corner.
+   *
+   * @param sample the sample in world coordinates
+   */
+  public void project(PoseSample sample) {
+    double dx = sample.tx - originX;
+    double dy = sample.ty - originY;
+    double dz = sample.tz - originZ;
+    sample.tx = dx * uX + dy * uY + dz * uZ;
+    sample.ty = dx * vX + dy * vY + dz * vZ;
+    sample.tz = dx * nX + dy * nY + dz * nZ;
+  }
+
+  /**
+   * @param u meters along the top edge, as given by project()
+   * @param v meters along the left edge, as given by project()
+   * @return the x-coordinate on the screen, within the screen area
+   */
+  public double getScreenX(double u, double v) {
+    u = clamp(u, minU, maxU);
+    v = clamp(v, minV, maxV);
+    return clamp((h[0] * u + h[1] * v + h[2]) / (h[6] * u + h[7] * v + 1), screen.x, screen.x + screen.width - 1);
+  }
+
+  /**
+   * @param u meters along the top edge, as given by project()
+   * @param v meters along the left edge, as given by project()
+   * @return the y-coordinate on the screen, within the screen area
+   */
+  public double getScreenY(double u, double v) {
+    u = clamp(u, minU, maxU);
+    v = clamp(v, minV, maxV);
+    return clamp((h[3] * u + h[4] * v + h[5]) / (h[6] * u + h[7] * v + 1), screen.y, screen.y + screen.height - 1);
+  }
+
+  /**
+   * @return the area the workspace maps onto
+   */
+  public Rectangle getScreen() {
+    return new Rectangle(screen);
+  }
+
+  /**
+   * @return the width of the workspace in meters, across its widest part
+   */
+  public double getWidthMeters() {
+    return maxU - minU;
+  }
+
+  /**
+   * @return the height of the workspace in meters, across its highest part
+   */
+  public double getHeightMeters() {
+    return maxV - minV;
+  }
+
+  private static void checkConvex(double[] u, double[] v) {
+    for (int i = 0; i < 4; i++) {
+      int next = (i + 1) % 4;
+      int after = (i + 2) % 4;
+      double cross = (u[next] - u[i]) * (v[after] - v[next]) - (v[next] - v[i]) * (u[after] - u[next]);
+      // u runs right and v down, so going around clockwise on the screen turns positive.
+      if (cross <= 0) {
+        throw new IllegalArgumentException("The workspace corners are not in order or don't span a convex area");
+      }
+    }
+  }
+
+  /**
+   * Solves the 8 unknowns of the homography taking the points (u, v) onto (x, y) by Gaussian elimination.
+   */
+  private static double[] homography(double[] u, double[] v, double[] x, double[] y) {
+    double[][] a = new double[8][9];
+    for (int i = 0; i < 4; i++) {
+      double[] rowX = a[2 * i];
+      rowX[0] = u[i];
+      rowX[1] = v[i];
+      rowX[2] = 1;
+      rowX[6] = -u[i] * x[i];
+      rowX[7] = -v[i] * x[i];
+      rowX[8] = x[i];
+      double[] rowY = a[2 * i + 1];
+      rowY[3] = u[i];
+      rowY[4] = v[i];
+      rowY[5] = 1;
+      rowY[6] = -u[i] * y[i];
+      rowY[7] = -v[i] * y[i];
+      rowY[8] = y[i];
+    }
+    for (int column = 0; column < 8; column++) {
+      int pivot = column;
+      for (int row = column + 1; row < 8; row++) {
+        if (Math.abs(a[row][column]) > Math.abs(a[pivot][column])) {
+          pivot = row;
+        }
+      }
+      if (Math.abs(a[pivot][column]) < 1e-12) {
+        throw new IllegalArgumentException("The workspace corners don't define a mapping");
+      }
+      double[] swap = a[column];
+      a[column] = a[pivot];
+      a[pivot] = swap;
+      for (int row = 0; row < 8; row++) {
+        if (row != column) {
+          double factor = a[row][column] / a[column][column];
+          for (int k = column; k < 9; k++) {
+            a[row][k] -= factor * a[column][k];
+          }
+        }
+      }
+    }
+    double[] h = new double[9];
+    for (int i = 0; i < 8; i++) {
+      h[i] = a[i][8] / a[i][i];
+    }
+    h[8] = 1;
+    return h;
+  }
+
+  private static double clamp(double value, double min, double max) {
+    return Math.max(min, Math.min(max, value));
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%.2f x %.2f m onto %dx%d at %d,%d", getWidthMeters(), getHeightMeters(),
+        screen.width, screen.height, screen.x, screen.y);
+  }
+}
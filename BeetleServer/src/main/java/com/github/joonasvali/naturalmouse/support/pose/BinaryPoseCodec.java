@@ -0,0 +1,100 @@
+package com.github.joonasvali.naturalmouse.support.pose;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fixed width little-endian binary pose frame. Layout of version 1:
+ *
+ * <pre>
+ * offset size field
+ *  0      1   magic (0xBE)
+ *  1      1   version
+ *  2      1   flags, bits 0-1 TrackingState id, bits 2-5 TrackingFailureReason id, others reserved (0)
+ *  3      1   reserved (0)
+ *  4      4   sequence number, int32
+ *  8      8   sensor timestamp in nanoseconds, int64
+ * 16     12   tx, ty, tz, float32
+ * 28     16   qx, qy, qz, qw, float32
+ * </pre>
+ *
+ * The Android client has its own copy of this layout in PoseFrameEncoder, keep them in sync.
+ */
+public class BinaryPoseCodec implements PoseCodec {
+  public static final byte MAGIC = (byte) 0xBE;
+  public static final byte VERSION = 1;
+  public static final int FRAME_LENGTH = 44;
+
+  @Override
+  public int getMaxFrameLength() {
+    return FRAME_LENGTH;
+  }
+
+  @Override
+  public void encode(PoseSample sample, ByteBuffer dst) {
+    ByteOrder order = dst.order();
+    dst.order(ByteOrder.LITTLE_ENDIAN);
+    dst.put(MAGIC);
+    dst.put(VERSION);
+    dst.put((byte) sample.getTrackingFlags());
+    dst.put((byte) 0);
+    dst.putInt((int) sample.sequence);
+    dst.putLong(sample.timestampNanos);
+    dst.putFloat((float) sample.tx);
+    dst.putFloat((float) sample.ty);
+    dst.putFloat((float) sample.tz);
+    dst.putFloat((float) sample.qx);
+    dst.putFloat((float) sample.qy);
+    dst.putFloat((float) sample.qz);
+    dst.putFloat((float) sample.qw);
+    dst.order(order);
+  }
+
+  @Override
+  public DecodeResult decode(ByteBuffer src, PoseSample dst) {
+    int start = src.position();
+    if (src.remaining() < 1) {
+      return DecodeResult.NEED_MORE_DATA;
+    }
+    if (src.get(start) != MAGIC) {
+      skipToNextMagic(src, start + 1);
+      return DecodeResult.MALFORMED;
+    }
+    if (src.remaining() < 2) {
+      return DecodeResult.NEED_MORE_DATA;
+    }
+    if (src.get(start + 1) != VERSION) {
+      skipToNextMagic(src, start + 1);
+      return DecodeResult.MALFORMED;
+    }
+    if (src.remaining() < FRAME_LENGTH) {
+      return DecodeResult.NEED_MORE_DATA;
+    }
+
+    // Absolute reads, so the position only moves once the whole frame is known to be there.
+    ByteOrder order = src.order();
+    src.order(ByteOrder.LITTLE_ENDIAN);
+    dst.setTrackingFlags(src.get(start + 2) & 0xFF);
+    dst.sequence = src.getInt(start + 4) & 0xFFFFFFFFL;
+    dst.timestampNanos = src.getLong(start + 8);
+    dst.tx = src.getFloat(start + 16);
+    dst.ty = src.getFloat(start + 20);
+    dst.tz = src.getFloat(start + 24);
+    dst.qx = src.getFloat(start + 28);
+    dst.qy = src.getFloat(start + 32);
+    dst.qz = src.getFloat(start + 36);
+    dst.qw = src.getFloat(start + 40);
+    src.order(order);
+    src.position(start + FRAME_LENGTH);
+    return DecodeResult.DECODED;
+  }
+
+  private static void skipToNextMagic(ByteBuffer src, int from) {
+    int i = from;
+    int limit = src.limit();
+    while (i < limit && src.get(i) != MAGIC) {
+      i++;
+    }
+    src.position(i);
+  }
+}
@@ -0,0 +1,106 @@
+package com.github.joonasvali.naturalmouse.support.pose;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The "compressed" codec. Same information as BinaryPoseCodec, but quantized into 28 bytes instead of 44:
+ *
+ * <pre>
+ * offset size field
+ *  0      1   magic (0xBC)
+ *  1      1   flags, same as BinaryPoseCodec
+ *  2      2   sequence number, lowest 16 bits, uint16
+ *  4      4   sensor timestamp in microseconds, lowest 32 bits, uint32
+ *  8     12   tx, ty, tz in micrometres, int32
+ * 20      8   qx, qy, qz, qw scaled by 32767, int16
+ * </pre>
+ *
+ * The truncated sequence and timestamp are unwrapped against the previous frame, so the codec instance has to stay
+ * with one connection. Micrometre and 1/32767 resolution is far below the ARCore tracking noise.
+ */
+public class CompactPoseCodec implements PoseCodec {
+  public static final byte MAGIC = (byte) 0xBC;
+  public static final int FRAME_LENGTH = 28;
+  private static final double METRES_TO_MICROMETRES = 1_000_000d;
+  private static final double QUATERNION_SCALE = Short.MAX_VALUE;
+  private static final long NANOS_IN_MICROSECOND = 1000;
+
+  private boolean first = true;
+  private long lastSequence;
+  private long lastTimestampMicros;
+
+  @Override
+  public int getMaxFrameLength() {
+    return FRAME_LENGTH;
+  }
+
+  @Override
+  public void encode(PoseSample sample, ByteBuffer dst) {
+    ByteOrder order = dst.order();
+    dst.order(ByteOrder.LITTLE_ENDIAN);
+    dst.put(MAGIC);
+    dst.put((byte) sample.getTrackingFlags());
+    dst.putShort((short) sample.sequence);
+    dst.putInt((int) (sample.timestampNanos / NANOS_IN_MICROSECOND));
+    dst.putInt((int) Math.round(sample.tx * METRES_TO_MICROMETRES));
+    dst.putInt((int) Math.round(sample.ty * METRES_TO_MICROMETRES));
+    dst.putInt((int) Math.round(sample.tz * METRES_TO_MICROMETRES));
+    dst.putShort(quantizeUnit(sample.qx));
+    dst.putShort(quantizeUnit(sample.qy));
+    dst.putShort(quantizeUnit(sample.qz));
+    dst.putShort(quantizeUnit(sample.qw));
+    dst.order(order);
+  }
+
+  @Override
+  public DecodeResult decode(ByteBuffer src, PoseSample dst) {
+    int start = src.position();
+    int limit = src.limit();
+    if (start == limit) {
+      return DecodeResult.NEED_MORE_DATA;
+    }
+    if (src.get(start) != MAGIC) {
+      int i = start + 1;
+      while (i < limit && src.get(i) != MAGIC) {
+        i++;
+      }
+      src.position(i);
+      return DecodeResult.MALFORMED;
+    }
+    if (limit - start < FRAME_LENGTH) {
+      return DecodeResult.NEED_MORE_DATA;
+    }
+
+    ByteOrder order = src.order();
+    src.order(ByteOrder.LITTLE_ENDIAN);
+    dst.setTrackingFlags(src.get(start + 1) & 0xFF);
+    long sequence = src.getShort(start + 2) & 0xFFFFL;
+    long timestampMicros = src.getInt(start + 4) & 0xFFFFFFFFL;
+    dst.tx = src.getInt(start + 8) / METRES_TO_MICROMETRES;
+    dst.ty = src.getInt(start + 12) / METRES_TO_MICROMETRES;
+    dst.tz = src.getInt(start + 16) / METRES_TO_MICROMETRES;
+    dst.qx = src.getShort(start + 20) / QUATERNION_SCALE;
+    dst.qy = src.getShort(start + 22) / QUATERNION_SCALE;
+    dst.qz = src.getShort(start + 24) / QUATERNION_SCALE;
+    dst.qw = src.getShort(start + 26) / QUATERNION_SCALE;
+    src.order(order);
+    src.position(start + FRAME_LENGTH);
+
+    if (first) {
+      first = false;
+      lastSequence = sequence;
+      lastTimestampMicros = timestampMicros;
+    } else {
+      lastSequence += (short) (sequence - lastSequence);
+      lastTimestampMicros += (int) (timestampMicros - lastTimestampMicros);
+    }
+    dst.sequence = lastSequence;
+    dst.timestampNanos = lastTimestampMicros * NANOS_IN_MICROSECOND;
+    return DecodeResult.DECODED;
+  }
+
+  private static short quantizeUnit(double value) {
+    return (short) Math.round(Math.max(-1, Math.min(1, value)) * QUATERNION_SCALE);
+  }
+}
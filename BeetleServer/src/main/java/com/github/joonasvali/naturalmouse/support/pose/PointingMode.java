@@ -0,0 +1,39 @@
+package com.github.joonasvali.naturalmouse.support.pose;
+
+/**
+ * How the pose of a client moves the cursor, chosen by the client for its session in the flags of the hello.
+ */
+public enum PointingMode {
+  /**
+   * Moving the phone moves the cursor, the translation is used.
+   */
+  TRANSLATION(0),
+  /**
+   * The phone is aimed like a laser pointer, the yaw and pitch of the orientation are used. Needs a codec which
+   * carries the quaternion.
+   */
+  ORIENTATION(1);
+
+  private final int id;
+
+  PointingMode(int id) {
+    this.id = id;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * @param id the id used on the wire
+   * @return the mode or null if there's no mode with this id
+   */
+  public static PointingMode fromId(int id) {
+    for (PointingMode mode : values()) {
+      if (mode.id == id) {
+        return mode;
+      }
+    }
+    return null;
+  }
+}
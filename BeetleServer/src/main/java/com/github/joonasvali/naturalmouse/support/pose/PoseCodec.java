@@ -0,0 +1,50 @@
+package com.github.joonasvali.naturalmouse.support.pose;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes and decodes pose frames exchanged between the phone client and the server.
+ *
+ * Decoding is incremental: the caller keeps appending received bytes to a buffer and calls decode until
+ * it stops returning DECODED, then compacts the buffer and waits for more data. Implementations must not
+ * allocate per frame.
+ */
+public interface PoseCodec {
+  enum DecodeResult {
+    /**
+     * A frame was decoded into the sample and its bytes were consumed.
+     */
+    DECODED,
+    /**
+     * The buffer doesn't contain a full frame yet, nothing was consumed.
+     */
+    NEED_MORE_DATA,
+    /**
+     * The bytes at the buffer position were not a valid frame. At least one byte was consumed,
+     * so calling decode again continues from the next possible frame start.
+     */
+    MALFORMED
+  }
+
+  /**
+   * @return the largest amount of bytes a single frame can take on the wire
+   */
+  int getMaxFrameLength();
+
+  /**
+   * Writes a frame describing the sample into the buffer at its current position.
+   *
+   * @param sample the sample to encode
+   * @param dst the buffer to write into, needs at least getMaxFrameLength() bytes remaining
+   */
+  void encode(PoseSample sample, ByteBuffer dst);
+
+  /**
+   * Reads the next frame from the buffer.
+   *
+   * @param src the buffer to read from, between its position and limit
+   * @param dst the sample to fill, only modified if DECODED is returned
+   * @return the outcome of the attempt
+   */
+  DecodeResult decode(ByteBuffer src, PoseSample dst);
+}
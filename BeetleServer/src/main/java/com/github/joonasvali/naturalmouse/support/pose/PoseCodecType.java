@@ -0,0 +1,74 @@
+package com.github.joonasvali.naturalmouse.support.pose;
+
+/**
+ * The wire formats the server understands. The id is what the client announces in its handshake.
+ */
+public enum PoseCodecType {
+  /**
+   * Legacy "tx,ty" text lines.
+   */
+  TEXT(0),
+  /**
+   * Fixed width binary frames, see BinaryPoseCodec.
+   */
+  BINARY(1),
+  /**
+   * Quantized binary frames, see CompactPoseCodec.
+   */
+  COMPRESSED(2);
+
+  private final int id;
+
+  PoseCodecType(int id) {
+    this.id = id;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * Codecs keep per connection state, so every connection needs its own instance.
+   *
+   * @return a new codec of this type
+   */
+  public PoseCodec createCodec() {
+    switch (this) {
+      case TEXT:
+        return new TextPoseCodec();
+      case BINARY:
+        return new BinaryPoseCodec();
+      case COMPRESSED:
+        return new CompactPoseCodec();
+      default:
+        throw new IllegalStateException("Unknown codec " + this);
+    }
+  }
+
+  /**
+   * @param id the id used on the wire
+   * @return the codec type or null if there's no codec with this id
+   */
+  public static PoseCodecType fromId(int id) {
+    for (PoseCodecType type : values()) {
+      if (type.id == id) {
+        return type;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param name the case insensitive name of the codec, e.g "binary"
+   * @return the codec type
+   * @throws IllegalArgumentException if no codec with this name exists
+   */
+  public static PoseCodecType fromName(String name) {
+    for (PoseCodecType type : values()) {
+      if (type.name().equalsIgnoreCase(name.trim())) {
+        return type;
+      }
+    }
+    throw new IllegalArgumentException("Unknown pose codec: " + name);
+  }
+}
@@ -0,0 +1,99 @@
+package com.github.joonasvali.naturalmouse.support.pose;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The hello message a client sends right after connecting, before any pose frames:
+ *
+ * <pre>
+ * offset size field
+ *  0      1   magic (0xBE), same as BinaryPoseCodec
+ *  1      1   message type 'H'
+ *  2      1   protocol version
+ *  3      1   codec id, see PoseCodecType
+ *  4      2   sample rate in Hz, uint16
+ *  6      1   flags, bits 0-1 the PointingMode id, others reserved (0)
+ *  7      1   reserved (0)
+ * </pre>
+ *
+ * A binary frame has its version in the second byte, which never equals 'H', so a server can tell the hello,
+ * a binary frame and a legacy text line apart from the first two bytes.
+ */
+public class PoseHandshake {
+  public static final byte MAGIC = BinaryPoseCodec.MAGIC;
+  public static final byte TYPE_HELLO = 'H';
+  public static final int PROTOCOL_VERSION = 1;
+  public static final int LENGTH = 8;
+  public static final int FLAG_POINTING_MODE_MASK = 0x03;
+
+  public int protocolVersion;
+  public int codecId;
+  public int sampleRateHz;
+  public int flags;
+
+  public void encode(ByteBuffer dst) {
+    ByteOrder order = dst.order();
+    dst.order(ByteOrder.LITTLE_ENDIAN);
+    dst.put(MAGIC);
+    dst.put(TYPE_HELLO);
+    dst.put((byte) protocolVersion);
+    dst.put((byte) codecId);
+    dst.putShort((short) sampleRateHz);
+    dst.put((byte) flags);
+    dst.put((byte) 0);
+    dst.order(order);
+  }
+
+  /**
+   * Reads the hello from the buffer, if there's a full one, and consumes it.
+   *
+   * @param src the buffer, starting with the hello
+   * @return false if more bytes are needed
+   */
+  public boolean decode(ByteBuffer src) {
+    int start = src.position();
+    if (src.remaining() < LENGTH) {
+      return false;
+    }
+    protocolVersion = src.get(start + 2) & 0xFF;
+    codecId = src.get(start + 3) & 0xFF;
+    sampleRateHz = (src.get(start + 4) & 0xFF) | (src.get(start + 5) & 0xFF) << 8;
+    flags = src.get(start + 6) & 0xFF;
+    src.position(start + LENGTH);
+    return true;
+  }
+
+  /**
+   * @return the pointing mode from the flags, null if the id is unknown
+   */
+  public PointingMode getPointingMode() {
+    return PointingMode.fromId(flags & FLAG_POINTING_MODE_MASK);
+  }
+
+  /**
+   * @param mode the pointing mode to store in the flags
+   */
+  public void setPointingMode(PointingMode mode) {
+    flags = flags & ~FLAG_POINTING_MODE_MASK | mode.getId();
+  }
+
+  /**
+   * @param src the buffer
+   * @return true if the buffer starts with a hello, the buffer needs at least 2 bytes remaining
+   */
+  public static boolean isHello(ByteBuffer src) {
+    int start = src.position();
+    return src.get(start) == MAGIC && src.get(start + 1) == TYPE_HELLO;
+  }
+
+  @Override
+  public String toString() {
+    return "PoseHandshake{" +
+        "protocolVersion=" + protocolVersion +
+        ", codec=" + PoseCodecType.fromId(codecId) +
+        ", sampleRateHz=" + sampleRateHz +
+        ", pointingMode=" + getPointingMode() +
+        '}';
+  }
+}
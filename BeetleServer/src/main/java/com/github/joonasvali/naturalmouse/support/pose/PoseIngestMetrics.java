@@ -0,0 +1,94 @@
+package com.github.joonasvali.naturalmouse.support.pose;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for the receiving side of the server. Shared by all connections, so updates are cheap and contention free
+ * and reading them gives a best effort snapshot.
+ */
+public class PoseIngestMetrics {
+  private final LongAdder framesDecoded = new LongAdder();
+  private final LongAdder malformedFrames = new LongAdder();
+  private final LongAdder handshakes = new LongAdder();
+  private final LongAdder failedHandshakes = new LongAdder();
+  private final LongAdder legacyClients = new LongAdder();
+  private final LongAdder connectionsAccepted = new LongAdder();
+  private final LongAdder openConnections = new LongAdder();
+  private final LongAdder bytesRead = new LongAdder();
+
+  public void frameDecoded() {
+    framesDecoded.increment();
+  }
+
+  public void malformedFrame() {
+    malformedFrames.increment();
+  }
+
+  public void handshakeCompleted() {
+    handshakes.increment();
+  }
+
+  public void handshakeFailed() {
+    failedHandshakes.increment();
+  }
+
+  public void legacyClientDetected() {
+    legacyClients.increment();
+  }
+
+  public void connectionOpened() {
+    connectionsAccepted.increment();
+    openConnections.increment();
+  }
+
+  public void connectionClosed() {
+    openConnections.decrement();
+  }
+
+  public void bytesRead(int count) {
+    bytesRead.add(count);
+  }
+
+  public long getFramesDecoded() {
+    return framesDecoded.sum();
+  }
+
+  public long getMalformedFrames() {
+    return malformedFrames.sum();
+  }
+
+  public long getHandshakes() {
+    return handshakes.sum();
+  }
+
+  public long getFailedHandshakes() {
+    return failedHandshakes.sum();
+  }
+
+  public long getLegacyClients() {
+    return legacyClients.sum();
+  }
+
+  public long getConnectionsAccepted() {
+    return connectionsAccepted.sum();
+  }
+
+  public long getOpenConnections() {
+    return openConnections.sum();
+  }
+
+  public long getBytesRead() {
+    return bytesRead.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "connections: " + getOpenConnections() + " open / " + getConnectionsAccepted() + " accepted" +
+        ", bytes read: " + getBytesRead() +
+        ", frames decoded: " + getFramesDecoded() +
+        ", malformed: " + getMalformedFrames() +
+        ", handshakes: " + getHandshakes() +
+        ", failed handshakes: " + getFailedHandshakes() +
+        ", legacy clients: " + getLegacyClients();
+  }
+}
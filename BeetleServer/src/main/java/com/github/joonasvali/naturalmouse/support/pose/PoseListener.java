@@ -0,0 +1,19 @@
+package com.github.joonasvali.naturalmouse.support.pose;
+
+/**
+ * Receives decoded pose samples.
+ */
+public interface PoseListener {
+  /**
+   * @param sample the decoded sample. The instance is reused for the next sample, copy the values if needed later.
+   */
+  void onPose(PoseSample sample);
+
+  /**
+   * Called before the first sample if the client sent a hello.
+   *
+   * @param handshake the hello, reused by the decoder
+   */
+  default void onHandshake(PoseHandshake handshake) {
+  }
+}
@@ -0,0 +1,99 @@
+package com.github.joonasvali.naturalmouse.support.pose;
+
+/**
+ * A single pose sample as received from the phone client.
+ *
+ * This is a mutable holder of primitive values, so the same instance can be reused for every decoded frame
+ * without creating garbage on the receiving path. Do not keep references to samples handed out by decoders,
+ * copy the values instead.
+ */
+public class PoseSample {
+  /**
+   * Sequence number assigned by the sender, increasing by one on every frame. Legacy text frames don't carry it,
+   * in that case the decoder just counts the lines.
+   */
+  public long sequence;
+  /**
+   * Capture time of the pose in the sender's clock, in nanoseconds. 0 if the sender doesn't provide it.
+   */
+  public long timestampNanos;
+  /**
+   * Local time the sample was received, System.nanoTime(). 0 if not known.
+   */
+  public long receivedNanos;
+  public double tx;
+  public double ty;
+  public double tz;
+  public double qx;
+  public double qy;
+  public double qz;
+  public double qw = 1;
+  /**
+   * Whether the pose is reliable. Legacy text frames don't carry it and are always TRACKING.
+   */
+  public TrackingState trackingState = TrackingState.TRACKING;
+  public TrackingFailureReason failureReason = TrackingFailureReason.NONE;
+
+  public void set(PoseSample other) {
+    sequence = other.sequence;
+    timestampNanos = other.timestampNanos;
+    receivedNanos = other.receivedNanos;
+    tx = other.tx;
+    ty = other.ty;
+    tz = other.tz;
+    qx = other.qx;
+    qy = other.qy;
+    qz = other.qz;
+    qw = other.qw;
+    trackingState = other.trackingState;
+    failureReason = other.failureReason;
+  }
+
+  public void clear() {
+    sequence = 0;
+    timestampNanos = 0;
+    receivedNanos = 0;
+    tx = 0;
+    ty = 0;
+    tz = 0;
+    qx = 0;
+    qy = 0;
+    qz = 0;
+    qw = 1;
+    trackingState = TrackingState.TRACKING;
+    failureReason = TrackingFailureReason.NONE;
+  }
+
+  public boolean isTracking() {
+    return trackingState == TrackingState.TRACKING;
+  }
+
+  /**
+   * @return the tracking state and failure reason packed into the flags byte of the binary frames: bits 0-1
+   * the state, bits 2-5 the reason
+   */
+  public int getTrackingFlags() {
+    return trackingState.getId() | failureReason.getId() << 2;
+  }
+
+  /**
+   * @param flags the flags byte of a binary frame, 0 from clients which don't send the state means TRACKING
+   */
+  public void setTrackingFlags(int flags) {
+    trackingState = TrackingState.fromId(flags & 0x03);
+    failureReason = TrackingFailureReason.fromId(flags >> 2 & 0x0F);
+  }
+
+  @Override
+  public String toString() {
+    return "PoseSample{" +
+        "sequence=" + sequence +
+        ", timestampNanos=" + timestampNanos +
+        ", receivedNanos=" + receivedNanos +
+        ", t=(" + tx + ", " + ty + ", " + tz + ")" +
+        ", q=(" + qx + ", " + qy + ", " + qz + ", " + qw + ")" +
+        ", trackingState=" + trackingState +
+        (failureReason == TrackingFailureReason.NONE ? "" : ", failureReason=" + failureReason) +
+        '}';
+  }
+}
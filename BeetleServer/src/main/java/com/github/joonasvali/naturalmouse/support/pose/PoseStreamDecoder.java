@@ -0,0 +1,100 @@
+package com.github.joonasvali.naturalmouse.support.pose;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes the byte stream of a single client connection. The first bytes decide the codec: a client starting with
+ * the PoseHandshake hello gets the codec it announced, older clients are detected from their first frame.
+ * After that every received frame is handed to the listener and malformed ones are only counted.
+ */
+public class PoseStreamDecoder {
+  private static final Logger log = LoggerFactory.getLogger(PoseStreamDecoder.class);
+  private final PoseIngestMetrics metrics;
+  private final PoseSample sample = new PoseSample();
+  private final PoseHandshake handshake = new PoseHandshake();
+  private PoseCodecType codecType;
+  private PoseCodec codec;
+  private boolean rejected;
+
+  public PoseStreamDecoder(PoseIngestMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Decodes all complete frames between the buffer position and limit. A partial frame at the end is left
+   * in the buffer, so the caller should compact it and append more data.
+   *
+   * @param buffer the received bytes
+   * @param listener receives every decoded sample
+   * @return false if the client was rejected, the connection should be closed then
+   */
+  public boolean decode(ByteBuffer buffer, PoseListener listener) {
+    if (codec == null && !negotiate(buffer, listener)) {
+      return !rejected;
+    }
+
+    PoseCodec.DecodeResult result;
+    while ((result = codec.decode(buffer, sample)) != PoseCodec.DecodeResult.NEED_MORE_DATA) {
+      if (result == PoseCodec.DecodeResult.DECODED) {
+        metrics.frameDecoded();
+        listener.onPose(sample);
+      } else {
+        metrics.malformedFrame();
+      }
+    }
+    return true;
+  }
+
+  private boolean negotiate(ByteBuffer buffer, PoseListener listener) {
+    if (rejected || buffer.remaining() < 2) {
+      return false;
+    }
+
+    if (PoseHandshake.isHello(buffer)) {
+      if (!handshake.decode(buffer)) {
+        return false;
+      }
+      PoseCodecType type = PoseCodecType.fromId(handshake.codecId);
+      if (handshake.protocolVersion != PoseHandshake.PROTOCOL_VERSION || type == null
+          || handshake.getPointingMode() == null) {
+        log.warn("Rejecting client with unsupported handshake {}", handshake);
+        metrics.handshakeFailed();
+        rejected = true;
+        return false;
+      }
+      log.info("Client handshake {}", handshake);
+      metrics.handshakeCompleted();
+      select(type);
+      listener.onHandshake(handshake);
+      return true;
+    }
+
+    // Clients from before the handshake existed. Text lines never start with the binary magic.
+    metrics.legacyClientDetected();
+    select(buffer.get(buffer.position()) == BinaryPoseCodec.MAGIC ? PoseCodecType.BINARY : PoseCodecType.TEXT);
+    log.info("Client sent no handshake, assuming {} frames", codecType);
+    return true;
+  }
+
+  private void select(PoseCodecType type) {
+    codecType = type;
+    codec = type.createCodec();
+  }
+
+  /**
+   * @return the codec of the stream, null until negotiated
+   */
+  public PoseCodecType getCodecType() {
+    return codecType;
+  }
+
+  /**
+   * @return the sample rate the client announced in its handshake, 0 if unknown
+   */
+  public int getAnnouncedSampleRateHz() {
+    return handshake.sampleRateHz;
+  }
+}
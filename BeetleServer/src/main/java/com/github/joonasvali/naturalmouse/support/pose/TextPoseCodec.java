@@ -0,0 +1,164 @@
+package com.github.joonasvali.naturalmouse.support.pose;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The legacy line based format, where every line contains the tx and ty translation as decimal numbers
+ * separated by a comma, like the Android client sends them, or by whitespace. Kept for clients which don't speak
+ * the binary protocol.
+ *
+ * Numbers are parsed straight from the received bytes, so no Strings or regular expressions are involved.
+ */
+public class TextPoseCodec implements PoseCodec {
+  /**
+   * Lines longer than this are treated as garbage and dropped.
+   */
+  public static final int MAX_LINE_LENGTH = 128;
+  private static final int FRACTION_DIGITS = 6;
+  private static final long[] POWERS_OF_TEN = {
+      1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L,
+      10000000000L, 100000000000L, 1000000000000L, 10000000000000L, 100000000000000L,
+      1000000000000000L, 10000000000000000L, 100000000000000000L, 1000000000000000000L
+  };
+
+  // Parser state, the codec instance belongs to a single connection.
+  private int cursor;
+  private double parsedValue;
+  private long lineCount;
+
+  @Override
+  public int getMaxFrameLength() {
+    return MAX_LINE_LENGTH + 1;
+  }
+
+  @Override
+  public void encode(PoseSample sample, ByteBuffer dst) {
+    putDecimal(dst, sample.tx);
+    dst.put((byte) ',');
+    putDecimal(dst, sample.ty);
+    dst.put((byte) '\n');
+  }
+
+  @Override
+  public DecodeResult decode(ByteBuffer src, PoseSample dst) {
+    int start = src.position();
+    int limit = src.limit();
+    int lineEnd = -1;
+    for (int i = start; i < limit && i - start <= MAX_LINE_LENGTH; i++) {
+      if (src.get(i) == '\n') {
+        lineEnd = i;
+        break;
+      }
+    }
+    if (lineEnd == -1) {
+      if (limit - start > MAX_LINE_LENGTH) {
+        src.position(limit);
+        return DecodeResult.MALFORMED;
+      }
+      return DecodeResult.NEED_MORE_DATA;
+    }
+    src.position(lineEnd + 1);
+
+    cursor = start;
+    if (!parseNextNumber(src, lineEnd)) {
+      return DecodeResult.MALFORMED;
+    }
+    double tx = parsedValue;
+    skipWhitespace(src, lineEnd);
+    if (cursor < lineEnd && src.get(cursor) == ',') {
+      cursor++;
+    }
+    if (!parseNextNumber(src, lineEnd)) {
+      return DecodeResult.MALFORMED;
+    }
+    double ty = parsedValue;
+    skipWhitespace(src, lineEnd);
+    if (cursor != lineEnd) {
+      return DecodeResult.MALFORMED;
+    }
+
+    dst.clear();
+    dst.sequence = ++lineCount;
+    dst.tx = tx;
+    dst.ty = ty;
+    return DecodeResult.DECODED;
+  }
+
+  private boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\t' || b == '\r';
+  }
+
+  private boolean isSeparator(byte b) {
+    return b == ',' || isWhitespace(b);
+  }
+
+  private void skipWhitespace(ByteBuffer src, int end) {
+    while (cursor < end && isWhitespace(src.get(cursor))) {
+      cursor++;
+    }
+  }
+
+  /**
+   * Parses a plain decimal number, like -0.123456, starting from cursor. Exponents are not supported
+   * as the clients never sent them.
+   */
+  private boolean parseNextNumber(ByteBuffer src, int end) {
+    skipWhitespace(src, end);
+    boolean negative = false;
+    if (cursor < end && (src.get(cursor) == '-' || src.get(cursor) == '+')) {
+      negative = src.get(cursor) == '-';
+      cursor++;
+    }
+    long mantissa = 0;
+    int digits = 0;
+    int fractionDigits = 0;
+    boolean fraction = false;
+    while (cursor < end) {
+      byte b = src.get(cursor);
+      if (b >= '0' && b <= '9') {
+        if (digits == POWERS_OF_TEN.length - 1) {
+          return false;
+        }
+        mantissa = mantissa * 10 + (b - '0');
+        digits++;
+        if (fraction) {
+          fractionDigits++;
+        }
+      } else if (b == '.' && !fraction) {
+        fraction = true;
+      } else {
+        break;
+      }
+      cursor++;
+    }
+    if (digits == 0 || (cursor < end && !isSeparator(src.get(cursor)))) {
+      return false;
+    }
+    // Both operands are exact doubles as long as the mantissa fits in 53 bits, which covers anything the clients
+    // send, so the division is correctly rounded and matches Double.parseDouble.
+    double value = fractionDigits == 0 ? mantissa : mantissa / (double) POWERS_OF_TEN[fractionDigits];
+    parsedValue = negative ? -value : value;
+    return true;
+  }
+
+  private static void putDecimal(ByteBuffer dst, double value) {
+    long scaled = Math.round(Math.abs(value) * POWERS_OF_TEN[FRACTION_DIGITS]);
+    if (value < 0 && scaled != 0) {
+      dst.put((byte) '-');
+    }
+    putDigits(dst, scaled / POWERS_OF_TEN[FRACTION_DIGITS], 1);
+    dst.put((byte) '.');
+    putDigits(dst, scaled % POWERS_OF_TEN[FRACTION_DIGITS], FRACTION_DIGITS);
+  }
+
+  private static void putDigits(ByteBuffer dst, long value, int minDigits) {
+    int digits = 1;
+    while (digits < POWERS_OF_TEN.length - 1 && value >= POWERS_OF_TEN[digits]) {
+      digits++;
+    }
+    digits = Math.max(digits, minDigits);
+    for (int i = digits - 1; i >= 0; i--) {
+      dst.put((byte) ('0' + (value / POWERS_OF_TEN[i]) % 10));
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package com.github.joonasvali.naturalmouse.support.pose;
+
+/**
+ * Why ARCore isn't tracking, as in com.google.ar.core.TrackingFailureReason.
+ */
+public enum TrackingFailureReason {
+  NONE(0),
+  BAD_STATE(1),
+  INSUFFICIENT_LIGHT(2),
+  EXCESSIVE_MOTION(3),
+  INSUFFICIENT_FEATURES(4),
+  CAMERA_UNAVAILABLE(5);
+
+  private final int id;
+
+  TrackingFailureReason(int id) {
+    this.id = id;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * @param id the id used on the wire
+   * @return the reason, NONE for unknown ids
+   */
+  public static TrackingFailureReason fromId(int id) {
+    for (TrackingFailureReason reason : values()) {
+      if (reason.id == id) {
+        return reason;
+      }
+    }
+    return NONE;
+  }
+}
@@ -0,0 +1,34 @@
+package com.github.joonasvali.naturalmouse.support.pose;
+
+/**
+ * Whether ARCore was tracking the phone when a pose was captured, as in com.google.ar.core.TrackingState. Only
+ * poses captured while TRACKING are reliable, the others are the last known pose or garbage.
+ */
+public enum TrackingState {
+  TRACKING(0),
+  PAUSED(1),
+  STOPPED(2);
+
+  private final int id;
+
+  TrackingState(int id) {
+    this.id = id;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * @param id the id used on the wire
+   * @return the state, PAUSED for unknown ids as those are not tracking either
+   */
+  public static TrackingState fromId(int id) {
+    for (TrackingState state : values()) {
+      if (state.id == id) {
+        return state;
+      }
+    }
+    return PAUSED;
+  }
+}
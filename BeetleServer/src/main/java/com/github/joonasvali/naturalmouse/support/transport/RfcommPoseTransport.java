@@ -0,0 +1,86 @@
+package com.github.joonasvali.naturalmouse.support.transport;
+
+import com.github.joonasvali.naturalmouse.api.PoseTransport;
+
+import javax.bluetooth.DiscoveryAgent;
+import javax.bluetooth.LocalDevice;
+import javax.bluetooth.RemoteDevice;
+import javax.bluetooth.UUID;
+import javax.microedition.io.Connector;
+import javax.microedition.io.StreamConnection;
+import javax.microedition.io.StreamConnectionNotifier;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Bluetooth serial port profile (RFCOMM) server using BlueCove. This is what the phone app connects to.
+ */
+public class RfcommPoseTransport implements PoseTransport {
+  /**
+   * The well known serial port profile UUID, the Android client uses the same.
+   */
+  public static final UUID SPP_UUID = new UUID("0000110100001000800000805F9B34FB", false);
+  private static final String CONNECTION_URL_FOR_SPP = "btspp://localhost:" + SPP_UUID + ";name=MouseMover Server";
+
+  private StreamConnectionNotifier notifier;
+
+  @Override
+  public void open() throws IOException {
+    LocalDevice.getLocalDevice().setDiscoverable(DiscoveryAgent.GIAC);
+    notifier = (StreamConnectionNotifier) Connector.open(CONNECTION_URL_FOR_SPP);
+  }
+
+  @Override
+  public Connection accept() throws IOException {
+    return new RfcommConnection(notifier.acceptAndOpen());
+  }
+
+  @Override
+  public String getName() {
+    return CONNECTION_URL_FOR_SPP;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (notifier != null) {
+      notifier.close();
+    }
+  }
+
+  private static class RfcommConnection implements Connection {
+    private final StreamConnection connection;
+    private InputStream inputStream;
+
+    public RfcommConnection(StreamConnection connection) {
+      this.connection = connection;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+      if (inputStream == null) {
+        inputStream = connection.openInputStream();
+      }
+      return inputStream;
+    }
+
+    @Override
+    public String getRemoteName() {
+      try {
+        return RemoteDevice.getRemoteDevice(connection).getBluetoothAddress();
+      } catch (IOException e) {
+        return "unknown bluetooth device";
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        if (inputStream != null) {
+          inputStream.close();
+        }
+      } finally {
+        connection.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,273 @@
+package com.github.joonasvali.naturalmouse.support.transport;
+
+import com.github.joonasvali.naturalmouse.support.pose.PoseIngestMetrics;
+import com.github.joonasvali.naturalmouse.support.pose.PoseListener;
+import com.github.joonasvali.naturalmouse.support.pose.PoseStreamDecoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves all clients of socket based transports from a single thread, so idle and slow clients only cost a buffer
+ * instead of a thread. Every client gets its own direct buffer and PoseStreamDecoder, frames are decoded as soon as
+ * they are complete and partial frames wait in the buffer for the rest of their bytes.
+ *
+ * TCP clients are the accepted connections. UDP has no connections, every sender address is treated as a client
+ * which is dropped after it has been silent for a while.
+ */
+public class SelectorIngestServer implements Runnable, Closeable {
+  private static final Logger log = LoggerFactory.getLogger(SelectorIngestServer.class);
+  public static final int DEFAULT_BUFFER_SIZE = 4096;
+  private static final int MAX_DATAGRAM_SIZE = 65507;
+  private static final long SELECT_TIMEOUT_MS = 1000;
+  private static final long DATAGRAM_IDLE_TIMEOUT_NS = TimeUnit.SECONDS.toNanos(10);
+
+  /**
+   * Told about clients coming and going. Called on the selector thread, so it should not block.
+   */
+  public interface ClientListener {
+    /**
+     * @param remoteName a human readable description of the client
+     * @return the listener for the samples of this client
+     */
+    PoseListener clientConnected(String remoteName);
+
+    /**
+     * @param client the listener which was returned for the client when it connected
+     */
+    void clientDisconnected(PoseListener client);
+  }
+
+  private final Selector selector;
+  private final PoseIngestMetrics metrics;
+  private final ClientListener clientListener;
+  private final int bufferSize;
+  private final Map<SocketAddress, Client> datagramClients = new HashMap<>();
+  private ByteBuffer datagramBuffer;
+  private volatile boolean running = true;
+
+  public SelectorIngestServer(PoseIngestMetrics metrics, ClientListener clientListener) throws IOException {
+    this(metrics, clientListener, DEFAULT_BUFFER_SIZE);
+  }
+
+  public SelectorIngestServer(PoseIngestMetrics metrics, ClientListener clientListener, int bufferSize)
+      throws IOException {
+    this.selector = Selector.open();
+    this.metrics = metrics;
+    this.clientListener = clientListener;
+    this.bufferSize = bufferSize;
+  }
+
+  /**
+   * Adds a channel to serve, this needs to happen before run() is called.
+   *
+   * @param channel a bound ServerSocketChannel or DatagramChannel
+   * @throws IOException if the channel can't be made non-blocking
+   */
+  public void register(SelectableChannel channel) throws IOException {
+    channel.configureBlocking(false);
+    if (channel instanceof ServerSocketChannel) {
+      channel.register(selector, SelectionKey.OP_ACCEPT);
+    } else if (channel instanceof DatagramChannel) {
+      if (datagramBuffer == null) {
+        datagramBuffer = ByteBuffer.allocateDirect(MAX_DATAGRAM_SIZE);
+      }
+      channel.register(selector, SelectionKey.OP_READ);
+    } else {
+      throw new IllegalArgumentException("Unsupported channel " + channel);
+    }
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (running) {
+        selector.select(SELECT_TIMEOUT_MS);
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          handle(key);
+        }
+        dropIdleDatagramClients();
+      }
+    } catch (IOException e) {
+      log.error("Selector failed", e);
+    } finally {
+      closeAll();
+    }
+  }
+
+  private void handle(SelectionKey key) {
+    if (!key.isValid()) {
+      return;
+    }
+    try {
+      if (key.isAcceptable()) {
+        accept((ServerSocketChannel) key.channel());
+      } else if (key.channel() instanceof DatagramChannel) {
+        receive((DatagramChannel) key.channel());
+      } else {
+        read(key);
+      }
+    } catch (IOException e) {
+      log.debug("Closing client after error", e);
+      disconnect(key);
+    }
+  }
+
+  private void accept(ServerSocketChannel server) throws IOException {
+    SocketChannel channel;
+    while ((channel = server.accept()) != null) {
+      channel.configureBlocking(false);
+      channel.socket().setTcpNoDelay(true);
+      Client client = connect(String.valueOf(channel.getRemoteAddress()));
+      channel.register(selector, SelectionKey.OP_READ, client);
+    }
+  }
+
+  private void read(SelectionKey key) throws IOException {
+    Client client = (Client) key.attachment();
+    int read = ((SocketChannel) key.channel()).read(client.buffer);
+    if (read == -1) {
+      disconnect(key);
+      return;
+    }
+    metrics.bytesRead(read);
+    if (!client.decode()) {
+      log.info("Client {} rejected, closing connection", client.remoteName);
+      disconnect(key);
+    }
+  }
+
+  private void receive(DatagramChannel channel) throws IOException {
+    SocketAddress sender;
+    datagramBuffer.clear();
+    while ((sender = channel.receive(datagramBuffer)) != null) {
+      datagramBuffer.flip();
+      metrics.bytesRead(datagramBuffer.remaining());
+      Client client = datagramClients.get(sender);
+      if (client == null) {
+        client = connect(String.valueOf(sender));
+        datagramClients.put(sender, client);
+      }
+      client.lastReceivedNanos = System.nanoTime();
+      if (client.rejected) {
+        // Can't close the sender, its datagrams are ignored until it has been idle long enough to be forgotten.
+        datagramBuffer.clear();
+        continue;
+      }
+
+      // A datagram which doesn't fit is the sender's fault, its frames are lost.
+      if (datagramBuffer.remaining() <= client.buffer.remaining()) {
+        client.buffer.put(datagramBuffer);
+        if (!client.decode()) {
+          log.info("Client {} rejected, ignoring its datagrams", client.remoteName);
+          client.rejected = true;
+        }
+      } else {
+        metrics.malformedFrame();
+      }
+      datagramBuffer.clear();
+    }
+  }
+
+  private Client connect(String remoteName) {
+    metrics.connectionOpened();
+    log.info("Client connected: {}", remoteName);
+    return new Client(remoteName, clientListener.clientConnected(remoteName));
+  }
+
+  private void disconnect(SelectionKey key) {
+    key.cancel();
+    try {
+      key.channel().close();
+    } catch (IOException e) {
+      log.debug("Error closing client", e);
+    }
+    if (key.attachment() instanceof Client) {
+      disconnected((Client) key.attachment());
+    }
+  }
+
+  private void disconnected(Client client) {
+    metrics.connectionClosed();
+    log.info("Client disconnected: {}", client.remoteName);
+    clientListener.clientDisconnected(client.listener);
+  }
+
+  private void dropIdleDatagramClients() {
+    if (datagramClients.isEmpty()) {
+      return;
+    }
+    long now = System.nanoTime();
+    Iterator<Client> clients = datagramClients.values().iterator();
+    while (clients.hasNext()) {
+      Client client = clients.next();
+      if (now - client.lastReceivedNanos > DATAGRAM_IDLE_TIMEOUT_NS) {
+        clients.remove();
+        disconnected(client);
+      }
+    }
+  }
+
+  private void closeAll() {
+    for (SelectionKey key : selector.keys()) {
+      disconnect(key);
+    }
+    for (Client client : datagramClients.values()) {
+      disconnected(client);
+    }
+    datagramClients.clear();
+    try {
+      selector.close();
+    } catch (IOException e) {
+      log.debug("Error closing selector", e);
+    }
+  }
+
+  /**
+   * Stops the selector thread, which closes all registered channels and clients.
+   */
+  @Override
+  public void close() {
+    running = false;
+    selector.wakeup();
+  }
+
+  private class Client {
+    private final String remoteName;
+    private final PoseListener listener;
+    private final PoseStreamDecoder decoder = new PoseStreamDecoder(metrics);
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+    private long lastReceivedNanos;
+    private boolean rejected;
+
+    private Client(String remoteName, PoseListener listener) {
+      this.remoteName = remoteName;
+      this.listener = listener;
+    }
+
+    private boolean decode() {
+      buffer.flip();
+      boolean accepted = decoder.decode(buffer, listener);
+      // Keep the partially received frame for the next read.
+      buffer.compact();
+      return accepted;
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package com.github.joonasvali.naturalmouse.support.transport;
+
+import com.github.joonasvali.naturalmouse.api.PoseTransport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.ServerSocketChannel;
+
+/**
+ * Stand-in for Bluetooth which accepts clients over TCP, by default only on the loopback interface.
+ * The byte stream is exactly what the phone would send over RFCOMM.
+ */
+public class TcpPoseTransport implements PoseTransport {
+  private final InetSocketAddress address;
+  private ServerSocketChannel channel;
+  private ServerSocket serverSocket;
+
+  public TcpPoseTransport(int port) {
+    this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+  }
+
+  public TcpPoseTransport(InetSocketAddress address) {
+    this.address = address;
+  }
+
+  @Override
+  public void open() throws IOException {
+    channel = ServerSocketChannel.open();
+    channel.bind(address);
+    serverSocket = channel.socket();
+  }
+
+  @Override
+  public Connection accept() throws IOException {
+    Socket socket = serverSocket.accept();
+    // Frames are small and latency matters more than packing them together.
+    socket.setTcpNoDelay(true);
+    return new TcpConnection(socket);
+  }
+
+  /**
+   * @return the port the transport listens on, useful when opened with port 0
+   */
+  public int getLocalPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  @Override
+  public SelectableChannel getSelectableChannel() {
+    return channel;
+  }
+
+  @Override
+  public String getName() {
+    return "tcp://" + address.getHostString() + ":" + (serverSocket != null ? getLocalPort() : address.getPort());
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (channel != null) {
+      channel.close();
+    }
+  }
+
+  private static class TcpConnection implements Connection {
+    private final Socket socket;
+
+    public TcpConnection(Socket socket) {
+      this.socket = socket;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+      return socket.getInputStream();
+    }
+
+    @Override
+    public String getRemoteName() {
+      return String.valueOf(socket.getRemoteSocketAddress());
+    }
+
+    @Override
+    public void close() throws IOException {
+      socket.close();
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package com.github.joonasvali.naturalmouse.support.transport;
+
+import com.github.joonasvali.naturalmouse.api.PoseTransport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectableChannel;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Stand-in for Bluetooth which receives frames as UDP datagrams, by default only on the loopback interface.
+ *
+ * UDP has no connections, so the payloads of all datagrams arriving on the port are joined into a single stream,
+ * which is handed out as one connection. The next accept() blocks until that connection is closed.
+ * Senders should put whole frames into every datagram, a lost datagram then only loses those frames.
+ * SelectorIngestServer instead keeps the senders apart, each sender address being a client of its own.
+ */
+public class UdpPoseTransport implements PoseTransport {
+  private static final int MAX_DATAGRAM_SIZE = 65507;
+  private final InetSocketAddress address;
+  private final Semaphore streamAvailable = new Semaphore(1);
+  private DatagramChannel channel;
+  private DatagramSocket socket;
+
+  public UdpPoseTransport(int port) {
+    this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+  }
+
+  public UdpPoseTransport(InetSocketAddress address) {
+    this.address = address;
+  }
+
+  @Override
+  public void open() throws IOException {
+    channel = DatagramChannel.open();
+    channel.bind(address);
+    socket = channel.socket();
+  }
+
+  @Override
+  public Connection accept() throws IOException {
+    try {
+      streamAvailable.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the datagram stream");
+    }
+    return new DatagramConnection();
+  }
+
+  /**
+   * @return the port the transport listens on, useful when opened with port 0
+   */
+  public int getLocalPort() {
+    return socket.getLocalPort();
+  }
+
+  @Override
+  public SelectableChannel getSelectableChannel() {
+    return channel;
+  }
+
+  @Override
+  public String getName() {
+    return "udp://" + address.getHostString() + ":" + (socket != null ? getLocalPort() : address.getPort());
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (channel != null) {
+      channel.close();
+    }
+  }
+
+  private class DatagramConnection implements Connection {
+    private final DatagramStream stream = new DatagramStream();
+    private boolean closed;
+
+    @Override
+    public InputStream getInputStream() {
+      return stream;
+    }
+
+    @Override
+    public String getRemoteName() {
+      return "datagrams on " + getName();
+    }
+
+    @Override
+    public synchronized void close() {
+      if (!closed) {
+        closed = true;
+        streamAvailable.release();
+      }
+    }
+  }
+
+  private class DatagramStream extends InputStream {
+    private final byte[] data = new byte[MAX_DATAGRAM_SIZE];
+    private final DatagramPacket packet = new DatagramPacket(data, data.length);
+    private int position;
+    private int length;
+
+    @Override
+    public int read() throws IOException {
+      if (!fill()) {
+        return -1;
+      }
+      return data[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      if (!fill()) {
+        return -1;
+      }
+      int count = Math.min(len, length - position);
+      System.arraycopy(data, position, b, off, count);
+      position += count;
+      return count;
+    }
+
+    private boolean fill() throws IOException {
+      while (position == length) {
+        if (socket.isClosed()) {
+          return false;
+        }
+        packet.setLength(data.length);
+        socket.receive(packet);
+        position = 0;
+        length = packet.getLength();
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package com.github.joonasvali.naturalmouse.tools;
+
+import com.github.joonasvali.naturalmouse.support.pose.PoseCodec;
+import com.github.joonasvali.naturalmouse.support.pose.PoseCodecType;
+import com.github.joonasvali.naturalmouse.support.pose.PoseHandshake;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pretends to be the phone: streams a synthetic circular motion to a server started with
+ * -Dbeetle.transport=tcp or udp. Allows to load the server with rates a real phone can't produce.
+ *
+ * Usage: SyntheticPoseSender tcp|udp [host] [port] [rate Hz] [duration s] [text|binary|compressed]
+ */
+public class SyntheticPoseSender {
+  private static final double RADIUS_METERS = 0.01;
+  private static final double REVOLUTIONS_PER_SECOND = 0.5;
+
+  private final PoseCodecType codecType;
+  private final PoseCodec codec;
+  private final PoseSample sample = new PoseSample();
+  private final ByteBuffer buffer;
+
+  public SyntheticPoseSender(PoseCodecType codecType) {
+    this.codecType = codecType;
+    this.codec = codecType.createCodec();
+    this.buffer = ByteBuffer.allocate(Math.max(codec.getMaxFrameLength(), PoseHandshake.LENGTH));
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.out.println("Usage: SyntheticPoseSender tcp|udp [host] [port] [rate Hz] [duration s] [codec]");
+      return;
+    }
+    String transport = args[0];
+    String host = args.length > 1 ? args[1] : "127.0.0.1";
+    int port = args.length > 2 ? Integer.parseInt(args[2]) : 5005;
+    int rateHz = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+    int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+    PoseCodecType codecType = args.length > 5 ? PoseCodecType.fromName(args[5]) : PoseCodecType.BINARY;
+
+    SyntheticPoseSender sender = new SyntheticPoseSender(codecType);
+    InetSocketAddress address = new InetSocketAddress(host, port);
+    long frames = (long) rateHz * seconds;
+    long start = System.nanoTime();
+    if (transport.equalsIgnoreCase("udp")) {
+      sender.sendUdp(address, rateHz, frames);
+    } else {
+      sender.sendTcp(address, rateHz, frames);
+    }
+    double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("Sent %d frames in %.2f s, %.0f frames/s%n", frames, elapsedSeconds, frames / elapsedSeconds);
+  }
+
+  /**
+   * Connects over TCP, sends the handshake and then the frames.
+   *
+   * @param address the server
+   * @param rateHz frames per second
+   * @param frames the amount of frames to send
+   * @throws IOException if sending fails
+   */
+  public void sendTcp(InetSocketAddress address, int rateHz, long frames) throws IOException {
+    try (Socket socket = new Socket()) {
+      socket.setTcpNoDelay(true);
+      socket.connect(address);
+      OutputStream out = socket.getOutputStream();
+      encodeHandshake(rateHz);
+      write(out);
+
+      long interval = TimeUnit.SECONDS.toNanos(1) / rateHz;
+      long start = System.nanoTime();
+      for (long i = 0; i < frames; i++) {
+        waitUntil(start + i * interval);
+        encodeFrame(i, System.nanoTime() - start);
+        write(out);
+      }
+    }
+  }
+
+  /**
+   * Sends the handshake and then the frames, one per datagram.
+   *
+   * @param address the server
+   * @param rateHz frames per second
+   * @param frames the amount of frames to send
+   * @throws IOException if sending fails
+   */
+  public void sendUdp(InetSocketAddress address, int rateHz, long frames) throws IOException {
+    try (DatagramSocket socket = new DatagramSocket()) {
+      DatagramPacket packet = new DatagramPacket(buffer.array(), 0, address);
+      encodeHandshake(rateHz);
+      send(socket, packet);
+
+      long interval = TimeUnit.SECONDS.toNanos(1) / rateHz;
+      long start = System.nanoTime();
+      for (long i = 0; i < frames; i++) {
+        waitUntil(start + i * interval);
+        encodeFrame(i, System.nanoTime() - start);
+        send(socket, packet);
+      }
+    }
+  }
+
+  private void encodeHandshake(int rateHz) {
+    PoseHandshake handshake = new PoseHandshake();
+    handshake.protocolVersion = PoseHandshake.PROTOCOL_VERSION;
+    handshake.codecId = codecType.getId();
+    handshake.sampleRateHz = Math.min(rateHz, 0xFFFF);
+    buffer.clear();
+    handshake.encode(buffer);
+  }
+
+  private void encodeFrame(long index, long elapsedNanos) {
+    double angle = 2 * Math.PI * REVOLUTIONS_PER_SECOND * elapsedNanos / 1e9;
+    sample.sequence = (int) index;
+    sample.timestampNanos = elapsedNanos;
+    sample.tx = RADIUS_METERS * Math.cos(angle);
+    sample.ty = RADIUS_METERS * Math.sin(angle);
+    buffer.clear();
+    codec.encode(sample, buffer);
+  }
+
+  private void write(OutputStream out) throws IOException {
+    out.write(buffer.array(), 0, buffer.position());
+  }
+
+  private void send(DatagramSocket socket, DatagramPacket packet) throws IOException {
+    packet.setLength(buffer.position());
+    socket.send(packet);
+  }
+
+  private static void waitUntil(long deadlineNanos) {
+    long remaining;
+    while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(remaining);
+    }
+  }
+}
@@ -8,7 +8,9 @@ import com.github.joonasvali.naturalmouse.support.DefaultOvershootManager;
 import com.github.joonasvali.naturalmouse.support.DefaultSpeedManager;
 import com.github.joonasvali.naturalmouse.support.DoublePoint;
 import com.github.joonasvali.naturalmouse.support.Flow;
+import com.github.joonasvali.naturalmouse.support.LiveFollowSpeedManager;
 import com.github.joonasvali.naturalmouse.support.MouseMotionNature;
+import com.github.joonasvali.naturalmouse.support.NoOvershootManager;
 import com.github.joonasvali.naturalmouse.support.SinusoidalDeviationProvider;
 
 import java.util.ArrayList;
@@ -16,6 +18,10 @@ import java.util.Arrays;
 import java.util.List;
 
 public class FactoryTemplates {
+  public static final long LIVE_FOLLOW_SAMPLE_INTERVAL_MS = 1000 / 30;
+  public static final long LIVE_FOLLOW_LATENCY_BUDGET_MS = 20;
+  public static final long LIVE_FOLLOW_STEP_MS = 4;
+
   /**
    * <h1>Stereotypical granny using a computer with non-optical mouse from the 90s.</h1>
    * Low speed, variating flow, lots of noise in movement.
@@ -173,4 +179,52 @@ public class FactoryTemplates {
     factory.setSpeedManager(manager);
     return factory;
   }
-}
\ No newline at end of file
+
+  /**
+   * <h1>Cursor following a live source, like a hand tracked by a phone.</h1>
+   * Short constant speed movements, no noise, no deviation, no overshoots and no reaction time.
+   *
+   * @return the factory
+   */
+  public static MouseMotionFactory createLiveFollowMotionFactory() {
+    return createLiveFollowMotionFactory(new DefaultMouseMotionNature());
+  }
+
+  /**
+   * <h1>Cursor following a live source, like a hand tracked by a phone.</h1>
+   * Short constant speed movements, no noise, no deviation, no overshoots and no reaction time.
+   *
+   * @param nature the nature for the template to be configured on
+   * @return the factory
+   */
+  public static MouseMotionFactory createLiveFollowMotionFactory(MouseMotionNature nature) {
+    return createLiveFollowMotionFactory(nature, LIVE_FOLLOW_SAMPLE_INTERVAL_MS, LIVE_FOLLOW_LATENCY_BUDGET_MS);
+  }
+
+  /**
+   * <h1>Cursor following a live source, like a hand tracked by a phone.</h1>
+   * Short constant speed movements, no noise, no deviation, no overshoots and no reaction time.
+   * A movement takes the latency budget, but never longer than the interval between samples, and is
+   * split in a step per LIVE_FOLLOW_STEP_MS.
+   *
+   * @param nature the nature for the template to be configured on
+   * @param sampleIntervalMs the time between two samples of the source
+   * @param latencyBudgetMs the time a movement may take at most
+   * @return the factory
+   */
+  public static MouseMotionFactory createLiveFollowMotionFactory(
+      MouseMotionNature nature, long sampleIntervalMs, long latencyBudgetMs
+  ) {
+    MouseMotionFactory factory = new MouseMotionFactory(nature);
+    factory.setSpeedManager(new LiveFollowSpeedManager(sampleIntervalMs, latencyBudgetMs));
+    factory.setOvershootManager(new NoOvershootManager());
+    factory.setDeviationProvider((totalDistanceInPixels, completionFraction) -> DoublePoint.ZERO);
+    factory.setNoiseProvider(((random, xStepSize, yStepSize) -> DoublePoint.ZERO));
+
+    nature.setReactionTimeBaseMs(0);
+    nature.setReactionTimeVariationMs(0);
+    nature.setTimeToStepsDivider(LIVE_FOLLOW_STEP_MS);
+    nature.setMinSteps(1);
+    return factory;
+  }
+}
@@ -1,10 +1,14 @@
 package com.github.joonavali.naturalmouse;
 
 import com.github.joonasvali.naturalmouse.support.Flow;
+import com.github.joonasvali.naturalmouse.util.FlowTemplates;
+import com.github.joonasvali.naturalmouse.util.FlowUtil;
+import com.github.joonavali.naturalmouse.testutils.LinearScanFlow;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
+import java.util.Random;
 
 public class FlowTest {
 
@@ -179,4 +183,32 @@ public class FlowTest {
     double sum = step1 + step2 + step3 + step4 + step5;
     Assertions.assertEquals(500d, sum, SMALL_DELTA);
   }
+
+  @Test
+  public void stepSizesMatchLinearScan() {
+    Random random = new Random(1);
+    double[][] characteristicsList = {
+        {1},
+        {1, 2, 3},
+        {0, 0, 5, 0, 1},
+        FlowTemplates.jaggedFlow(),
+        FlowTemplates.stoppingFlow(),
+        FlowUtil.stretchFlow(FlowTemplates.variatingFlow(), 500),
+        FlowUtil.stretchFlow(FlowTemplates.interruptedFlow(), 2000)
+    };
+    int[] stepCounts = {1, 2, 3, 7, 10, 64, 333, 1000};
+    for (double[] characteristics : characteristicsList) {
+      Flow flow = new Flow(characteristics);
+      LinearScanFlow reference = new LinearScanFlow(flow);
+      for (int steps : stepCounts) {
+        double distance = random.nextDouble() * 4000 - 2000;
+        for (int i = 0; i < steps; i++) {
+          double completion = i / (double) steps;
+          Assertions.assertEquals(reference.getStepSize(distance, steps, completion),
+              flow.getStepSize(distance, steps, completion), SMALL_DELTA,
+              characteristics.length + " buckets, step " + i + " of " + steps);
+        }
+      }
+    }
+  }
 }
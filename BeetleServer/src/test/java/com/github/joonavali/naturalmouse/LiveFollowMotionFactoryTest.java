@@ -0,0 +1,71 @@
+package com.github.joonavali.naturalmouse;
+
+import com.github.joonasvali.naturalmouse.api.MouseMotionFactory;
+import com.github.joonasvali.naturalmouse.api.StreamingMouseMotion;
+import com.github.joonasvali.naturalmouse.support.DefaultMouseMotionNature;
+import com.github.joonasvali.naturalmouse.support.LiveFollowSpeedManager;
+import com.github.joonasvali.naturalmouse.util.FactoryTemplates;
+import com.github.joonavali.naturalmouse.testutils.MockMouse;
+import com.github.joonavali.naturalmouse.testutils.MockSystemCalls;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class LiveFollowMotionFactoryTest {
+  private final MockMouse mouse = new MockMouse();
+  // Time only passes when sleeping.
+  private final MockSystemCalls systemCalls = new MockSystemCalls(mouse, 800, 500) {
+    private long time;
+
+    @Override
+    public long currentTimeMillis() {
+      return time;
+    }
+
+    @Override
+    public void sleep(long time) {
+      this.time += time;
+    }
+  };
+
+  @Test
+  public void movesStraightWithinLatencyBudget() throws InterruptedException {
+    MouseMotionFactory factory = FactoryTemplates.createLiveFollowMotionFactory(
+        new DefaultMouseMotionNature(systemCalls, mouse), 33, 20);
+    factory.move(300, 150);
+
+    Assertions.assertEquals(new Point(300, 150), mouse.getMousePosition());
+    // 20 ms in 4 ms steps, plus the starting position.
+    List<Point> points = mouse.getMouseMovements();
+    Assertions.assertEquals(20 / FactoryTemplates.LIVE_FOLLOW_STEP_MS + 1, points.size());
+    for (int i = 1; i < points.size(); i++) {
+      Assertions.assertEquals(points.get(i).x, points.get(i).y * 2, 1);
+    }
+    // No reaction time or overshoot sleeps.
+    Assertions.assertTrue(systemCalls.currentTimeMillis() <= 20, "took " + systemCalls.currentTimeMillis());
+  }
+
+  @Test
+  public void streamingMotionFollowsWithinLatencyBudget() {
+    MouseMotionFactory factory = FactoryTemplates.createLiveFollowMotionFactory(
+        new DefaultMouseMotionNature(systemCalls, mouse), 33, 20);
+    StreamingMouseMotion motion = factory.buildStreaming();
+    motion.setDestination(700, 450);
+    // Across most of the screen in five times the budget, the spring has settled by then.
+    for (long nanos = 0; nanos <= TimeUnit.MILLISECONDS.toNanos(100); nanos += TimeUnit.MILLISECONDS.toNanos(1)) {
+      motion.step(nanos);
+    }
+    Assertions.assertEquals(new Point(700, 450), mouse.getMousePosition());
+  }
+
+  @Test
+  public void movementIsBoundedBySampleInterval() {
+    LiveFollowSpeedManager manager = new LiveFollowSpeedManager(8, 20);
+    Assertions.assertEquals(8, (long) manager.getFlowWithTime(1000).y);
+    manager.setSampleIntervalMs(50);
+    Assertions.assertEquals(20, (long) manager.getFlowWithTime(1000).y);
+  }
+}
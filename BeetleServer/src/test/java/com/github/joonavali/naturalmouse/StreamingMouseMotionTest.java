@@ -0,0 +1,99 @@
+package com.github.joonavali.naturalmouse;
+
+import com.github.joonasvali.naturalmouse.api.StreamingMouseMotion;
+import com.github.joonasvali.naturalmouse.support.DefaultMouseMotionNature;
+import com.github.joonavali.naturalmouse.testutils.MockMouse;
+import com.github.joonavali.naturalmouse.testutils.MockSystemCalls;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+public class StreamingMouseMotionTest {
+  private static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(1) / 120;
+  private final MockMouse mouse = new MockMouse(100, 100);
+  private final StreamingMouseMotion motion =
+      new StreamingMouseMotion(new DefaultMouseMotionNature(new MockSystemCalls(mouse, 800, 500), mouse));
+  private long now;
+
+  @Test
+  public void reachesStillDestinationWithoutOvershooting() {
+    motion.setDestination(400, 100);
+    int lastX = 100;
+    for (int i = 0; i < 120; i++) {
+      step();
+      Point position = mouse.getMousePosition();
+      Assertions.assertTrue(position.x >= lastX && position.x <= 400, "x " + position.x);
+      Assertions.assertEquals(100, position.y);
+      lastX = position.x;
+    }
+    Assertions.assertEquals(new Point(400, 100), mouse.getMousePosition());
+  }
+
+  @Test
+  public void keepsVelocityWhenRetargeted() {
+    motion.setDestination(400, 100);
+    for (int i = 0; i < 5; i++) {
+      step();
+    }
+    double speed = motion.getSpeed();
+    Assertions.assertTrue(speed > 0);
+
+    // A destination further along the way doesn't make the cursor stop first.
+    motion.setDestination(700, 100);
+    step();
+    Assertions.assertTrue(motion.getSpeed() > speed * 0.5, "speed " + motion.getSpeed());
+    Assertions.assertTrue(mouse.getMousePosition().x > 100);
+  }
+
+  @Test
+  public void stopsOnDestinationMovedInFrontOfMovingCursor() {
+    motion.setDestination(700, 100);
+    for (int i = 0; i < 5; i++) {
+      step();
+    }
+    Assertions.assertTrue(motion.getSpeed() > 1000, "speed " + motion.getSpeed());
+
+    // Closer than the cursor would coast, it stops there rather than swinging past and back.
+    int destination = mouse.getMousePosition().x + 5;
+    motion.setDestination(destination, 100);
+    for (int i = 0; i < 60; i++) {
+      step();
+      Assertions.assertTrue(mouse.getMousePosition().x <= destination, "x " + mouse.getMousePosition().x);
+    }
+    Assertions.assertEquals(new Point(destination, 100), mouse.getMousePosition());
+  }
+
+  @Test
+  public void destinationIsLimitedByScreen() {
+    motion.setDestination(-100, 1000);
+    for (int i = 0; i < 240; i++) {
+      step();
+    }
+    Assertions.assertEquals(new Point(0, 499), mouse.getMousePosition());
+  }
+
+  @Test
+  public void speedIsLimited() {
+    motion.setMaxSpeed(1200);
+    motion.setDestination(700, 100);
+    for (int i = 0; i < 12; i++) {
+      step();
+    }
+    // 100 ms at 1200 px/s
+    Assertions.assertTrue(mouse.getMousePosition().x <= 100 + 120 + 1, "x " + mouse.getMousePosition().x);
+  }
+
+  @Test
+  public void doesNothingWithoutTimePassing() {
+    motion.setDestination(400, 100);
+    Assertions.assertTrue(motion.step(now));
+    Assertions.assertFalse(motion.step(now));
+  }
+
+  private void step() {
+    motion.step(now);
+    now += TICK_NANOS;
+  }
+}
@@ -0,0 +1,73 @@
+package com.github.joonavali.naturalmouse.benchmark;
+
+import com.github.joonasvali.naturalmouse.support.Flow;
+import com.github.joonasvali.naturalmouse.util.FlowTemplates;
+import com.github.joonasvali.naturalmouse.util.FlowUtil;
+import com.github.joonavali.naturalmouse.testutils.LinearScanFlow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares Flow.getStepSize against the linear scan it replaced, over all steps of a movement.
+ * The fewer the steps and the more the buckets, the more buckets a single step covers.
+ *
+ * Not run with the tests, run the main method on the test classpath after mvn test-compile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowBenchmark {
+  @Param({"100", "1000", "10000"})
+  public int buckets;
+
+  @Param({"10", "100"})
+  public int steps;
+
+  private Flow flow;
+  private LinearScanFlow linearScan;
+
+  @Setup
+  public void setup() {
+    flow = new Flow(FlowUtil.stretchFlow(FlowTemplates.variatingFlow(), buckets));
+    linearScan = new LinearScanFlow(flow);
+  }
+
+  @Benchmark
+  public double prefixSums() {
+    double sum = 0;
+    for (int i = 0; i < steps; i++) {
+      sum += flow.getStepSize(1000, steps, i / (double) steps);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double linearScan() {
+    double sum = 0;
+    for (int i = 0; i < steps; i++) {
+      sum += linearScan.getStepSize(1000, steps, i / (double) steps);
+    }
+    return sum;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(FlowBenchmark.class.getSimpleName()).build()).run();
+  }
+}
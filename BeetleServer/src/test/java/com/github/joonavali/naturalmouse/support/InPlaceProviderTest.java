@@ -0,0 +1,65 @@
+package com.github.joonavali.naturalmouse.support;
+
+import com.github.joonasvali.naturalmouse.api.InPlaceDeviationProvider;
+import com.github.joonasvali.naturalmouse.api.InPlaceNoiseProvider;
+import com.github.joonasvali.naturalmouse.support.DefaultNoiseProvider;
+import com.github.joonasvali.naturalmouse.support.DoublePoint;
+import com.github.joonasvali.naturalmouse.support.MutableDoublePoint;
+import com.github.joonasvali.naturalmouse.support.SinusoidalDeviationProvider;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class InPlaceProviderTest {
+  private final MutableDoublePoint result = new MutableDoublePoint();
+
+  @Test
+  public void defaultProvidersAreUsedAsTheyAre() {
+    DefaultNoiseProvider noiseProvider = new DefaultNoiseProvider(DefaultNoiseProvider.DEFAULT_NOISINESS_DIVIDER);
+    SinusoidalDeviationProvider deviationProvider =
+        new SinusoidalDeviationProvider(SinusoidalDeviationProvider.DEFAULT_SLOPE_DIVIDER);
+    Assertions.assertSame(noiseProvider, InPlaceNoiseProvider.of(noiseProvider));
+    Assertions.assertSame(deviationProvider, InPlaceDeviationProvider.of(deviationProvider));
+  }
+
+  @Test
+  public void legacyNoiseOverrideIsUsed() {
+    DefaultNoiseProvider provider = new DefaultNoiseProvider(DefaultNoiseProvider.DEFAULT_NOISINESS_DIVIDER) {
+      @Override
+      public DoublePoint getNoise(Random random, double xStepSize, double yStepSize) {
+        return new DoublePoint(3, 4);
+      }
+    };
+    InPlaceNoiseProvider.of(provider).getNoise(new Random(1), 1, 1, result);
+    Assertions.assertEquals(3, result.getX(), 0);
+    Assertions.assertEquals(4, result.getY(), 0);
+  }
+
+  @Test
+  public void legacyDeviationOverrideIsUsed() {
+    SinusoidalDeviationProvider provider =
+        new SinusoidalDeviationProvider(SinusoidalDeviationProvider.DEFAULT_SLOPE_DIVIDER) {
+          @Override
+          public DoublePoint getDeviation(double totalDistanceInPixels, double completionFraction) {
+            return new DoublePoint(5, 6);
+          }
+        };
+    InPlaceDeviationProvider.of(provider).getDeviation(100, 0.5, result);
+    Assertions.assertEquals(5, result.getX(), 0);
+    Assertions.assertEquals(6, result.getY(), 0);
+  }
+
+  @Test
+  public void inPlaceOverrideIsUsedAsItIs() {
+    DefaultNoiseProvider provider = new DefaultNoiseProvider(DefaultNoiseProvider.DEFAULT_NOISINESS_DIVIDER) {
+      @Override
+      public void getNoise(Random random, double xStepSize, double yStepSize, MutableDoublePoint result) {
+        result.set(7, 8);
+      }
+    };
+    Assertions.assertSame(provider, InPlaceNoiseProvider.of(provider));
+    DoublePoint noise = provider.getNoise(new Random(1), 1, 1);
+    Assertions.assertEquals(7, noise.getX(), 0);
+  }
+}
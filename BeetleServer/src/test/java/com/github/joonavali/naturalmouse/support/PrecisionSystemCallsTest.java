@@ -0,0 +1,71 @@
+package com.github.joonavali.naturalmouse.support;
+
+import com.github.joonasvali.naturalmouse.api.SystemCalls;
+import com.github.joonasvali.naturalmouse.support.PrecisionSystemCalls;
+import com.github.joonavali.naturalmouse.testutils.MockMouse;
+import com.github.joonavali.naturalmouse.testutils.MockSystemCalls;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+public class PrecisionSystemCallsTest {
+  // Generous, as the build machine may be busy, the point is that it's never early.
+  private static final long MAX_LATENESS_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+  @Test
+  public void wakesUpAtTheDeadline() throws InterruptedException {
+    PrecisionSystemCalls systemCalls = new PrecisionSystemCalls(null);
+    long deadline = systemCalls.nanoTime();
+    long[] lateness = new long[20];
+    for (int i = 0; i < lateness.length; i++) {
+      deadline += TimeUnit.MICROSECONDS.toNanos(1500);
+      systemCalls.sleepUntilNanos(deadline);
+      lateness[i] = systemCalls.nanoTime() - deadline;
+      Assertions.assertTrue(lateness[i] >= 0, "Woke up early by " + -lateness[i] + " ns");
+    }
+    // A single wake up may be descheduled on a loaded machine, the typical one must be on time.
+    Arrays.sort(lateness);
+    long median = lateness[lateness.length / 2];
+    Assertions.assertTrue(median < MAX_LATENESS_NANOS, "Woke up late by " + median + " ns");
+  }
+
+  @Test
+  public void pastDeadlineReturnsAtOnce() throws InterruptedException {
+    PrecisionSystemCalls systemCalls = new PrecisionSystemCalls(null, 0);
+    long start = systemCalls.nanoTime();
+    systemCalls.sleepUntilNanos(start - TimeUnit.SECONDS.toNanos(1));
+    Assertions.assertTrue(systemCalls.nanoTime() - start < MAX_LATENESS_NANOS);
+  }
+
+  @Test
+  public void sleepIsInterruptible() {
+    PrecisionSystemCalls systemCalls = new PrecisionSystemCalls(null);
+    Thread.currentThread().interrupt();
+    Assertions.assertThrows(InterruptedException.class,
+        () -> systemCalls.sleepUntilNanos(systemCalls.nanoTime() + TimeUnit.SECONDS.toNanos(10)));
+    Assertions.assertFalse(Thread.interrupted());
+  }
+
+  @Test
+  public void defaultClockFollowsMilliseconds() throws InterruptedException {
+    long[] sleptMs = new long[1];
+    SystemCalls systemCalls = new MockSystemCalls(new MockMouse(), 100, 100) {
+      @Override
+      public long currentTimeMillis() {
+        return 7;
+      }
+
+      @Override
+      public void sleep(long time) {
+        sleptMs[0] += time;
+      }
+    };
+    Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(7), systemCalls.nanoTime());
+    systemCalls.sleepUntilNanos(TimeUnit.MILLISECONDS.toNanos(10) + 500_000);
+    Assertions.assertEquals(3, sleptMs[0]);
+    systemCalls.sleepUntilNanos(TimeUnit.MILLISECONDS.toNanos(5));
+    Assertions.assertEquals(3, sleptMs[0]);
+  }
+}
@@ -0,0 +1,79 @@
+package com.github.joonavali.naturalmouse.support.mousemotion;
+
+import com.github.joonasvali.naturalmouse.api.MouseMotion;
+import com.github.joonasvali.naturalmouse.support.DefaultMouseMotionNature;
+import com.github.joonasvali.naturalmouse.support.Flow;
+import com.github.joonasvali.naturalmouse.support.NoOvershootManager;
+import com.github.joonasvali.naturalmouse.support.mousemotion.Trajectory;
+import com.github.joonasvali.naturalmouse.util.Pair;
+import com.github.joonavali.naturalmouse.testutils.MockMouse;
+import com.github.joonavali.naturalmouse.testutils.MockSystemCalls;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+public class MouseMotionAllocationTest {
+  private static final int WARMUP_ROUNDS = 200;
+  private static final int ROUNDS = 20;
+  // A fraction of what a single object per step would take.
+  private static final long MAX_BYTES_PER_STEP = 1;
+
+  private final MockMouse mouse = new MockMouse();
+  private final MockSystemCalls systemCalls = new MockSystemCalls(mouse, 3000, 3000);
+  private final DefaultMouseMotionNature nature = new DefaultMouseMotionNature(systemCalls, mouse);
+
+  @Test
+  public void planningIntoReusedTrajectoryAllocatesNothingPerStep() {
+    com.sun.management.ThreadMXBean threads = getThreadMXBean();
+    nature.setOvershootManager(new NoOvershootManager());
+    Point from = new Point(0, 0);
+    Trajectory trajectory = new Trajectory();
+    // The default divider is 8 ms per step, 2000 pixels allow as many steps.
+    MouseMotion longMotion = createMotion(8000);
+    MouseMotion shortMotion = createMotion(80);
+
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      longMotion.plan(from, trajectory);
+      shortMotion.plan(from, trajectory);
+    }
+    Assertions.assertEquals(10, shortMotion.plan(from, trajectory).size());
+    Assertions.assertEquals(1000, longMotion.plan(from, trajectory).size());
+
+    // Both plans allocate the same for the movement itself, the difference comes from the steps.
+    long longBytes = measure(threads, longMotion, from, trajectory);
+    long shortBytes = measure(threads, shortMotion, from, trajectory);
+    Assertions.assertTrue(longBytes - shortBytes < 990 * MAX_BYTES_PER_STEP,
+        "1000 steps allocated " + longBytes + " bytes, 10 steps " + shortBytes);
+  }
+
+  private MouseMotion createMotion(long timeMs) {
+    nature.setSpeedManager(distance -> new Pair<>(new Flow(new double[]{100}), timeMs));
+    return new MouseMotion(nature, new Random(1), 2000, 0);
+  }
+
+  private static long measure(com.sun.management.ThreadMXBean threads, MouseMotion motion, Point from,
+                              Trajectory trajectory) {
+    long id = Thread.currentThread().getId();
+    long min = Long.MAX_VALUE;
+    for (int i = 0; i < ROUNDS; i++) {
+      long before = threads.getThreadAllocatedBytes(id);
+      motion.plan(from, trajectory);
+      min = Math.min(min, threads.getThreadAllocatedBytes(id) - before);
+    }
+    return min;
+  }
+
+  private static com.sun.management.ThreadMXBean getThreadMXBean() {
+    java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    Assumptions.assumeTrue(threads instanceof com.sun.management.ThreadMXBean,
+        "Allocation counting is not supported by this JVM");
+    com.sun.management.ThreadMXBean result = (com.sun.management.ThreadMXBean) threads;
+    Assumptions.assumeTrue(result.isThreadAllocatedMemorySupported(), "Allocation counting is not supported");
+    result.setThreadAllocatedMemoryEnabled(true);
+    return result;
+  }
+}
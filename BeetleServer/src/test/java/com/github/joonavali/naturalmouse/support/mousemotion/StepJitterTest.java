@@ -0,0 +1,30 @@
+package com.github.joonavali.naturalmouse.support.mousemotion;
+
+import com.github.joonasvali.naturalmouse.support.mousemotion.StepJitter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class StepJitterTest {
+  private static final double SMALL_DELTA = 10e-6;
+
+  @Test
+  public void summarizesLateness() {
+    StepJitter jitter = new StepJitter();
+    Assertions.assertEquals(0, jitter.getMeanNanos(), SMALL_DELTA);
+    Assertions.assertEquals(0, jitter.getStdDevNanos(), SMALL_DELTA);
+
+    jitter.record(1000);
+    jitter.record(3000);
+    jitter.record(-2000);
+    jitter.record(2000);
+    Assertions.assertEquals(4, jitter.getSteps());
+    Assertions.assertEquals(1000, jitter.getMeanNanos(), SMALL_DELTA);
+    // Deviations of 0, 2000, -3000 and 1000 ns.
+    Assertions.assertEquals(Math.sqrt(14_000_000 / 4d), jitter.getStdDevNanos(), 10e-3);
+    Assertions.assertEquals(3000, jitter.getMaxNanos());
+
+    jitter.reset();
+    Assertions.assertEquals(0, jitter.getSteps());
+    Assertions.assertEquals(0, jitter.getMaxNanos());
+  }
+}
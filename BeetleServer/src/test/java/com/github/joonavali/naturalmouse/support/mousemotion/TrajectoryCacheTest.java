@@ -0,0 +1,137 @@
+package com.github.joonavali.naturalmouse.support.mousemotion;
+
+import com.github.joonasvali.naturalmouse.api.MouseMotion;
+import com.github.joonasvali.naturalmouse.api.TrajectoryExecutor;
+import com.github.joonasvali.naturalmouse.support.DefaultMouseMotionNature;
+import com.github.joonasvali.naturalmouse.support.DefaultOvershootManager;
+import com.github.joonasvali.naturalmouse.support.mousemotion.Trajectory;
+import com.github.joonasvali.naturalmouse.support.mousemotion.TrajectoryCache;
+import com.github.joonavali.naturalmouse.testutils.MockMouse;
+import com.github.joonavali.naturalmouse.testutils.MockSystemCalls;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Random;
+
+public class TrajectoryCacheTest {
+  private final MockMouse mouse = new MockMouse();
+  // Time only passes when sleeping.
+  private final MockSystemCalls systemCalls = new MockSystemCalls(mouse, 800, 500) {
+    private long time;
+
+    @Override
+    public long currentTimeMillis() {
+      return time;
+    }
+
+    @Override
+    public void sleep(long time) {
+      this.time += time;
+    }
+  };
+  private final DefaultMouseMotionNature nature = new DefaultMouseMotionNature(systemCalls, mouse);
+  private final Random random = new Random(1);
+
+  public TrajectoryCacheTest() {
+    // The default overshoots are not seeded, which could plan a replay identical to the original.
+    nature.setOvershootManager(new DefaultOvershootManager(new Random(1)));
+  }
+
+  @Test
+  public void repeatedMotionIsReplayed() {
+    TrajectoryCache cache = new TrajectoryCache(16, 8, 1);
+    nature.setTrajectoryCache(cache);
+    Trajectory planned = plan(0, 0, 300, 200);
+    Trajectory replayed = plan(0, 0, 300, 200);
+
+    Assertions.assertEquals(1, cache.getMisses());
+    Assertions.assertEquals(1, cache.getHits());
+    Assertions.assertEquals(0.5, cache.getHitRate(), 10e-6);
+    Assertions.assertEquals(1, cache.size());
+    Assertions.assertTrue(cache.getMemoryBytes() > planned.size() * 16L);
+    Assertions.assertEquals(planned.size(), replayed.size());
+    Assertions.assertEquals(planned.getMovementCount(), replayed.getMovementCount());
+    assertEndsOnTarget(replayed, 300, 200);
+    // The replay is varied.
+    Assertions.assertFalse(Arrays.equals(Arrays.copyOf(planned.getXs(), planned.size()),
+        Arrays.copyOf(replayed.getXs(), replayed.size()))
+        && Arrays.equals(Arrays.copyOf(planned.getYs(), planned.size()),
+        Arrays.copyOf(replayed.getYs(), replayed.size())));
+  }
+
+  @Test
+  public void replayIsStretchedToTheTarget() throws InterruptedException {
+    DefaultOvershootManager overshootManager = new DefaultOvershootManager(new Random(1));
+    overshootManager.setOvershoots(3);
+    nature.setOvershootManager(overshootManager);
+    TrajectoryCache cache = new TrajectoryCache(16, 8, 1);
+    nature.setTrajectoryCache(cache);
+    plan(100, 100, 400, 300);
+    // Same cell of the grid, from elsewhere.
+    mouse.mouseMove(103, 98);
+    Trajectory replayed = plan(103, 98, 405, 301);
+    Assertions.assertEquals(1, cache.getHits());
+    assertEndsOnTarget(replayed, 405, 301);
+    for (int i = 0; i < replayed.size(); i++) {
+      Assertions.assertTrue(replayed.getXs()[i] >= 0 && replayed.getXs()[i] < 800);
+      Assertions.assertTrue(replayed.getYs()[i] >= 0 && replayed.getYs()[i] < 500);
+    }
+
+    Assertions.assertTrue(new TrajectoryExecutor(nature).execute(replayed, (x, y) -> {
+    }));
+    Assertions.assertEquals(new Point(405, 301), mouse.getMousePosition());
+  }
+
+  @Test
+  public void leastRecentlyUsedIsEvicted() {
+    TrajectoryCache cache = new TrajectoryCache(2, 8, 1);
+    nature.setTrajectoryCache(cache);
+    plan(0, 0, 100, 0);
+    plan(0, 0, 0, 100);
+    plan(0, 0, 100, 0);
+    long memoryBytes = cache.getMemoryBytes();
+    plan(0, 0, 100, 100);
+    Assertions.assertEquals(1, cache.getEvictions());
+    Assertions.assertEquals(2, cache.size());
+    Assertions.assertEquals(1, cache.getHits());
+
+    // The first one was used last, the second one was evicted.
+    plan(0, 0, 100, 0);
+    Assertions.assertEquals(2, cache.getHits());
+    plan(0, 0, 0, 100);
+    Assertions.assertEquals(2, cache.getHits());
+    Assertions.assertEquals(4, cache.getMisses());
+    Assertions.assertTrue(memoryBytes > 0);
+
+    cache.clear();
+    Assertions.assertEquals(0, cache.size());
+    Assertions.assertEquals(0, cache.getMemoryBytes());
+  }
+
+  @Test
+  public void variantsArePlannedSeparately() {
+    TrajectoryCache cache = new TrajectoryCache(16, 8, 3);
+    nature.setTrajectoryCache(cache);
+    for (int i = 0; i < 30; i++) {
+      plan(0, 0, 300, 200);
+    }
+    Assertions.assertEquals(3, cache.size());
+    Assertions.assertEquals(3, cache.getMisses());
+    Assertions.assertEquals(27, cache.getHits());
+  }
+
+  private Trajectory plan(int fromX, int fromY, int xDest, int yDest) {
+    return new MouseMotion(nature, random, xDest, yDest).plan(new Point(fromX, fromY));
+  }
+
+  private static void assertEndsOnTarget(Trajectory trajectory, int x, int y) {
+    int last = trajectory.size() - 1;
+    Assertions.assertEquals(x, trajectory.getXs()[last]);
+    Assertions.assertEquals(y, trajectory.getYs()[last]);
+    int lastMovement = trajectory.getMovementCount() - 1;
+    Assertions.assertEquals(x, trajectory.getMovementDestX(lastMovement));
+    Assertions.assertEquals(y, trajectory.getMovementDestY(lastMovement));
+  }
+}
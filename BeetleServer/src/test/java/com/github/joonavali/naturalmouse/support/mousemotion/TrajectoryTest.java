@@ -0,0 +1,137 @@
+package com.github.joonavali.naturalmouse.support.mousemotion;
+
+import com.github.joonasvali.naturalmouse.api.MouseMotion;
+import com.github.joonasvali.naturalmouse.api.TrajectoryExecutor;
+import com.github.joonasvali.naturalmouse.support.DefaultMouseMotionNature;
+import com.github.joonasvali.naturalmouse.support.DefaultOvershootManager;
+import com.github.joonasvali.naturalmouse.support.mousemotion.Trajectory;
+import com.github.joonavali.naturalmouse.testutils.MockMouse;
+import com.github.joonavali.naturalmouse.testutils.MockSystemCalls;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+public class TrajectoryTest {
+  private final MockMouse mouse = new MockMouse();
+  // Time only passes when sleeping.
+  private final MockSystemCalls systemCalls = new MockSystemCalls(mouse, 800, 500) {
+    private long timeNanos;
+
+    @Override
+    public long currentTimeMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(timeNanos);
+    }
+
+    @Override
+    public void sleep(long time) {
+      timeNanos += TimeUnit.MILLISECONDS.toNanos(time);
+    }
+
+    @Override
+    public long nanoTime() {
+      return timeNanos;
+    }
+
+    @Override
+    public void sleepUntilNanos(long deadlineNanos) {
+      timeNanos = Math.max(timeNanos, deadlineNanos);
+    }
+  };
+  private final DefaultMouseMotionNature nature = new DefaultMouseMotionNature(systemCalls, mouse);
+
+  @Test
+  public void planOnlyComputesTheSteps() {
+    DefaultOvershootManager overshootManager = new DefaultOvershootManager(new Random(1));
+    overshootManager.setOvershoots(3);
+    nature.setOvershootManager(overshootManager);
+    Trajectory trajectory = new MouseMotion(nature, new Random(1), 300, 200).plan(new Point(0, 0));
+    // Only the starting position.
+    Assertions.assertEquals(1, mouse.getMouseMovements().size());
+    Assertions.assertEquals(0, systemCalls.currentTimeMillis());
+
+    int last = trajectory.getMovementCount() - 1;
+    Assertions.assertTrue(last > 0);
+    Assertions.assertEquals(300, trajectory.getMovementDestX(last));
+    Assertions.assertEquals(200, trajectory.getMovementDestY(last));
+    Assertions.assertEquals(300, trajectory.getXs()[trajectory.size() - 1]);
+    Assertions.assertEquals(200, trajectory.getYs()[trajectory.size() - 1]);
+    for (int i = 1; i < trajectory.size(); i++) {
+      Assertions.assertTrue(trajectory.getOffsetsNanos()[i] >= trajectory.getOffsetsNanos()[i - 1]);
+    }
+    for (int movement = 1; movement <= last; movement++) {
+      // Every overshoot is followed by the reaction time.
+      Assertions.assertTrue(trajectory.getMovementStartNanos(movement) >
+          trajectory.getOffsetsNanos()[trajectory.getMovementStart(movement) - 1]);
+    }
+  }
+
+  @Test
+  public void executorPlaysTheSteps() throws InterruptedException {
+    Trajectory trajectory = new MouseMotion(nature, new Random(1), 300, 200).plan(new Point(0, 0));
+    List<Point> executed = new ArrayList<>();
+    TrajectoryExecutor executor = new TrajectoryExecutor(nature);
+    Assertions.assertTrue(executor.execute(trajectory, (x, y) -> executed.add(new Point(x, y))));
+
+    Assertions.assertEquals(new Point(300, 200), mouse.getMousePosition());
+    Assertions.assertEquals(trajectory.size(), executed.size());
+    for (int i = 0; i < trajectory.size(); i++) {
+      Assertions.assertEquals(new Point(trajectory.getXs()[i], trajectory.getYs()[i]), executed.get(i));
+    }
+    Assertions.assertEquals(trajectory.getDurationNanos(), systemCalls.nanoTime());
+    // The steps were set right when they were due.
+    Assertions.assertEquals(trajectory.size(), executor.getJitter().getSteps());
+    Assertions.assertEquals(0, executor.getJitter().getMaxNanos());
+  }
+
+  @Test
+  public void trajectoryIsReused() {
+    DefaultOvershootManager overshootManager = new DefaultOvershootManager(new Random(1));
+    overshootManager.setOvershoots(0);
+    nature.setOvershootManager(overshootManager);
+    Trajectory trajectory = new MouseMotion(nature, new Random(1), 400, 10).plan(new Point(0, 0));
+    int[] xs = trajectory.getXs();
+    new MouseMotion(nature, new Random(1), 10, 20).plan(new Point(0, 0), trajectory);
+    Assertions.assertSame(xs, trajectory.getXs());
+    Assertions.assertEquals(1, trajectory.getMovementCount());
+    Assertions.assertEquals(10, trajectory.getXs()[trajectory.size() - 1]);
+    Assertions.assertEquals(20, trajectory.getYs()[trajectory.size() - 1]);
+  }
+
+  @Test
+  public void overshootsClampedToTheScreenEdgePlanWithoutSteps() throws InterruptedException {
+    int clampedMovements = 0;
+    for (int seed = 0; seed < 10; seed++) {
+      DefaultOvershootManager overshootManager = new DefaultOvershootManager(new Random(seed));
+      overshootManager.setOvershoots(100);
+      nature.setOvershootManager(overshootManager);
+      // Aimed at the right edge, so overshoots past it are clamped onto the edge, sometimes onto the pixel the
+      // previous one ended on.
+      Trajectory trajectory = new MouseMotion(nature, new Random(seed), 799, 400).plan(new Point(0, 0));
+
+      for (int movement = 0; movement < trajectory.getMovementCount(); movement++) {
+        if (trajectory.getMovementStart(movement) == trajectory.getMovementEnd(movement)) {
+          clampedMovements++;
+        }
+      }
+      for (int i = 0; i < trajectory.size(); i++) {
+        Assertions.assertTrue(trajectory.getXs()[i] >= 0 && trajectory.getXs()[i] < 800);
+        Assertions.assertTrue(trajectory.getYs()[i] >= 0 && trajectory.getYs()[i] < 500);
+        if (i > 0) {
+          Assertions.assertTrue(trajectory.getOffsetsNanos()[i] >= trajectory.getOffsetsNanos()[i - 1]);
+        }
+      }
+      Assertions.assertEquals(799, trajectory.getXs()[trajectory.size() - 1]);
+      Assertions.assertEquals(400, trajectory.getYs()[trajectory.size() - 1]);
+
+      Assertions.assertTrue(new TrajectoryExecutor(nature).execute(trajectory, (x, y) -> { }));
+      Assertions.assertEquals(new Point(799, 400), mouse.getMousePosition());
+    }
+    // The seeds cover movements which end where they started.
+    Assertions.assertTrue(clampedMovements > 0);
+  }
+}
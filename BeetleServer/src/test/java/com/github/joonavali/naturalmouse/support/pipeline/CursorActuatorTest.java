@@ -0,0 +1,90 @@
+package com.github.joonavali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.support.pipeline.CursorActuator;
+import com.github.joonasvali.naturalmouse.support.pipeline.CursorController;
+import com.github.joonasvali.naturalmouse.support.pipeline.PoseMailbox;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+import com.github.joonavali.naturalmouse.testutils.MockMouse;
+import com.github.joonavali.naturalmouse.testutils.MockSystemCalls;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Point;
+
+public class CursorActuatorTest {
+  private final MockMouse mouse = new MockMouse();
+  private final PoseMailbox mailbox = new PoseMailbox();
+  private final PoseSample sample = new PoseSample();
+
+  // Puts the cursor at the pose, as pixels.
+  private final CursorController controller = new CursorController() {
+    private int x;
+    private int y;
+
+    @Override
+    public boolean update(PoseSample pose, long nowNanos) {
+      if (pose == null) {
+        return false;
+      }
+      x = (int) pose.tx;
+      y = (int) pose.ty;
+      return true;
+    }
+
+    @Override
+    public int getX() {
+      return x;
+    }
+
+    @Override
+    public int getY() {
+      return y;
+    }
+  };
+
+  @Test
+  public void setsCursorOncePerTickToNewestPose() {
+    CursorActuator actuator = new CursorActuator(new MockSystemCalls(mouse, 1000, 1000), mailbox, controller, 60);
+    publish(10, 20);
+    publish(30, 40);
+    actuator.tick(0);
+    actuator.tick(1);
+    publish(30, 40);
+    actuator.tick(2);
+    publish(50, 60);
+    actuator.tick(3);
+
+    Assertions.assertEquals(4, actuator.getTicks());
+    Assertions.assertEquals(2, actuator.getCursorUpdates());
+    // The first position is where MockMouse starts.
+    Assertions.assertEquals(3, mouse.getMouseMovements().size());
+    Assertions.assertEquals(new Point(30, 40), mouse.getMouseMovements().get(1));
+    Assertions.assertEquals(new Point(50, 60), mouse.getMouseMovements().get(2));
+  }
+
+  @Test
+  public void rateIsClamped() {
+    MockSystemCalls systemCalls = new MockSystemCalls(mouse, 1000, 1000);
+    Assertions.assertEquals(CursorActuator.MIN_RATE_HZ, new CursorActuator(systemCalls, mailbox, controller, 1).getRateHz());
+    Assertions.assertEquals(CursorActuator.MAX_RATE_HZ, new CursorActuator(systemCalls, mailbox, controller, 1000).getRateHz());
+  }
+
+  @Test
+  public void ticksAtConfiguredRate() throws InterruptedException {
+    CursorActuator actuator = new CursorActuator(new MockSystemCalls(mouse, 1000, 1000), mailbox, controller, 200);
+    Thread thread = actuator.start();
+    Thread.sleep(500);
+    actuator.stop();
+    thread.join();
+
+    // Generous bounds, the test machine may be busy.
+    Assertions.assertTrue(actuator.getTicks() + actuator.getMissedTicks() >= 50, "ticks " + actuator.getTicks());
+    Assertions.assertTrue(actuator.getTicks() <= 110, "ticks " + actuator.getTicks());
+  }
+
+  private void publish(double x, double y) {
+    sample.tx = x;
+    sample.ty = y;
+    mailbox.publish(sample);
+  }
+}
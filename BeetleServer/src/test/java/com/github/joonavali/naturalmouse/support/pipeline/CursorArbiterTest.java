@@ -0,0 +1,411 @@
+package com.github.joonavali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.support.pipeline.ArbitrationPolicy;
+import com.github.joonasvali.naturalmouse.support.pipeline.CursorArbiter;
+import com.github.joonasvali.naturalmouse.support.pipeline.OutlierRejector;
+import com.github.joonasvali.naturalmouse.support.pipeline.PipelineConfig;
+import com.github.joonasvali.naturalmouse.support.pipeline.PoseClient;
+import com.github.joonasvali.naturalmouse.support.pipeline.PoseCursorMapper;
+import com.github.joonasvali.naturalmouse.support.pose.PointingMode;
+import com.github.joonasvali.naturalmouse.support.pose.PoseCodecType;
+import com.github.joonasvali.naturalmouse.support.pose.PoseHandshake;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+import com.github.joonasvali.naturalmouse.support.pose.TrackingFailureReason;
+import com.github.joonasvali.naturalmouse.support.pose.TrackingState;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+public class CursorArbiterTest {
+  private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  private final PoseCursorMapper mapper = new PoseCursorMapper(new Rectangle(0, 0, 1000, 1000), 500, 500);
+  private final PoseSample sample = new PoseSample();
+  private long now;
+
+  @Test
+  public void clientsKeepTheirOwnBaselines() {
+    CursorArbiter arbiter = arbiter(ArbitrationPolicy.SUM);
+    PoseClient first = arbiter.connect("first");
+    PoseClient second = arbiter.connect("second");
+    // Far apart positions must not turn into a jump between the clients.
+    publish(first, 0.0, 0.0);
+    publish(second, 5.0, 5.0);
+    tick(arbiter);
+    publish(first, 0.01, 0.0);
+    publish(second, 5.0, 5.02);
+    tick(arbiter);
+
+    assertCursor(arbiter, 510, 520);
+  }
+
+  @Test
+  public void firstOwnerLockIgnoresOthersUntilIdle() {
+    CursorArbiter arbiter = arbiter(ArbitrationPolicy.FIRST_OWNER_LOCK);
+    PoseClient first = arbiter.connect("first");
+    PoseClient second = arbiter.connect("second");
+    baseline(arbiter, first, second);
+
+    publish(first, 0.01, 0);
+    tick(arbiter);
+    Assertions.assertSame(first, arbiter.getOwner());
+    publish(second, 0, 0.05);
+    tick(arbiter);
+    assertCursor(arbiter, 510, 500);
+
+    now += CursorArbiter.OWNER_IDLE_TIMEOUT_NS;
+    publish(second, 0, 0.06);
+    tick(arbiter);
+    Assertions.assertSame(second, arbiter.getOwner());
+    assertCursor(arbiter, 510, 510);
+  }
+
+  @Test
+  public void lastWriterTakesOverWhenOwnerPauses() {
+    CursorArbiter arbiter = arbiter(ArbitrationPolicy.LAST_WRITER_WINS);
+    PoseClient first = arbiter.connect("first");
+    PoseClient second = arbiter.connect("second");
+    baseline(arbiter, first, second);
+
+    publish(first, 0.01, 0);
+    publish(second, 0, 0.01);
+    tick(arbiter);
+    Assertions.assertSame(first, arbiter.getOwner());
+
+    // The owner keeps moving, the other one doesn't get the cursor.
+    publish(first, 0.02, 0);
+    publish(second, 0, 0.02);
+    tick(arbiter);
+    Assertions.assertSame(first, arbiter.getOwner());
+    assertCursor(arbiter, 520, 500);
+
+    now += CursorArbiter.LAST_WRITER_HOLD_NS;
+    publish(second, 0, 0.03);
+    tick(arbiter);
+    Assertions.assertSame(second, arbiter.getOwner());
+    assertCursor(arbiter, 520, 510);
+  }
+
+  @Test
+  public void ownerIsReleasedOnDisconnect() {
+    CursorArbiter arbiter = arbiter(ArbitrationPolicy.FIRST_OWNER_LOCK);
+    PoseClient first = arbiter.connect("first");
+    PoseClient second = arbiter.connect("second");
+    baseline(arbiter, first, second);
+    publish(first, 0.01, 0);
+    tick(arbiter);
+
+    arbiter.disconnect(first);
+    publish(second, 0, 0.01);
+    tick(arbiter);
+    Assertions.assertSame(second, arbiter.getOwner());
+    Assertions.assertEquals(1, arbiter.getClientCount());
+  }
+
+  @Test
+  public void jitterDoesNotClaimCursor() {
+    CursorArbiter arbiter = arbiter(ArbitrationPolicy.LAST_WRITER_WINS);
+    PoseClient client = arbiter.connect("client");
+    baseline(arbiter, client);
+    publish(client, CursorArbiter.CLAIM_MOTION_METERS / 2, 0);
+    Assertions.assertFalse(tick(arbiter));
+    Assertions.assertNull(arbiter.getOwner());
+  }
+
+  @Test
+  public void orientationAimsAbsolutely() {
+    CursorArbiter arbiter = arbiter(ArbitrationPolicy.LAST_WRITER_WINS);
+    // 40 degrees across 1000 pixels.
+    arbiter.setPointerSpanDegrees(40);
+    PoseClient client = arbiter.connect("pointer");
+    PoseHandshake hello = new PoseHandshake();
+    hello.codecId = PoseCodecType.BINARY.getId();
+    hello.setPointingMode(PointingMode.ORIENTATION);
+    client.onHandshake(hello);
+    Assertions.assertEquals(PointingMode.ORIENTATION, client.getPointingMode());
+
+    aim(client, 0, 0);
+    tick(arbiter);
+    aim(client, 10, 0);
+    tick(arbiter);
+    assertCursor(arbiter, 750, 500);
+    aim(client, 0, 4);
+    tick(arbiter);
+    assertCursor(arbiter, 500, 400);
+
+    // Aiming far off the screen and back returns to the same spot.
+    aim(client, -60, 0);
+    tick(arbiter);
+    assertCursor(arbiter, 0, 500);
+    aim(client, 0, 4);
+    tick(arbiter);
+    assertCursor(arbiter, 500, 400);
+
+    aim(client, 10, 0);
+    arbiter.recenterPointer();
+    tick(arbiter);
+    assertCursor(arbiter, 500, 500);
+    aim(client, 0, 0);
+    tick(arbiter);
+    assertCursor(arbiter, 250, 500);
+  }
+
+  @Test
+  public void orientationNeedsQuaternion() {
+    CursorArbiter arbiter = arbiter(ArbitrationPolicy.LAST_WRITER_WINS);
+    PoseClient client = arbiter.connect("text");
+    PoseHandshake hello = new PoseHandshake();
+    hello.codecId = PoseCodecType.TEXT.getId();
+    hello.setPointingMode(PointingMode.ORIENTATION);
+    client.onHandshake(hello);
+    Assertions.assertEquals(PointingMode.TRANSLATION, client.getPointingMode());
+  }
+
+  @Test
+  public void handshakeAnnouncesSampleRate() {
+    CursorArbiter arbiter = arbiter(ArbitrationPolicy.LAST_WRITER_WINS);
+    PoseClient client = arbiter.connect("client");
+    Assertions.assertEquals(0, client.getAnnouncedSampleRateHz());
+    PoseHandshake hello = new PoseHandshake();
+    hello.codecId = PoseCodecType.BINARY.getId();
+    hello.sampleRateHz = 60;
+    client.onHandshake(hello);
+    Assertions.assertEquals(60, client.getAnnouncedSampleRateHz());
+  }
+
+  @Test
+  public void trackingLossFreezesCursorAndResumesWithoutJump() {
+    CursorArbiter arbiter = arbiter(ArbitrationPolicy.LAST_WRITER_WINS);
+    PoseClient client = arbiter.connect("client");
+    baseline(arbiter, client);
+    publish(client, 0.01, 0);
+    tick(arbiter);
+    assertCursor(arbiter, 510, 500);
+
+    sample.trackingState = TrackingState.PAUSED;
+    sample.failureReason = TrackingFailureReason.INSUFFICIENT_FEATURES;
+    publish(client, 0.4, 0.4);
+    Assertions.assertFalse(client.isTracking());
+    Assertions.assertFalse(tick(arbiter));
+    assertCursor(arbiter, 510, 500);
+
+    // ARCore puts the phone somewhere else after the loss, the motion continues from where it stopped.
+    sample.trackingState = TrackingState.TRACKING;
+    sample.failureReason = TrackingFailureReason.NONE;
+    publish(client, 0.3, 0.3);
+    tick(arbiter);
+    assertCursor(arbiter, 510, 500);
+    publish(client, 0.31, 0.3);
+    tick(arbiter);
+    assertCursor(arbiter, 520, 500);
+    Assertions.assertEquals(1, client.getTrackingLosses());
+    Assertions.assertEquals(0, arbiter.getRejectedSamples());
+  }
+
+  @Test
+  public void trackingLossResetsBaselineWithoutRejectStage() {
+    CursorArbiter arbiter = arbiter(ArbitrationPolicy.LAST_WRITER_WINS);
+    arbiter.setPipelineConfig(filterOnly());
+    PoseClient client = arbiter.connect("client");
+    baseline(arbiter, client);
+    publish(client, 0.01, 0);
+    tick(arbiter);
+    assertCursor(arbiter, 510, 500);
+
+    sample.trackingState = TrackingState.PAUSED;
+    publish(client, 0.4, 0.4);
+    tick(arbiter);
+    sample.trackingState = TrackingState.TRACKING;
+    publish(client, 0.3, 0.3);
+    tick(arbiter);
+    assertCursor(arbiter, 510, 500);
+    publish(client, 0.31, 0.3);
+    tick(arbiter);
+    assertCursor(arbiter, 520, 500);
+  }
+
+  @Test
+  public void trackingLossBetweenTicksWithoutRejectStageDoesNotJump() {
+    CursorArbiter arbiter = arbiter(ArbitrationPolicy.LAST_WRITER_WINS);
+    arbiter.setPipelineConfig(filterOnly());
+    PoseClient client = arbiter.connect("client");
+    Assertions.assertNull(client.getPipeline().getStage(OutlierRejector.class));
+    baseline(arbiter, client);
+    publish(client, 0.01, 0);
+    tick(arbiter);
+    assertCursor(arbiter, 510, 500);
+
+    // Lost and found again before the arbiter ever sees the client not tracking.
+    publish(client, 0.02, 0);
+    sample.trackingState = TrackingState.PAUSED;
+    publish(client, 0.4, 0.4);
+    sample.trackingState = TrackingState.TRACKING;
+    publish(client, 0.3, 0.3);
+    tick(arbiter);
+    assertCursor(arbiter, 510, 500);
+    publish(client, 0.31, 0.3);
+    tick(arbiter);
+    publish(client, 0.32, 0.3);
+    tick(arbiter);
+    assertCursor(arbiter, 520, 500);
+  }
+
+  @Test
+  public void workspacePlacesCursorAbsolutely() {
+    CursorArbiter arbiter = arbiter(ArbitrationPolicy.LAST_WRITER_WINS);
+    arbiter.getOutlierSettings().setEnabled(false);
+    PoseClient client = arbiter.connect("client");
+    baseline(arbiter, client);
+
+    // Calibrated on a 50 cm x 50 cm area in the air, y is up in the world.
+    arbiter.startWorkspaceCalibration();
+    double[][] corners = {{-0.2, 0.25, 0}, {0.3, 0.25, 0}, {0.3, -0.25, 0}, {-0.2, -0.25, 0}};
+    for (double[] corner : corners) {
+      publish(client, corner[0], corner[1]);
+      tick(arbiter);
+      arbiter.captureWorkspaceCorner();
+      tick(arbiter);
+    }
+    Assertions.assertNull(arbiter.getWorkspaceCalibration());
+    Assertions.assertNotNull(arbiter.getWorkspace());
+
+    publish(client, 0.05, 0);
+    tick(arbiter);
+    publish(client, 0.0505, 0);
+    tick(arbiter);
+    assertCursor(arbiter, 500, 500);
+    // Far past the edge and back, nothing is lost at the edge.
+    publish(client, 1.5, 0);
+    tick(arbiter);
+    assertCursor(arbiter, 999, 500);
+    publish(client, 0.0505, 0);
+    tick(arbiter);
+    assertCursor(arbiter, 500, 500);
+
+    arbiter.setWorkspace(null);
+    tick(arbiter);
+    publish(client, 0.06, 0);
+    tick(arbiter);
+    publish(client, 0.07, 0);
+    tick(arbiter);
+    assertCursor(arbiter, 510, 500);
+  }
+
+  @Test
+  public void trackingLossResumesWithoutJumpWithOutlierRejectionOff() {
+    CursorArbiter arbiter = arbiter(ArbitrationPolicy.LAST_WRITER_WINS);
+    arbiter.getOutlierSettings().setEnabled(false);
+    PoseClient client = arbiter.connect("client");
+    baseline(arbiter, client);
+    publish(client, 0.01, 0);
+    tick(arbiter);
+    assertCursor(arbiter, 510, 500);
+
+    sample.trackingState = TrackingState.PAUSED;
+    publish(client, 0.4, 0.4);
+    tick(arbiter);
+    sample.trackingState = TrackingState.TRACKING;
+    publish(client, 0.3, 0.3);
+    tick(arbiter);
+    assertCursor(arbiter, 510, 500);
+    publish(client, 0.31, 0.3);
+    tick(arbiter);
+    assertCursor(arbiter, 520, 500);
+  }
+
+  @Test
+  public void workspaceKeepsMappingOverTrackingLossAndJumps() {
+    CursorArbiter arbiter = arbiter(ArbitrationPolicy.LAST_WRITER_WINS);
+    PoseClient client = arbiter.connect("client");
+    baseline(arbiter, client);
+
+    // The rejection stays on, the corners are far apart and taken for jumps.
+    arbiter.startWorkspaceCalibration();
+    double[][] corners = {{-0.2, 0.25, 0}, {0.3, 0.25, 0}, {0.3, -0.25, 0}, {-0.2, -0.25, 0}};
+    for (double[] corner : corners) {
+      publish(client, corner[0], corner[1]);
+      tick(arbiter);
+      arbiter.captureWorkspaceCorner();
+      tick(arbiter);
+    }
+    Assertions.assertNotNull(arbiter.getWorkspace());
+    publishAndSettle(arbiter, client, 0.05, 0);
+    assertCursor(arbiter, 500, 500);
+
+    // Moved while not tracking, the cursor goes where the phone now is on the workspace.
+    sample.trackingState = TrackingState.PAUSED;
+    publish(client, 0.05, 0);
+    tick(arbiter);
+    sample.trackingState = TrackingState.TRACKING;
+    publishAndSettle(arbiter, client, 0.2, 0);
+    Assertions.assertEquals(800, arbiter.getX(), 1);
+    Assertions.assertEquals(500, arbiter.getY(), 1);
+
+    // A jump is rejected by the OutlierRejector, the absolute mode follows the phone anyway.
+    long rejected = arbiter.getRejectedSamples();
+    publishAndSettle(arbiter, client, -0.1, 0.125);
+    Assertions.assertTrue(arbiter.getRejectedSamples() > rejected);
+    Assertions.assertEquals(200, arbiter.getX(), 1);
+    Assertions.assertEquals(250, arbiter.getY(), 1);
+
+    publishAndSettle(arbiter, client, 0.05, 0);
+    assertCursor(arbiter, 500, 500);
+  }
+
+  private void publishAndSettle(CursorArbiter arbiter, PoseClient client, double tx, double ty) {
+    for (int i = 0; i < 3; i++) {
+      publish(client, tx, ty);
+      tick(arbiter);
+    }
+  }
+
+  private CursorArbiter arbiter(ArbitrationPolicy policy) {
+    mapper.setGain(1000, 1000);
+    CursorArbiter arbiter = new CursorArbiter(mapper, policy);
+    // The samples here are exact, smoothing and prediction would only blur the expected positions.
+    arbiter.getFilterSettings().setEnabled(false);
+    arbiter.getPredictionSettings().setEnabled(false);
+    return arbiter;
+  }
+
+  private static PipelineConfig filterOnly() {
+    Properties properties = new Properties();
+    properties.setProperty("stages", "filter");
+    return new PipelineConfig(properties);
+  }
+
+  private void baseline(CursorArbiter arbiter, PoseClient... clients) {
+    for (PoseClient client : clients) {
+      publish(client, 0, 0);
+    }
+    tick(arbiter);
+  }
+
+  private void publish(PoseClient client, double tx, double ty) {
+    sample.tx = tx;
+    sample.ty = ty;
+    client.onPose(sample);
+  }
+
+  // Turning right by yaw, then tilting up by pitch.
+  private void aim(PoseClient client, double yawDegrees, double pitchDegrees) {
+    double halfYaw = -Math.toRadians(yawDegrees) / 2;
+    double halfPitch = Math.toRadians(pitchDegrees) / 2;
+    sample.qw = Math.cos(halfYaw) * Math.cos(halfPitch);
+    sample.qx = Math.cos(halfYaw) * Math.sin(halfPitch);
+    sample.qy = Math.sin(halfYaw) * Math.cos(halfPitch);
+    sample.qz = -Math.sin(halfYaw) * Math.sin(halfPitch);
+    client.onPose(sample);
+  }
+
+  private boolean tick(CursorArbiter arbiter) {
+    now += TICK_NANOS;
+    return arbiter.update(null, now);
+  }
+
+  private void assertCursor(CursorArbiter arbiter, int x, int y) {
+    Assertions.assertEquals(new Point(x, y), new Point(arbiter.getX(), arbiter.getY()));
+  }
+}
@@ -0,0 +1,60 @@
+package com.github.joonavali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.support.pipeline.DisplayTopology;
+import com.github.joonasvali.naturalmouse.support.pipeline.PoseCursorMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.util.Arrays;
+
+public class DisplayTopologyTest {
+  // A 1920x1080 primary with a denser 2560x1440 one on its left, top aligned, so there's a gap below the primary.
+  private final DisplayTopology displays = new DisplayTopology(Arrays.asList(
+      new DisplayTopology.Display("primary", new Rectangle(0, 0, 1920, 1080), 96),
+      new DisplayTopology.Display("left", new Rectangle(-2560, 0, 2560, 1440), 144)));
+
+  @Test
+  public void boundsAreUnionOfDisplays() {
+    Assertions.assertEquals(new Rectangle(-2560, 0, 4480, 1440), displays.getBounds());
+    DisplayTopology within = displays.within(displays.getBounds());
+    Assertions.assertEquals(new Rectangle(2560, 0, 1920, 1080), within.getDisplays().get(0).getBounds());
+    Assertions.assertEquals(new Rectangle(0, 0, 2560, 1440), within.getDisplays().get(1).getBounds());
+  }
+
+  @Test
+  public void displayAtPositionOrClosest() {
+    Assertions.assertEquals("left", displays.getDisplayAt(-1, 1300).getId());
+    Assertions.assertEquals("primary", displays.getDisplayAt(0, 0).getId());
+    // In the gap below the primary, closer to it than to the left one.
+    Assertions.assertEquals("primary", displays.getDisplayAt(1500, 1200).getId());
+    Assertions.assertEquals(1.5, displays.getGainFactor(-100, 100), 1e-12);
+    Assertions.assertEquals(1, displays.getGainFactor(100, 100), 1e-12);
+  }
+
+  @Test
+  public void mapperKeepsCursorOnDisplays() {
+    Rectangle area = displays.getBounds();
+    PoseCursorMapper mapper = new PoseCursorMapper(new Rectangle(area.getSize()), 3000, 500);
+    mapper.setDisplays(displays.within(area));
+    mapper.setGain(1000, 1000);
+
+    // Down past the bottom of the primary into the gap.
+    mapper.move(0, 1);
+    Assertions.assertEquals(new Point(3000, 1079), new Point(mapper.getX(), mapper.getY()));
+    // Along the bottom edge onto the denser monitor, where the same motion goes further.
+    mapper.move(-0.5, 0);
+    Assertions.assertEquals(2500, mapper.getX());
+    mapper.move(0, 0.1);
+    Assertions.assertEquals(1079 + 150, mapper.getY());
+  }
+
+  @Test
+  public void sameDisplaysAreEqual() {
+    DisplayTopology same = new DisplayTopology(Arrays.asList(
+        new DisplayTopology.Display("primary", new Rectangle(0, 0, 1920, 1080), 96),
+        new DisplayTopology.Display("left", new Rectangle(-2560, 0, 2560, 1440), 144)));
+    Assertions.assertEquals(displays, same);
+    Assertions.assertNotEquals(displays, displays.within(new Rectangle(0, 0, 1920, 1080)));
+  }
+}
@@ -0,0 +1,67 @@
+package com.github.joonavali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.support.pipeline.GainCurve;
+import com.github.joonasvali.naturalmouse.support.pipeline.GainTable;
+import com.github.joonasvali.naturalmouse.support.pipeline.PiecewiseGainCurve;
+import com.github.joonasvali.naturalmouse.support.pipeline.PoseCursorMapper;
+import com.github.joonasvali.naturalmouse.support.pipeline.SigmoidGainCurve;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+
+public class GainCurveTest {
+  @Test
+  public void piecewiseInterpolatesBetweenPoints() {
+    GainCurve curve = PiecewiseGainCurve.parse("0.1:0.5, 0.3:1.5, 0.5:2");
+    Assertions.assertEquals(0.5, curve.getFactor(0), 1e-12);
+    Assertions.assertEquals(1.0, curve.getFactor(0.2), 1e-12);
+    Assertions.assertEquals(1.75, curve.getFactor(0.4), 1e-12);
+    Assertions.assertEquals(2, curve.getFactor(7), 1e-12);
+  }
+
+  @Test
+  public void piecewiseRejectsUnorderedSpeeds() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> PiecewiseGainCurve.parse("0.3:1,0.1:2"));
+  }
+
+  @Test
+  public void sigmoidStartsSlowAndIncreases() {
+    SigmoidGainCurve curve = new SigmoidGainCurve();
+    Assertions.assertEquals(SigmoidGainCurve.DEFAULT_SLOW_FACTOR, curve.getFactor(0), 1e-12);
+    double previous = 0;
+    for (double speed = 0; speed < 2; speed += 0.01) {
+      double factor = curve.getFactor(speed);
+      Assertions.assertTrue(factor >= previous);
+      previous = factor;
+    }
+    Assertions.assertEquals(SigmoidGainCurve.DEFAULT_FAST_FACTOR, curve.getFactor(3), 0.001);
+  }
+
+  @Test
+  public void tableMatchesCurve() {
+    GainCurve curve = new SigmoidGainCurve();
+    GainTable table = new GainTable(curve);
+    for (double speed = 0; speed < GainTable.DEFAULT_MAX_SPEED; speed += 0.0137) {
+      Assertions.assertEquals(curve.getFactor(speed), table.getFactor(speed), 0.001);
+    }
+    Assertions.assertEquals(curve.getFactor(GainTable.DEFAULT_MAX_SPEED), table.getFactor(100), 1e-12);
+    Assertions.assertEquals(curve.getFactor(0), table.getFactor(Double.NaN), 1e-12);
+  }
+
+  @Test
+  public void mapperAcceleratesBySpeed() {
+    PoseCursorMapper mapper = new PoseCursorMapper(new Rectangle(0, 0, 2000, 2000), 1000, 1000);
+    mapper.setGain(1000, 1000);
+    mapper.setGainCurve(PiecewiseGainCurve.parse("0.1:0.5,1:2"));
+    // 1 cm in a second is slow, the same distance in 5 ms is fast. The table blurs the corners of the curve a little.
+    mapper.move(0.01, 0, 1);
+    Assertions.assertEquals(1005, mapper.getPreciseX(), 0.01);
+    mapper.move(0, 0.01, 0.005);
+    Assertions.assertEquals(1020, mapper.getPreciseY(), 0.01);
+
+    mapper.setGainCurve(GainCurve.LINEAR);
+    mapper.move(0.01, 0, 0.01);
+    Assertions.assertEquals(1015, mapper.getPreciseX(), 1e-6);
+  }
+}
@@ -0,0 +1,77 @@
+package com.github.joonavali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.support.pipeline.OneEuroFilter;
+import com.github.joonasvali.naturalmouse.support.pipeline.OneEuroPoseFilter;
+import com.github.joonasvali.naturalmouse.support.pipeline.OneEuroSettings;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+public class OneEuroFilterTest {
+  private static final long FRAME_NANOS = TimeUnit.SECONDS.toNanos(1) / 30;
+  private static final double JITTER_METERS = 0.003;
+
+  @Test
+  public void jitterAtRestIsReduced() {
+    OneEuroFilter filter = new OneEuroFilter();
+    Random random = new Random(1);
+    double rawSquares = 0;
+    double filteredSquares = 0;
+    for (int i = 0; i < 300; i++) {
+      double raw = (random.nextDouble() - 0.5) * 2 * JITTER_METERS;
+      double filtered = filter.filter(raw, i * FRAME_NANOS, 1.0, 20, 1.0);
+      if (i > 30) {
+        rawSquares += raw * raw;
+        filteredSquares += filtered * filtered;
+      }
+    }
+    Assertions.assertTrue(filteredSquares < rawSquares / 4, "raw " + rawSquares + " filtered " + filteredSquares);
+  }
+
+  @Test
+  public void fastSweepHasLittleLag() {
+    OneEuroFilter adaptive = new OneEuroFilter();
+    OneEuroFilter fixed = new OneEuroFilter();
+    double speed = 0.5;
+    double adaptiveLag = 0;
+    double fixedLag = 0;
+    for (int i = 0; i < 30; i++) {
+      double raw = speed * i * FRAME_NANOS / 1e9;
+      adaptiveLag = raw - adaptive.filter(raw, i * FRAME_NANOS, 1.0, 20, 1.0);
+      fixedLag = raw - fixed.filter(raw, i * FRAME_NANOS, 1.0, 0, 1.0);
+    }
+    // Half a meter per second, 17 mm per frame.
+    Assertions.assertTrue(adaptiveLag < 0.02, "lag " + adaptiveLag);
+    Assertions.assertTrue(adaptiveLag < fixedLag / 4, "adaptive " + adaptiveLag + " fixed " + fixedLag);
+  }
+
+  @Test
+  public void firstValuePassesThrough() {
+    OneEuroFilter filter = new OneEuroFilter();
+    Assertions.assertEquals(1.5, filter.filter(1.5, 100, 1.0, 20, 1.0), 0);
+    filter.reset();
+    Assertions.assertEquals(-2, filter.filter(-2, 200, 1.0, 20, 1.0), 0);
+  }
+
+  @Test
+  public void settingsApplyToPoseFilter() {
+    OneEuroSettings settings = new OneEuroSettings();
+    OneEuroPoseFilter filter = new OneEuroPoseFilter(settings);
+    PoseSample sample = new PoseSample();
+    sample.timestampNanos = FRAME_NANOS;
+    filter.apply(sample, 0);
+
+    sample.tx = 0.01;
+    sample.timestampNanos = 2 * FRAME_NANOS;
+    filter.apply(sample, 0);
+    Assertions.assertTrue(sample.tx > 0 && sample.tx < 0.01);
+
+    settings.setEnabled(false);
+    sample.tx = 0.01;
+    filter.apply(sample, 0);
+    Assertions.assertEquals(0.01, sample.tx, 0);
+  }
+}
@@ -0,0 +1,95 @@
+package com.github.joonavali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.support.pipeline.OutlierRejector;
+import com.github.joonasvali.naturalmouse.support.pipeline.OutlierSettings;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class OutlierRejectorTest {
+  private static final long FRAME_NANOS = TimeUnit.SECONDS.toNanos(1) / 30;
+  // 1 cm per frame.
+  private static final double STEP = 0.01;
+
+  private final OutlierSettings settings = new OutlierSettings();
+  private final OutlierRejector rejector = new OutlierRejector(settings);
+  private final PoseSample sample = new PoseSample();
+  private int frame;
+
+  @Test
+  public void steadyMotionPasses() {
+    for (int i = 0; i < 30; i++) {
+      Assertions.assertFalse(feed(i * STEP));
+      Assertions.assertEquals(i * STEP, sample.tx, 1e-12);
+    }
+    Assertions.assertEquals(0, rejector.getRejectedSamples());
+  }
+
+  @Test
+  public void relocalizationJumpBecomesNewOrigin() {
+    for (int i = 0; i < 10; i++) {
+      feed(i * STEP);
+    }
+    // Relocalized 30 cm away, the motion goes on from there.
+    Assertions.assertTrue(feed(0.3 + 10 * STEP));
+    Assertions.assertEquals(9 * STEP, sample.tx, 1e-12);
+    Assertions.assertFalse(feed(0.3 + 11 * STEP));
+    Assertions.assertEquals(10 * STEP, sample.tx, 1e-12);
+    Assertions.assertEquals(1, rejector.getRejectedSamples());
+  }
+
+  @Test
+  public void singleBadSampleCancelsOut() {
+    for (int i = 0; i < 10; i++) {
+      feed(i * STEP);
+    }
+    Assertions.assertTrue(feed(-0.5));
+    Assertions.assertTrue(feed(11 * STEP));
+    Assertions.assertEquals(9 * STEP, sample.tx, 1e-12);
+    Assertions.assertFalse(feed(12 * STEP));
+    Assertions.assertEquals(10 * STEP, sample.tx, 1e-12);
+    Assertions.assertEquals(2, rejector.getRejectedSamples());
+  }
+
+  @Test
+  public void medianCatchesJumpBelowMaxSpeed() {
+    // Hardly moving, then 6 cm in one frame, 1.8 m/s which is below the max speed.
+    for (int i = 0; i < 10; i++) {
+      feed(i * 0.0005);
+    }
+    Assertions.assertTrue(feed(9 * 0.0005 + 0.06));
+  }
+
+  @Test
+  public void disabledRejectorPassesEverything() {
+    settings.setEnabled(false);
+    feed(0);
+    Assertions.assertFalse(feed(1));
+    Assertions.assertEquals(1, sample.tx, 1e-12);
+  }
+
+  @Test
+  public void reanchorContinuesFromLastPosition() {
+    settings.setEnabled(false);
+    for (int i = 0; i < 10; i++) {
+      feed(i * STEP);
+    }
+    // Tracking came back somewhere else, it is not counted as a rejected jump.
+    rejector.reanchor();
+    Assertions.assertTrue(feed(0.02));
+    Assertions.assertEquals(9 * STEP, sample.tx, 1e-12);
+    Assertions.assertFalse(feed(0.02 + STEP));
+    Assertions.assertEquals(10 * STEP, sample.tx, 1e-12);
+    Assertions.assertEquals(0, rejector.getRejectedSamples());
+  }
+
+  private boolean feed(double tx) {
+    sample.timestampNanos = TimeUnit.SECONDS.toNanos(1) + frame++ * FRAME_NANOS;
+    sample.tx = tx;
+    sample.ty = 0;
+    sample.tz = 0;
+    return rejector.apply(sample, 0);
+  }
+}
@@ -0,0 +1,73 @@
+package com.github.joonavali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.support.pipeline.PoseCursorMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+
+public class PoseCursorMapperTest {
+  private final PoseCursorMapper mapper = new PoseCursorMapper(new Rectangle(0, 0, 800, 500), 100, 100);
+
+  @Test
+  public void firstSampleOnlySetsBaseline() {
+    Assertions.assertFalse(mapper.update(0.5, 0.5));
+    assertCursor(100, 100);
+    Assertions.assertTrue(mapper.update(0.5, 0.5));
+    assertCursor(100, 100);
+  }
+
+  @Test
+  public void zeroCoordinatesAreOrdinarySamples() {
+    mapper.setGain(1000, 1000);
+    mapper.update(0, 0);
+    Assertions.assertTrue(mapper.update(0.01, 0));
+    Assertions.assertTrue(mapper.update(0.02, 0));
+    assertCursor(120, 100);
+  }
+
+  @Test
+  public void slowMotionAccumulates() {
+    mapper.setGain(1000, 1000);
+    mapper.update(0, 0);
+    // 0.3 pixels per sample would be lost if every sample was truncated.
+    for (int i = 1; i <= 100; i++) {
+      mapper.update(i * 0.0003, -i * 0.0003);
+    }
+    Assertions.assertEquals(130, mapper.getPreciseX(), 1e-6);
+    Assertions.assertEquals(70, mapper.getPreciseY(), 1e-6);
+    assertCursor(130, 70);
+  }
+
+  @Test
+  public void gainIsPerAxis() {
+    mapper.setGain(100, -200);
+    mapper.update(0, 0);
+    mapper.update(0.1, 0.1);
+    assertCursor(110, 80);
+  }
+
+  @Test
+  public void cursorStaysInBounds() {
+    mapper.setGain(1000, 1000);
+    mapper.update(0, 0);
+    mapper.update(10, -10);
+    assertCursor(799, 0);
+    // Moving back starts right away, nothing is owed from beyond the edge.
+    mapper.update(9.99, -9.99);
+    assertCursor(789, 10);
+  }
+
+  @Test
+  public void resetStartsNewBaseline() {
+    mapper.setGain(1000, 1000);
+    mapper.update(0, 0);
+    mapper.reset(400, 300);
+    Assertions.assertFalse(mapper.update(5, 5));
+    assertCursor(400, 300);
+  }
+
+  private void assertCursor(int x, int y) {
+    Assertions.assertEquals(new Point(x, y), new Point(mapper.getX(), mapper.getY()));
+  }
+}
@@ -0,0 +1,128 @@
+package com.github.joonavali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.support.pipeline.InterpolationMode;
+import com.github.joonasvali.naturalmouse.support.pipeline.InterpolationSettings;
+import com.github.joonasvali.naturalmouse.support.pipeline.PoseInterpolator;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+public class PoseInterpolatorTest {
+  private static final long FRAME_NANOS = TimeUnit.SECONDS.toNanos(1) / 30;
+  private static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(1) / 144;
+  private static final long TRANSIT_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+  private static final long LOCAL_START = TimeUnit.SECONDS.toNanos(10);
+  private static final double SPEED = 0.2;
+
+  private final InterpolationSettings settings = new InterpolationSettings();
+  private final PoseInterpolator interpolator = new PoseInterpolator(settings);
+  private final PoseSample sample = new PoseSample();
+
+  @Test
+  public void steadyMotionIsReproducedByEveryMode() {
+    for (InterpolationMode mode : InterpolationMode.values()) {
+      settings.setMode(mode);
+      interpolator.reset();
+      long last = feedUntil(LOCAL_START + TimeUnit.SECONDS.toNanos(1), 0, t -> SPEED * t / 1e9);
+      for (long now = last; now < last + FRAME_NANOS; now += TICK_NANOS) {
+        Assertions.assertTrue(interpolator.interpolate(now));
+        long played = now - TRANSIT_NANOS - (long) (interpolator.getPlayoutDelayMs() * 1e6) - LOCAL_START;
+        Assertions.assertEquals(SPEED * played / 1e9, interpolator.getX(), 1e-5, mode.toString());
+      }
+    }
+  }
+
+  @Test
+  public void curvesFollowCurvedMotionCloserThanLines() {
+    settings.setMode(InterpolationMode.LINEAR);
+    double linearError = curveError();
+    settings.setMode(InterpolationMode.HERMITE);
+    double hermiteError = curveError();
+    settings.setMode(InterpolationMode.CATMULL_ROM);
+    double catmullRomError = curveError();
+    Assertions.assertTrue(hermiteError < linearError / 2, hermiteError + " vs " + linearError);
+    Assertions.assertTrue(catmullRomError < linearError / 2, catmullRomError + " vs " + linearError);
+  }
+
+  @Test
+  public void playoutDelayAdaptsToJitter() {
+    feedUntil(LOCAL_START + TimeUnit.SECONDS.toNanos(2), 0, t -> 0);
+    interpolator.interpolate(LOCAL_START + TimeUnit.SECONDS.toNanos(2));
+    double steady = interpolator.getPlayoutDelayMs();
+    Assertions.assertEquals(FRAME_NANOS / 1e6, steady, 1);
+
+    feedUntil(LOCAL_START + TimeUnit.SECONDS.toNanos(4), TimeUnit.MILLISECONDS.toNanos(20), t -> 0);
+    interpolator.interpolate(LOCAL_START + TimeUnit.SECONDS.toNanos(4));
+    double jittery = interpolator.getPlayoutDelayMs();
+    Assertions.assertTrue(jittery > steady + 10, jittery + " vs " + steady);
+
+    feedUntil(LOCAL_START + TimeUnit.SECONDS.toNanos(8), 0, t -> 0);
+    interpolator.interpolate(LOCAL_START + TimeUnit.SECONDS.toNanos(8));
+    Assertions.assertEquals(steady, interpolator.getPlayoutDelayMs(), 2);
+  }
+
+  @Test
+  public void announcedRateCoversIntervalUntilMeasured() {
+    interpolator.setAnnouncedSampleRate(30);
+    sample.timestampNanos = TimeUnit.DAYS.toNanos(2);
+    sample.receivedNanos = LOCAL_START;
+    interpolator.update(sample);
+    interpolator.interpolate(LOCAL_START);
+    Assertions.assertEquals(FRAME_NANOS / 1e6, interpolator.getPlayoutDelayMs(), 0.01);
+
+    interpolator.setAnnouncedSampleRate(0);
+    interpolator.interpolate(LOCAL_START);
+    Assertions.assertEquals(0, interpolator.getPlayoutDelayMs(), 0.01);
+  }
+
+  @Test
+  public void newestSampleIsHeldWhenNextOneIsLate() {
+    long last = feedUntil(LOCAL_START + TimeUnit.SECONDS.toNanos(1), 0, t -> SPEED * t / 1e9);
+    Assertions.assertTrue(interpolator.interpolate(last + TimeUnit.SECONDS.toNanos(1)));
+    long newestCapture = last - TRANSIT_NANOS - LOCAL_START;
+    Assertions.assertEquals(SPEED * newestCapture / 1e9, interpolator.getX(), 1e-9);
+  }
+
+  @Test
+  public void nothingToInterpolateBeforeFirstSample() {
+    Assertions.assertFalse(interpolator.interpolate(LOCAL_START));
+  }
+
+  private double curveError() {
+    interpolator.reset();
+    Position circle = t -> 0.05 * Math.sin(2 * Math.PI * t / 1e9);
+    long last = feedUntil(LOCAL_START + TimeUnit.SECONDS.toNanos(1), 0, circle);
+    double error = 0;
+    for (long now = last - FRAME_NANOS * 3; now < last; now += TICK_NANOS) {
+      interpolator.interpolate(now);
+      long played = now - TRANSIT_NANOS - (long) (interpolator.getPlayoutDelayMs() * 1e6) - LOCAL_START;
+      error += Math.abs(circle.at(played) - interpolator.getX());
+    }
+    return error;
+  }
+
+  /**
+   * Sends a sample every frame until the local time, with every other sample delayed by up to the jitter.
+   *
+   * @return the local time the last sample was received
+   */
+  private long feedUntil(long localEnd, long jitterNanos, Position position) {
+    Random random = new Random(1);
+    long received = 0;
+    for (long elapsed = 0; LOCAL_START + elapsed <= localEnd; elapsed += FRAME_NANOS) {
+      received = LOCAL_START + elapsed + TRANSIT_NANOS;
+      sample.timestampNanos = TimeUnit.DAYS.toNanos(2) + elapsed;
+      sample.receivedNanos = received + (long) (random.nextDouble() * jitterNanos);
+      sample.tx = position.at(elapsed);
+      interpolator.update(sample);
+    }
+    return received;
+  }
+
+  private interface Position {
+    double at(long elapsedNanos);
+  }
+}
@@ -0,0 +1,68 @@
+package com.github.joonavali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.support.pipeline.PoseMailbox;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PoseMailboxTest {
+  private final PoseMailbox mailbox = new PoseMailbox();
+  private final PoseSample sample = new PoseSample();
+  private final PoseSample received = new PoseSample();
+
+  @Test
+  public void pollReturnsNewestAndCountsDropped() {
+    Assertions.assertFalse(mailbox.poll(received));
+
+    publish(1);
+    publish(2);
+    publish(3);
+    Assertions.assertTrue(mailbox.poll(received));
+    Assertions.assertEquals(3, received.sequence);
+    Assertions.assertEquals(3, received.tx, 0);
+    Assertions.assertFalse(mailbox.poll(received));
+
+    publish(4);
+    Assertions.assertTrue(mailbox.poll(received));
+    Assertions.assertEquals(4, received.sequence);
+
+    Assertions.assertEquals(4, mailbox.getPublishedSamples());
+    Assertions.assertEquals(2, mailbox.getDroppedSamples());
+  }
+
+  @Test
+  public void consumerSeesIncreasingSamplesFromConcurrentProducer() throws InterruptedException {
+    final int count = 200000;
+    Thread producer = new Thread(() -> {
+      PoseSample local = new PoseSample();
+      for (int i = 1; i <= count; i++) {
+        local.sequence = i;
+        local.tx = i;
+        local.ty = -i;
+        mailbox.publish(local);
+      }
+    });
+    producer.start();
+
+    long last = 0;
+    long taken = 0;
+    while (last < count) {
+      if (mailbox.poll(received)) {
+        Assertions.assertTrue(received.sequence > last);
+        // A torn sample would mix values of two publishes.
+        Assertions.assertEquals(received.sequence, received.tx, 0);
+        Assertions.assertEquals(-received.sequence, received.ty, 0);
+        last = received.sequence;
+        taken++;
+      }
+    }
+    producer.join();
+    Assertions.assertEquals(count, taken + mailbox.getDroppedSamples());
+  }
+
+  private void publish(int value) {
+    sample.sequence = value;
+    sample.tx = value;
+    mailbox.publish(sample);
+  }
+}
@@ -0,0 +1,136 @@
+package com.github.joonavali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.api.PoseStage;
+import com.github.joonasvali.naturalmouse.support.pipeline.OneEuroPoseFilter;
+import com.github.joonasvali.naturalmouse.support.pipeline.OneEuroSettings;
+import com.github.joonasvali.naturalmouse.support.pipeline.OutlierRejector;
+import com.github.joonasvali.naturalmouse.support.pipeline.OutlierSettings;
+import com.github.joonasvali.naturalmouse.support.pipeline.PipelineConfig;
+import com.github.joonasvali.naturalmouse.support.pipeline.PipelineMetrics;
+import com.github.joonasvali.naturalmouse.support.pipeline.PointingAngles;
+import com.github.joonasvali.naturalmouse.support.pipeline.PosePipeline;
+import com.github.joonasvali.naturalmouse.support.pose.PointingMode;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Properties;
+
+public class PosePipelineTest {
+  private final PipelineMetrics metrics = new PipelineMetrics();
+  private final OneEuroSettings filterSettings = new OneEuroSettings();
+  private final OutlierSettings outlierSettings = new OutlierSettings();
+
+  @Test
+  public void stagesRunInOrderAndAreTimed() {
+    PosePipeline pipeline = new PosePipeline(Arrays.asList("double", "shift"),
+        Arrays.asList((sample, nanos) -> {
+          sample.tx *= 2;
+          return true;
+        }, (sample, nanos) -> {
+          sample.tx += 1;
+          return true;
+        }), metrics);
+    PoseSample sample = new PoseSample();
+    sample.tx = 3;
+    Assertions.assertTrue(pipeline.process(sample, 0));
+    Assertions.assertEquals(7, sample.tx, 1e-12);
+
+    Assertions.assertEquals(2, metrics.getStages().size());
+    for (PipelineMetrics.Stage stage : metrics.getStages()) {
+      Assertions.assertEquals(1, stage.getSamples());
+      Assertions.assertTrue(stage.getMaxMicros() >= stage.getMeanMicros());
+    }
+  }
+
+  @Test
+  public void droppedSampleSkipsLaterStages() {
+    PoseStage last = (sample, nanos) -> {
+      Assertions.fail("The sample was dropped");
+      return true;
+    };
+    PosePipeline pipeline = new PosePipeline(Arrays.asList("gate", "last"),
+        Arrays.asList((sample, nanos) -> sample.tx > 0, last), metrics);
+    Assertions.assertFalse(pipeline.process(new PoseSample(), 0));
+    Assertions.assertEquals(1, metrics.getStage("gate").getDropped());
+    Assertions.assertEquals(0, metrics.getStage("last").getSamples());
+  }
+
+  @Test
+  public void defaultConfigMatchesPointingModes() {
+    PipelineConfig config = new PipelineConfig();
+    PosePipeline translation = config.createPipeline(PointingMode.TRANSLATION, filterSettings, outlierSettings, metrics);
+    Assertions.assertEquals(Arrays.asList("reject", "filter"), translation.getStageNames());
+    Assertions.assertNotNull(translation.getStage(OutlierRejector.class));
+    PosePipeline orientation = config.createPipeline(PointingMode.ORIENTATION, filterSettings, outlierSettings, metrics);
+    Assertions.assertEquals(Arrays.asList("angles", "filter"), orientation.getStageNames());
+    Assertions.assertNull(orientation.getStage(OutlierRejector.class));
+  }
+
+  @Test
+  public void resetRestartsYawUnwrapping() {
+    PosePipeline pipeline = new PipelineConfig().createPipeline(PointingMode.ORIENTATION, filterSettings,
+        outlierSettings, metrics);
+    Assertions.assertNotNull(pipeline.getStage(PointingAngles.class));
+    filterSettings.setEnabled(false);
+    PoseSample sample = aimed(Math.toRadians(170));
+    pipeline.process(sample, 0);
+    Assertions.assertEquals(Math.toRadians(170), sample.tx, 1e-9);
+    // Turned past behind, unwrapped instead of jumping by a full turn.
+    sample = aimed(Math.toRadians(-170));
+    pipeline.process(sample, 0);
+    Assertions.assertEquals(Math.toRadians(190), sample.tx, 1e-9);
+
+    pipeline.reset();
+    sample = aimed(Math.toRadians(-170));
+    pipeline.process(sample, 0);
+    Assertions.assertEquals(Math.toRadians(-170), sample.tx, 1e-9);
+  }
+
+  @Test
+  public void configChoosesStagesAndParameters() {
+    Properties properties = new Properties();
+    properties.setProperty("stages", "filter, " + Halve.class.getName());
+    properties.setProperty("filter.beta", "5");
+    properties.setProperty("reject.maxSpeed", "2");
+    PipelineConfig config = new PipelineConfig(properties);
+    config.configure(filterSettings, outlierSettings);
+    Assertions.assertEquals(5, filterSettings.getBeta(), 1e-12);
+    Assertions.assertEquals(2, outlierSettings.getMaxSpeed(), 1e-12);
+
+    filterSettings.setEnabled(false);
+    PosePipeline pipeline = config.createPipeline(PointingMode.TRANSLATION, filterSettings, outlierSettings, metrics);
+    Assertions.assertNotNull(pipeline.getStage(OneEuroPoseFilter.class));
+    Assertions.assertNull(pipeline.getStage(OutlierRejector.class));
+    PoseSample sample = new PoseSample();
+    sample.tx = 1;
+    pipeline.process(sample, 0);
+    Assertions.assertEquals(0.5, sample.tx, 1e-12);
+  }
+
+  @Test
+  public void unknownStageIsRejected() {
+    Properties properties = new Properties();
+    properties.setProperty("stages", "reject, kalman");
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new PipelineConfig(properties));
+    properties.setProperty("stages", String.class.getName());
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new PipelineConfig(properties));
+  }
+
+  // Turned around the vertical axis, the yaw is positive to the right.
+  private static PoseSample aimed(double yaw) {
+    PoseSample sample = new PoseSample();
+    sample.qy = Math.sin(-yaw / 2);
+    sample.qw = Math.cos(-yaw / 2);
+    return sample;
+  }
+
+  public static class Halve implements PoseStage {
+    @Override
+    public boolean process(PoseSample sample, long receivedNanos) {
+      sample.tx /= 2;
+      return true;
+    }
+  }
+}
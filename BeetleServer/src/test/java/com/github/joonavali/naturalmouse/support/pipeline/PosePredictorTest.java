@@ -0,0 +1,112 @@
+package com.github.joonavali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.support.pipeline.PosePredictor;
+import com.github.joonasvali.naturalmouse.support.pipeline.PredictionMetrics;
+import com.github.joonasvali.naturalmouse.support.pipeline.PredictionSettings;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class PosePredictorTest {
+  private static final long FRAME_NANOS = TimeUnit.SECONDS.toNanos(1) / 30;
+  // The sender's clock runs far from the local one, only the differences matter.
+  private static final long REMOTE_EPOCH_NANOS = TimeUnit.DAYS.toNanos(3);
+  private static final long LOCAL_START_NANOS = TimeUnit.SECONDS.toNanos(10);
+  private static final long TRANSIT_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+  private static final double SPEED = 0.2;
+
+  private final PredictionSettings settings = new PredictionSettings();
+  private final PredictionMetrics metrics = new PredictionMetrics();
+  private final PosePredictor predictor = new PosePredictor(settings, metrics);
+  private final PoseSample sample = new PoseSample();
+
+  @Test
+  public void constantVelocityIsExtrapolated() {
+    long captured = feedConstantVelocity(60, 0);
+    Assertions.assertTrue(predictor.predict(captured + TimeUnit.MILLISECONDS.toNanos(50)));
+    double expected = SPEED * (59 * FRAME_NANOS + TimeUnit.MILLISECONDS.toNanos(50)) / 1e9;
+    Assertions.assertEquals(expected, predictor.getPredictedX(), 0.0005);
+    Assertions.assertEquals(-expected, predictor.getPredictedY(), 0.0005);
+    Assertions.assertEquals(50, metrics.getMeanLookaheadMs(), 0.001);
+  }
+
+  @Test
+  public void networkJitterDoesNotDisturbTiming() {
+    // Every other sample is delayed, the capture time comes from the timestamps.
+    long captured = feedConstantVelocity(60, TimeUnit.MILLISECONDS.toNanos(15));
+    Assertions.assertTrue(predictor.predict(captured));
+    Assertions.assertEquals(SPEED * 59 * FRAME_NANOS / 1e9, predictor.getPredictedX(), 0.0005);
+    long delayNanos = TimeUnit.MILLISECONDS.toNanos(15);
+    for (int i = 60; i < 90; i++) {
+      feed(i, SPEED * i * FRAME_NANOS / 1e9, i % 2 == 1 ? delayNanos : 0);
+      predictor.predict(LOCAL_START_NANOS + i * FRAME_NANOS + TRANSIT_NANOS + TimeUnit.MILLISECONDS.toNanos(20));
+    }
+    Assertions.assertTrue(metrics.getCheckedPredictions() > 0);
+    Assertions.assertTrue(metrics.getMeanError() < 0.0005, metrics.toString());
+  }
+
+  @Test
+  public void errorIsMeasuredAtLookaheadTarget() {
+    long captured = feedConstantVelocity(60, 0);
+    predictor.predict(captured + TimeUnit.MILLISECONDS.toNanos(50));
+    Assertions.assertEquals(0, metrics.getCheckedPredictions());
+    // The phone stopped at the newest sample, so the prediction overshot by the 50 ms it extrapolated.
+    double last = SPEED * 59 * FRAME_NANOS / 1e9;
+    feed(60, last);
+    Assertions.assertEquals(0, metrics.getCheckedPredictions(), "the target time is after the next sample");
+    feed(61, last);
+    Assertions.assertEquals(1, metrics.getCheckedPredictions());
+    Assertions.assertEquals(Math.hypot(SPEED * 0.05, SPEED * 0.05), metrics.getMeanError(), 0.0005);
+  }
+
+  @Test
+  public void extrapolationIsCapped() {
+    long captured = feedConstantVelocity(60, 0);
+    predictor.predict(captured + TimeUnit.SECONDS.toNanos(5));
+    double last = SPEED * 59 * FRAME_NANOS / 1e9;
+    Assertions.assertEquals(last + SPEED * PredictionSettings.MAX_EXTRAPOLATION_MS / 1000, predictor.getPredictedX(),
+        0.0005);
+  }
+
+  @Test
+  public void disabledPredictionReturnsNewestSample() {
+    settings.setEnabled(false);
+    long captured = feedConstantVelocity(10, 0);
+    predictor.predict(captured + TimeUnit.MILLISECONDS.toNanos(50));
+    Assertions.assertEquals(SPEED * 9 * FRAME_NANOS / 1e9, predictor.getPredictedX(), 1e-12);
+  }
+
+  @Test
+  public void nothingToPredictBeforeFirstSample() {
+    Assertions.assertFalse(predictor.predict(1000));
+    feedConstantVelocity(1, 0);
+    predictor.reset();
+    Assertions.assertFalse(predictor.predict(1000));
+  }
+
+  /**
+   * @return the local time the last sample was captured
+   */
+  private long feedConstantVelocity(int samples, long alternateDelayNanos) {
+    for (int i = 0; i < samples; i++) {
+      feed(i, SPEED * i * FRAME_NANOS / 1e9, i % 2 == 1 ? alternateDelayNanos : 0);
+    }
+    // The fastest sample defines the clock offset, so captures map to their receive time less the fastest transit.
+    return LOCAL_START_NANOS + (samples - 1) * FRAME_NANOS + TRANSIT_NANOS;
+  }
+
+  private void feed(int frame, double tx) {
+    feed(frame, tx, 0);
+  }
+
+  private void feed(int frame, double tx, long delayNanos) {
+    long elapsed = frame * FRAME_NANOS;
+    sample.timestampNanos = REMOTE_EPOCH_NANOS + elapsed;
+    sample.receivedNanos = LOCAL_START_NANOS + elapsed + TRANSIT_NANOS + delayNanos;
+    sample.tx = tx;
+    sample.ty = -tx;
+    predictor.update(sample);
+  }
+}
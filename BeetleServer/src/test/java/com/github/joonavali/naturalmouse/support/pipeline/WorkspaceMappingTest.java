@@ -0,0 +1,92 @@
+package com.github.joonavali.naturalmouse.support.pipeline;
+
+import com.github.joonasvali.naturalmouse.support.pipeline.WorkspaceMapping;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+
+public class WorkspaceMappingTest {
+  private static final Rectangle SCREEN = new Rectangle(-1920, 0, 1920, 1080);
+
+  @Test
+  public void cornersOfTiltedPlaneMapOntoScreenCorners() {
+    // 40 x 30 cm on a desk which is turned by 30 degrees and tilted a little, 1 m in front of the origin.
+    double[][] corners = {
+        desk(0, 0), desk(0.4, 0), desk(0.4, 0.3), desk(0, 0.3)
+    };
+    WorkspaceMapping mapping = new WorkspaceMapping(corners, SCREEN);
+    Assertions.assertEquals(0.4, mapping.getWidthMeters(), 1e-9);
+    Assertions.assertEquals(0.3, mapping.getHeightMeters(), 1e-9);
+
+    assertMaps(mapping, desk(0, 0), -1920, 0);
+    assertMaps(mapping, desk(0.4, 0), -1, 0);
+    assertMaps(mapping, desk(0.4, 0.3), -1, 1079);
+    assertMaps(mapping, desk(0, 0.3), -1920, 1079);
+    assertMaps(mapping, desk(0.2, 0.15), -960.5, 539.5);
+  }
+
+  @Test
+  public void distanceFromPlaneIsIgnored() {
+    double[][] corners = {
+        {0, 0, 0}, {0.4, 0, 0}, {0.4, -0.3, 0}, {0, -0.3, 0}
+    };
+    WorkspaceMapping mapping = new WorkspaceMapping(corners, SCREEN);
+    assertMaps(mapping, new double[]{0.1, -0.1, 0.05}, -1920 + 1919 / 4.0, 1079 / 3.0);
+  }
+
+  @Test
+  public void trapezoidIsStraightenedByHomography() {
+    // Held further out at the bottom, the corners form a trapezoid on the plane.
+    double[][] corners = {
+        {0.1, 0, 0}, {0.3, 0, 0}, {0.4, -0.2, 0}, {0, -0.2, 0}
+    };
+    WorkspaceMapping mapping = new WorkspaceMapping(corners, SCREEN);
+    assertMaps(mapping, corners[0], -1920, 0);
+    assertMaps(mapping, corners[2], -1, 1079);
+    // The middle of the top edge stays in the middle of the screen.
+    assertMaps(mapping, new double[]{0.2, 0, 0}, -960.5, 0);
+  }
+
+  @Test
+  public void positionsOutsideAreKeptOnScreen() {
+    double[][] corners = {
+        {0, 0, 0}, {0.4, 0, 0}, {0.4, -0.3, 0}, {0, -0.3, 0}
+    };
+    WorkspaceMapping mapping = new WorkspaceMapping(corners, SCREEN);
+    assertMaps(mapping, new double[]{2, 1, 0}, -1, 0);
+    assertMaps(mapping, new double[]{-2, -1, 0}, -1920, 1079);
+  }
+
+  @Test
+  public void unusableCornersAreRejected() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new WorkspaceMapping(new double[][]{
+        {0, 0, 0}, {0.005, 0, 0}, {0.005, -0.3, 0}, {0, -0.3, 0}
+    }, SCREEN));
+    // Top right and bottom right swapped.
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new WorkspaceMapping(new double[][]{
+        {0, 0, 0}, {0.4, -0.3, 0}, {0.4, 0, 0}, {0, -0.3, 0}
+    }, SCREEN));
+  }
+
+  private static double[] desk(double right, double down) {
+    double turn = Math.toRadians(30);
+    double tilt = Math.toRadians(10);
+    // On the desk right runs along x turned around y, down runs towards the user, tilted up.
+    double x = right * Math.cos(turn) - down * Math.cos(tilt) * Math.sin(turn);
+    double z = -1 + right * Math.sin(turn) + down * Math.cos(tilt) * Math.cos(turn);
+    double y = -0.3 + down * Math.sin(tilt);
+    return new double[]{x, y, z};
+  }
+
+  private static void assertMaps(WorkspaceMapping mapping, double[] position, double x, double y) {
+    PoseSample sample = new PoseSample();
+    sample.tx = position[0];
+    sample.ty = position[1];
+    sample.tz = position[2];
+    mapping.project(sample);
+    Assertions.assertEquals(x, mapping.getScreenX(sample.tx, sample.ty), 1e-6);
+    Assertions.assertEquals(y, mapping.getScreenY(sample.tx, sample.ty), 1e-6);
+  }
+}
@@ -0,0 +1,135 @@
+package com.github.joonavali.naturalmouse.support.pose;
+
+import com.github.joonasvali.naturalmouse.support.pose.BinaryPoseCodec;
+import com.github.joonasvali.naturalmouse.support.pose.PoseCodec;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+import com.github.joonasvali.naturalmouse.support.pose.TrackingFailureReason;
+import com.github.joonasvali.naturalmouse.support.pose.TrackingState;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class BinaryPoseCodecTest {
+  private static final double FLOAT_DELTA = 10e-7;
+
+  private final BinaryPoseCodec codec = new BinaryPoseCodec();
+
+  @Test
+  public void encodedFrameIsDecodedBack() {
+    ByteBuffer buffer = ByteBuffer.allocate(codec.getMaxFrameLength());
+    codec.encode(createSample(), buffer);
+    Assertions.assertEquals(BinaryPoseCodec.FRAME_LENGTH, buffer.position());
+    buffer.flip();
+
+    PoseSample result = new PoseSample();
+    Assertions.assertEquals(PoseCodec.DecodeResult.DECODED, codec.decode(buffer, result));
+    Assertions.assertEquals(0, buffer.remaining());
+    assertSample(result);
+  }
+
+  @Test
+  public void trackingStateIsCarriedInFlags() {
+    PoseSample sample = createSample();
+    sample.trackingState = TrackingState.PAUSED;
+    sample.failureReason = TrackingFailureReason.EXCESSIVE_MOTION;
+    ByteBuffer buffer = ByteBuffer.allocate(codec.getMaxFrameLength());
+    codec.encode(sample, buffer);
+    Assertions.assertEquals(1 | 3 << 2, buffer.get(2));
+    buffer.flip();
+
+    PoseSample result = new PoseSample();
+    codec.decode(buffer, result);
+    Assertions.assertEquals(TrackingState.PAUSED, result.trackingState);
+    Assertions.assertEquals(TrackingFailureReason.EXCESSIVE_MOTION, result.failureReason);
+
+    // Clients from before the state was sent leave the flags 0.
+    buffer.clear();
+    codec.encode(createSample(), buffer);
+    buffer.flip();
+    codec.decode(buffer, result);
+    Assertions.assertTrue(result.isTracking());
+    Assertions.assertEquals(TrackingFailureReason.NONE, result.failureReason);
+  }
+
+  @Test
+  public void frameIsLittleEndian() {
+    ByteBuffer buffer = ByteBuffer.allocate(codec.getMaxFrameLength());
+    codec.encode(createSample(), buffer);
+
+    Assertions.assertEquals(BinaryPoseCodec.MAGIC, buffer.get(0));
+    Assertions.assertEquals(BinaryPoseCodec.VERSION, buffer.get(1));
+    Assertions.assertEquals(ByteOrder.BIG_ENDIAN, buffer.order());
+    Assertions.assertEquals(42, buffer.get(4));
+    Assertions.assertEquals(0.25f, buffer.order(ByteOrder.LITTLE_ENDIAN).getFloat(16));
+  }
+
+  @Test
+  public void partialFrameNeedsMoreData() {
+    ByteBuffer buffer = ByteBuffer.allocate(codec.getMaxFrameLength());
+    codec.encode(createSample(), buffer);
+    buffer.flip();
+
+    PoseSample result = new PoseSample();
+    for (int length = 0; length < BinaryPoseCodec.FRAME_LENGTH; length++) {
+      buffer.limit(length);
+      Assertions.assertEquals(PoseCodec.DecodeResult.NEED_MORE_DATA, codec.decode(buffer, result));
+      Assertions.assertEquals(0, buffer.position());
+    }
+    buffer.limit(BinaryPoseCodec.FRAME_LENGTH);
+    Assertions.assertEquals(PoseCodec.DecodeResult.DECODED, codec.decode(buffer, result));
+    assertSample(result);
+  }
+
+  @Test
+  public void garbageBeforeFrameIsSkipped() {
+    ByteBuffer buffer = ByteBuffer.allocate(3 + codec.getMaxFrameLength());
+    buffer.put((byte) 1).put((byte) 2).put((byte) 3);
+    codec.encode(createSample(), buffer);
+    buffer.flip();
+
+    PoseSample result = new PoseSample();
+    Assertions.assertEquals(PoseCodec.DecodeResult.MALFORMED, codec.decode(buffer, result));
+    Assertions.assertEquals(3, buffer.position());
+    Assertions.assertEquals(PoseCodec.DecodeResult.DECODED, codec.decode(buffer, result));
+    assertSample(result);
+  }
+
+  @Test
+  public void unknownVersionIsMalformed() {
+    ByteBuffer buffer = ByteBuffer.allocate(codec.getMaxFrameLength());
+    codec.encode(createSample(), buffer);
+    buffer.put(1, (byte) 99);
+    buffer.flip();
+
+    Assertions.assertEquals(PoseCodec.DecodeResult.MALFORMED, codec.decode(buffer, new PoseSample()));
+    Assertions.assertTrue(buffer.position() > 0);
+  }
+
+  private PoseSample createSample() {
+    PoseSample sample = new PoseSample();
+    sample.sequence = 42;
+    sample.timestampNanos = 123456789012345L;
+    sample.tx = 0.25;
+    sample.ty = -1.5;
+    sample.tz = 0.125;
+    sample.qx = 0.1;
+    sample.qy = 0.2;
+    sample.qz = 0.3;
+    sample.qw = 0.9;
+    return sample;
+  }
+
+  private void assertSample(PoseSample sample) {
+    Assertions.assertEquals(42, sample.sequence);
+    Assertions.assertEquals(123456789012345L, sample.timestampNanos);
+    Assertions.assertEquals(0.25, sample.tx, FLOAT_DELTA);
+    Assertions.assertEquals(-1.5, sample.ty, FLOAT_DELTA);
+    Assertions.assertEquals(0.125, sample.tz, FLOAT_DELTA);
+    Assertions.assertEquals(0.1, sample.qx, FLOAT_DELTA);
+    Assertions.assertEquals(0.2, sample.qy, FLOAT_DELTA);
+    Assertions.assertEquals(0.3, sample.qz, FLOAT_DELTA);
+    Assertions.assertEquals(0.9, sample.qw, FLOAT_DELTA);
+  }
+}
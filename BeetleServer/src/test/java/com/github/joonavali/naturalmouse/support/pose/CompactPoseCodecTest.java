@@ -0,0 +1,100 @@
+package com.github.joonavali.naturalmouse.support.pose;
+
+import com.github.joonasvali.naturalmouse.support.pose.CompactPoseCodec;
+import com.github.joonasvali.naturalmouse.support.pose.PoseCodec;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+import com.github.joonasvali.naturalmouse.support.pose.TrackingFailureReason;
+import com.github.joonasvali.naturalmouse.support.pose.TrackingState;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+public class CompactPoseCodecTest {
+  private static final double METRE_RESOLUTION = 1e-6;
+  private static final double QUATERNION_RESOLUTION = 1d / Short.MAX_VALUE;
+
+  @Test
+  public void encodedFrameIsDecodedWithinQuantization() {
+    CompactPoseCodec encoder = new CompactPoseCodec();
+    CompactPoseCodec decoder = new CompactPoseCodec();
+    PoseSample input = new PoseSample();
+    input.sequence = 7;
+    input.timestampNanos = 5_000_123_000L;
+    input.tx = 0.1234567;
+    input.ty = -2.5;
+    input.tz = 0.0000004;
+    input.qx = 0.5;
+    input.qy = -0.5;
+    input.qz = 0.25;
+    input.qw = 0.6614378;
+
+    ByteBuffer buffer = ByteBuffer.allocate(encoder.getMaxFrameLength());
+    encoder.encode(input, buffer);
+    Assertions.assertEquals(CompactPoseCodec.FRAME_LENGTH, buffer.position());
+    buffer.flip();
+
+    PoseSample result = new PoseSample();
+    Assertions.assertEquals(PoseCodec.DecodeResult.DECODED, decoder.decode(buffer, result));
+    Assertions.assertEquals(7, result.sequence);
+    Assertions.assertEquals(5_000_123_000L, result.timestampNanos);
+    Assertions.assertEquals(input.tx, result.tx, METRE_RESOLUTION);
+    Assertions.assertEquals(input.ty, result.ty, METRE_RESOLUTION);
+    Assertions.assertEquals(input.tz, result.tz, METRE_RESOLUTION);
+    Assertions.assertEquals(input.qx, result.qx, QUATERNION_RESOLUTION);
+    Assertions.assertEquals(input.qy, result.qy, QUATERNION_RESOLUTION);
+    Assertions.assertEquals(input.qz, result.qz, QUATERNION_RESOLUTION);
+    Assertions.assertEquals(input.qw, result.qw, QUATERNION_RESOLUTION);
+  }
+
+  @Test
+  public void sequenceAndTimestampAreUnwrapped() {
+    CompactPoseCodec encoder = new CompactPoseCodec();
+    CompactPoseCodec decoder = new CompactPoseCodec();
+    PoseSample input = new PoseSample();
+    PoseSample result = new PoseSample();
+    ByteBuffer buffer = ByteBuffer.allocate(encoder.getMaxFrameLength());
+
+    // Both counters pass the point where the truncated wire values wrap around.
+    long timestampNanos = 0xFFFFFFF0L * 1000;
+    for (long sequence = 0xFFF0; sequence < 0x10010; sequence++) {
+      input.sequence = sequence;
+      input.timestampNanos = timestampNanos;
+      buffer.clear();
+      encoder.encode(input, buffer);
+      buffer.flip();
+      Assertions.assertEquals(PoseCodec.DecodeResult.DECODED, decoder.decode(buffer, result));
+      Assertions.assertEquals(sequence, result.sequence);
+      Assertions.assertEquals(timestampNanos, result.timestampNanos);
+      timestampNanos += 1000;
+    }
+  }
+
+  @Test
+  public void trackingStateIsCarriedInFlags() {
+    CompactPoseCodec codec = new CompactPoseCodec();
+    PoseSample input = new PoseSample();
+    input.trackingState = TrackingState.STOPPED;
+    input.failureReason = TrackingFailureReason.CAMERA_UNAVAILABLE;
+    ByteBuffer buffer = ByteBuffer.allocate(codec.getMaxFrameLength());
+    codec.encode(input, buffer);
+    buffer.flip();
+
+    PoseSample result = new PoseSample();
+    codec.decode(buffer, result);
+    Assertions.assertEquals(TrackingState.STOPPED, result.trackingState);
+    Assertions.assertEquals(TrackingFailureReason.CAMERA_UNAVAILABLE, result.failureReason);
+  }
+
+  @Test
+  public void partialFrameNeedsMoreData() {
+    CompactPoseCodec codec = new CompactPoseCodec();
+    ByteBuffer buffer = ByteBuffer.allocate(codec.getMaxFrameLength());
+    codec.encode(new PoseSample(), buffer);
+    buffer.flip();
+    buffer.limit(CompactPoseCodec.FRAME_LENGTH - 1);
+
+    Assertions.assertEquals(PoseCodec.DecodeResult.NEED_MORE_DATA, codec.decode(buffer, new PoseSample()));
+    Assertions.assertEquals(0, buffer.position());
+  }
+}
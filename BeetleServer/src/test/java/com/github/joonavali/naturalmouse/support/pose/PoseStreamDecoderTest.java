@@ -0,0 +1,125 @@
+package com.github.joonavali.naturalmouse.support.pose;
+
+import com.github.joonasvali.naturalmouse.support.pose.PointingMode;
+import com.github.joonasvali.naturalmouse.support.pose.PoseCodecType;
+import com.github.joonasvali.naturalmouse.support.pose.PoseHandshake;
+import com.github.joonasvali.naturalmouse.support.pose.PoseIngestMetrics;
+import com.github.joonasvali.naturalmouse.support.pose.PoseListener;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+import com.github.joonasvali.naturalmouse.support.pose.PoseStreamDecoder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PoseStreamDecoderTest {
+  private final PoseIngestMetrics metrics = new PoseIngestMetrics();
+  private final PoseStreamDecoder decoder = new PoseStreamDecoder(metrics);
+  private final List<Double> received = new ArrayList<>();
+
+  @Test
+  public void handshakeSelectsAnnouncedCodec() {
+    for (PoseCodecType type : PoseCodecType.values()) {
+      PoseStreamDecoder decoder = new PoseStreamDecoder(metrics);
+      ByteBuffer buffer = ByteBuffer.allocate(256);
+      hello(type.getId(), 60).encode(buffer);
+      PoseSample sample = new PoseSample();
+      sample.tx = 0.5;
+      type.createCodec().encode(sample, buffer);
+      buffer.flip();
+
+      received.clear();
+      Assertions.assertTrue(decoder.decode(buffer, s -> received.add(s.tx)));
+      Assertions.assertEquals(type, decoder.getCodecType());
+      Assertions.assertEquals(60, decoder.getAnnouncedSampleRateHz());
+      Assertions.assertEquals(1, received.size(), type.toString());
+      Assertions.assertEquals(0.5, received.get(0), 1e-6);
+    }
+    Assertions.assertEquals(PoseCodecType.values().length, metrics.getHandshakes());
+  }
+
+  @Test
+  public void pointingModeReachesListener() {
+    ByteBuffer buffer = ByteBuffer.allocate(PoseHandshake.LENGTH);
+    PoseHandshake hello = hello(PoseCodecType.BINARY.getId(), 30);
+    hello.setPointingMode(PointingMode.ORIENTATION);
+    hello.encode(buffer);
+    buffer.flip();
+
+    List<PointingMode> modes = new ArrayList<>();
+    Assertions.assertTrue(decoder.decode(buffer, new PoseListener() {
+      @Override
+      public void onPose(PoseSample sample) {
+      }
+
+      @Override
+      public void onHandshake(PoseHandshake handshake) {
+        modes.add(handshake.getPointingMode());
+      }
+    }));
+    Assertions.assertEquals(1, modes.size());
+    Assertions.assertEquals(PointingMode.ORIENTATION, modes.get(0));
+  }
+
+  @Test
+  public void handshakeCanArriveInPieces() {
+    ByteBuffer buffer = ByteBuffer.allocate(PoseHandshake.LENGTH);
+    hello(PoseCodecType.BINARY.getId(), 30).encode(buffer);
+    buffer.flip();
+    buffer.limit(1);
+    Assertions.assertTrue(decoder.decode(buffer, s -> received.add(s.tx)));
+    Assertions.assertNull(decoder.getCodecType());
+    buffer.limit(5);
+    Assertions.assertTrue(decoder.decode(buffer, s -> received.add(s.tx)));
+    Assertions.assertNull(decoder.getCodecType());
+    buffer.limit(PoseHandshake.LENGTH);
+    Assertions.assertTrue(decoder.decode(buffer, s -> received.add(s.tx)));
+    Assertions.assertEquals(PoseCodecType.BINARY, decoder.getCodecType());
+  }
+
+  @Test
+  public void unsupportedHandshakeIsRejected() {
+    ByteBuffer buffer = ByteBuffer.allocate(PoseHandshake.LENGTH);
+    PoseHandshake hello = hello(PoseCodecType.BINARY.getId(), 30);
+    hello.protocolVersion = 99;
+    hello.encode(buffer);
+    buffer.flip();
+
+    Assertions.assertFalse(decoder.decode(buffer, s -> received.add(s.tx)));
+    Assertions.assertEquals(1, metrics.getFailedHandshakes());
+  }
+
+  @Test
+  public void legacyTextClientWithoutHandshakeIsDetected() {
+    ByteBuffer buffer = ByteBuffer.wrap("0.1,0.2\ngarbage\n0.3,0.4\n".getBytes(StandardCharsets.US_ASCII));
+    Assertions.assertTrue(decoder.decode(buffer, s -> received.add(s.tx)));
+
+    Assertions.assertEquals(PoseCodecType.TEXT, decoder.getCodecType());
+    Assertions.assertEquals(2, received.size());
+    Assertions.assertEquals(2, metrics.getFramesDecoded());
+    Assertions.assertEquals(1, metrics.getMalformedFrames());
+    Assertions.assertEquals(1, metrics.getLegacyClients());
+  }
+
+  @Test
+  public void legacyBinaryClientWithoutHandshakeIsDetected() {
+    ByteBuffer buffer = ByteBuffer.allocate(256);
+    PoseCodecType.BINARY.createCodec().encode(new PoseSample(), buffer);
+    buffer.flip();
+    Assertions.assertTrue(decoder.decode(buffer, s -> received.add(s.tx)));
+
+    Assertions.assertEquals(PoseCodecType.BINARY, decoder.getCodecType());
+    Assertions.assertEquals(1, received.size());
+  }
+
+  private PoseHandshake hello(int codecId, int sampleRateHz) {
+    PoseHandshake hello = new PoseHandshake();
+    hello.protocolVersion = PoseHandshake.PROTOCOL_VERSION;
+    hello.codecId = codecId;
+    hello.sampleRateHz = sampleRateHz;
+    return hello;
+  }
+}
@@ -0,0 +1,96 @@
+package com.github.joonavali.naturalmouse.support.pose;
+
+import com.github.joonasvali.naturalmouse.support.pose.PoseCodec;
+import com.github.joonasvali.naturalmouse.support.pose.PoseSample;
+import com.github.joonasvali.naturalmouse.support.pose.TextPoseCodec;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class TextPoseCodecTest {
+  private final TextPoseCodec codec = new TextPoseCodec();
+  private final PoseSample sample = new PoseSample();
+
+  @Test
+  public void parsesWhitespaceSeparatedLine() {
+    ByteBuffer buffer = bytes("0.123456 -1.500000\n");
+    Assertions.assertEquals(PoseCodec.DecodeResult.DECODED, codec.decode(buffer, sample));
+    Assertions.assertEquals(Double.parseDouble("0.123456"), sample.tx);
+    Assertions.assertEquals(Double.parseDouble("-1.500000"), sample.ty);
+    Assertions.assertEquals(1, sample.sequence);
+  }
+
+  @Test
+  public void parsesCommaSeparatedLineOfAndroidClient() {
+    ByteBuffer buffer = bytes("0.123456,-1.500000\n");
+    Assertions.assertEquals(PoseCodec.DecodeResult.DECODED, codec.decode(buffer, sample));
+    Assertions.assertEquals(0.123456, sample.tx);
+    Assertions.assertEquals(-1.5, sample.ty);
+
+    buffer = bytes("1.5 , 2.5\n");
+    Assertions.assertEquals(PoseCodec.DecodeResult.DECODED, codec.decode(buffer, sample));
+    Assertions.assertEquals(1.5, sample.tx);
+    Assertions.assertEquals(2.5, sample.ty);
+  }
+
+  @Test
+  public void toleratesExtraWhitespaceAndCarriageReturn() {
+    ByteBuffer buffer = bytes("  3\t\t-0.5 \r\n");
+    Assertions.assertEquals(PoseCodec.DecodeResult.DECODED, codec.decode(buffer, sample));
+    Assertions.assertEquals(3, sample.tx);
+    Assertions.assertEquals(-0.5, sample.ty);
+  }
+
+  @Test
+  public void incompleteLineNeedsMoreData() {
+    ByteBuffer buffer = bytes("0.1 0.2");
+    Assertions.assertEquals(PoseCodec.DecodeResult.NEED_MORE_DATA, codec.decode(buffer, sample));
+    Assertions.assertEquals(0, buffer.position());
+  }
+
+  @Test
+  public void invalidLinesAreMalformedAndSkipped() {
+    ByteBuffer buffer = bytes("hello\n0.1\n0.1 0.2 0.3\n0.1x 0.2\n0.1,,0.2\n0.4 0.5\n");
+    Assertions.assertEquals(PoseCodec.DecodeResult.MALFORMED, codec.decode(buffer, sample));
+    Assertions.assertEquals(PoseCodec.DecodeResult.MALFORMED, codec.decode(buffer, sample));
+    Assertions.assertEquals(PoseCodec.DecodeResult.MALFORMED, codec.decode(buffer, sample));
+    Assertions.assertEquals(PoseCodec.DecodeResult.MALFORMED, codec.decode(buffer, sample));
+    Assertions.assertEquals(PoseCodec.DecodeResult.MALFORMED, codec.decode(buffer, sample));
+    Assertions.assertEquals(PoseCodec.DecodeResult.DECODED, codec.decode(buffer, sample));
+    Assertions.assertEquals(0.4, sample.tx);
+    Assertions.assertEquals(0.5, sample.ty);
+    Assertions.assertEquals(PoseCodec.DecodeResult.NEED_MORE_DATA, codec.decode(buffer, sample));
+  }
+
+  @Test
+  public void tooLongLineIsDropped() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i <= TextPoseCodec.MAX_LINE_LENGTH; i++) {
+      sb.append('1');
+    }
+    ByteBuffer buffer = bytes(sb.toString());
+    Assertions.assertEquals(PoseCodec.DecodeResult.MALFORMED, codec.decode(buffer, sample));
+    Assertions.assertEquals(0, buffer.remaining());
+  }
+
+  @Test
+  public void encodedLineIsDecodedBack() {
+    PoseSample input = new PoseSample();
+    input.tx = -0.000123;
+    input.ty = 12.5;
+    ByteBuffer buffer = ByteBuffer.allocate(codec.getMaxFrameLength());
+    codec.encode(input, buffer);
+    buffer.flip();
+    Assertions.assertEquals("-0.000123,12.500000\n", StandardCharsets.US_ASCII.decode(buffer.duplicate()).toString());
+
+    Assertions.assertEquals(PoseCodec.DecodeResult.DECODED, codec.decode(buffer, sample));
+    Assertions.assertEquals(-0.000123, sample.tx);
+    Assertions.assertEquals(12.5, sample.ty);
+  }
+
+  private ByteBuffer bytes(String text) {
+    return ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+  }
+}
@@ -0,0 +1,82 @@
+package com.github.joonavali.naturalmouse.support.transport;
+
+import com.github.joonasvali.naturalmouse.api.PoseTransport;
+import com.github.joonasvali.naturalmouse.support.pose.PoseCodecType;
+import com.github.joonasvali.naturalmouse.support.pose.PoseIngestMetrics;
+import com.github.joonasvali.naturalmouse.support.pose.PoseStreamDecoder;
+import com.github.joonasvali.naturalmouse.support.transport.TcpPoseTransport;
+import com.github.joonasvali.naturalmouse.support.transport.UdpPoseTransport;
+import com.github.joonasvali.naturalmouse.tools.SyntheticPoseSender;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LoopbackTransportTest {
+  private static final int FRAMES = 2000;
+
+  @Test
+  public void tcpDeliversAllFrames() throws Exception {
+    try (TcpPoseTransport transport = new TcpPoseTransport(0)) {
+      transport.open();
+      InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), transport.getLocalPort());
+      Thread sender = new Thread(() -> {
+        try {
+          new SyntheticPoseSender(PoseCodecType.BINARY).sendTcp(address, 20000, FRAMES);
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      });
+      sender.start();
+
+      PoseIngestMetrics metrics = new PoseIngestMetrics();
+      int received;
+      try (PoseTransport.Connection connection = transport.accept()) {
+        received = receive(connection, metrics, FRAMES);
+      }
+      sender.join();
+      Assertions.assertEquals(FRAMES, received);
+      Assertions.assertEquals(1, metrics.getHandshakes());
+      Assertions.assertEquals(0, metrics.getMalformedFrames());
+    }
+  }
+
+  @Test
+  public void udpJoinsDatagramsIntoStream() throws Exception {
+    try (UdpPoseTransport transport = new UdpPoseTransport(0)) {
+      transport.open();
+      InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), transport.getLocalPort());
+      PoseTransport.Connection connection = transport.accept();
+      // Loopback can still drop datagrams under load, so send slowly and only require most of them.
+      new SyntheticPoseSender(PoseCodecType.COMPRESSED).sendUdp(address, 2000, 200);
+
+      PoseIngestMetrics metrics = new PoseIngestMetrics();
+      int received = receive(connection, metrics, 150);
+      connection.close();
+      Assertions.assertTrue(received >= 150);
+      Assertions.assertEquals(1, metrics.getHandshakes());
+    }
+  }
+
+  private static int receive(PoseTransport.Connection connection, PoseIngestMetrics metrics, int expected)
+      throws IOException {
+    PoseStreamDecoder decoder = new PoseStreamDecoder(metrics);
+    AtomicInteger count = new AtomicInteger();
+    InputStream in = connection.getInputStream();
+    byte[] bytes = new byte[4096];
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    int read;
+    while (count.get() < expected && (read = in.read(bytes, buffer.position(), buffer.remaining())) != -1) {
+      buffer.position(buffer.position() + read);
+      buffer.flip();
+      Assertions.assertTrue(decoder.decode(buffer, sample -> count.incrementAndGet()));
+      buffer.compact();
+    }
+    return count.get();
+  }
+}
@@ -0,0 +1,114 @@
+package com.github.joonavali.naturalmouse.support.transport;
+
+import com.github.joonasvali.naturalmouse.support.pose.PoseCodecType;
+import com.github.joonasvali.naturalmouse.support.pose.PoseIngestMetrics;
+import com.github.joonasvali.naturalmouse.support.pose.PoseListener;
+import com.github.joonasvali.naturalmouse.support.transport.SelectorIngestServer;
+import com.github.joonasvali.naturalmouse.support.transport.TcpPoseTransport;
+import com.github.joonasvali.naturalmouse.support.transport.UdpPoseTransport;
+import com.github.joonasvali.naturalmouse.tools.SyntheticPoseSender;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+public class SelectorIngestServerTest {
+  private static final long TIMEOUT_MS = 10000;
+
+  private final PoseIngestMetrics metrics = new PoseIngestMetrics();
+  private final ConcurrentHashMap<PoseListener, AtomicInteger> clients = new ConcurrentHashMap<>();
+  private final AtomicInteger disconnected = new AtomicInteger();
+
+  private final SelectorIngestServer.ClientListener clientListener = new SelectorIngestServer.ClientListener() {
+    @Override
+    public PoseListener clientConnected(String remoteName) {
+      AtomicInteger count = new AtomicInteger();
+      PoseListener listener = sample -> count.incrementAndGet();
+      clients.put(listener, count);
+      return listener;
+    }
+
+    @Override
+    public void clientDisconnected(PoseListener client) {
+      Assertions.assertTrue(clients.containsKey(client));
+      disconnected.incrementAndGet();
+    }
+  };
+
+  @Test
+  public void servesSeveralTcpClientsFromOneThread() throws Exception {
+    try (TcpPoseTransport transport = new TcpPoseTransport(0)) {
+      transport.open();
+      SelectorIngestServer server = new SelectorIngestServer(metrics, clientListener);
+      server.register(transport.getSelectableChannel());
+      Thread thread = new Thread(server);
+      thread.start();
+
+      InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), transport.getLocalPort());
+      Thread[] senders = new Thread[4];
+      for (int i = 0; i < senders.length; i++) {
+        PoseCodecType codec = PoseCodecType.values()[i % PoseCodecType.values().length];
+        senders[i] = new Thread(() -> {
+          try {
+            new SyntheticPoseSender(codec).sendTcp(address, 10000, 1000);
+          } catch (Exception e) {
+            throw new RuntimeException(e);
+          }
+        });
+        senders[i].start();
+      }
+      for (Thread sender : senders) {
+        sender.join();
+      }
+
+      waitFor(() -> disconnected.get() == senders.length);
+      server.close();
+      thread.join(TIMEOUT_MS);
+
+      Assertions.assertEquals(senders.length, clients.size());
+      for (AtomicInteger count : clients.values()) {
+        Assertions.assertEquals(1000, count.get());
+      }
+      Assertions.assertEquals(4000, metrics.getFramesDecoded());
+      Assertions.assertEquals(4, metrics.getConnectionsAccepted());
+      Assertions.assertEquals(0, metrics.getOpenConnections());
+      Assertions.assertTrue(metrics.getBytesRead() > 0);
+    }
+  }
+
+  @Test
+  public void treatsEveryUdpSenderAsClient() throws Exception {
+    try (UdpPoseTransport transport = new UdpPoseTransport(0)) {
+      transport.open();
+      SelectorIngestServer server = new SelectorIngestServer(metrics, clientListener);
+      server.register(transport.getSelectableChannel());
+      Thread thread = new Thread(server);
+      thread.start();
+
+      InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), transport.getLocalPort());
+      new SyntheticPoseSender(PoseCodecType.BINARY).sendUdp(address, 2000, 100);
+      new SyntheticPoseSender(PoseCodecType.COMPRESSED).sendUdp(address, 2000, 100);
+
+      // Loopback may still drop a datagram now and then.
+      waitFor(() -> metrics.getFramesDecoded() >= 190);
+      server.close();
+      thread.join(TIMEOUT_MS);
+
+      Assertions.assertEquals(2, metrics.getConnectionsAccepted());
+      Assertions.assertEquals(2, metrics.getHandshakes());
+      Assertions.assertEquals(0, metrics.getOpenConnections());
+    }
+  }
+
+  private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+    while (!condition.getAsBoolean()) {
+      Assertions.assertTrue(System.currentTimeMillis() < deadline, "Timed out");
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package com.github.joonavali.naturalmouse.testutils;
+
+import com.github.joonasvali.naturalmouse.support.Flow;
+
+/**
+ * The step size as Flow computed it before the prefix sums, walking every bucket the step covers.
+ * Kept as the reference the constant time lookup is compared and benchmarked against.
+ */
+public class LinearScanFlow {
+  private static final int AVERAGE_BUCKET_VALUE = 100;
+  private final double[] buckets;
+
+  public LinearScanFlow(Flow flow) {
+    this.buckets = flow.getFlowCharacteristics();
+  }
+
+  public double getStepSize(double distance, int steps, double completion) {
+    double completionStep = 1d / steps;
+    double bucketFrom = (completion * buckets.length);
+    double bucketUntil = ((completion + completionStep) * buckets.length);
+    double bucketContents = getBucketsContents(bucketFrom, bucketUntil);
+    double distancePerBucketContent = distance / (buckets.length * AVERAGE_BUCKET_VALUE);
+    return bucketContents * distancePerBucketContent;
+  }
+
+  private double getBucketsContents(double bucketFrom, double bucketUntil) {
+    double sum = 0;
+    for (int i = (int) bucketFrom; i < bucketUntil; i++) {
+      double value = buckets[i];
+      double endMultiplier = 1;
+      double startMultiplier = 0;
+      if (bucketUntil < i + 1) {
+        endMultiplier = bucketUntil - (int) bucketUntil;
+      }
+      if ((int) bucketFrom == i) {
+        startMultiplier = bucketFrom - (int) bucketFrom;
+      }
+      value *= endMultiplier - startMultiplier;
+      sum += value;
+    }
+    return sum;
+  }
+}